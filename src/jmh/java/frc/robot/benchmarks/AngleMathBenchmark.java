@@ -0,0 +1,55 @@
+package frc.robot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.robot.utils.Utils;
+
+/**
+ * Benchmarks the angle helpers in {@link Utils}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AngleMathBenchmark {
+    private static final int SIZE = 1024; // must be a power of 2
+
+    private final double[] degrees = new double[SIZE];
+    private final double[] radians = new double[SIZE];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < SIZE; i++) {
+            degrees[i] = random.nextDouble() * 1440 - 720;
+            radians[i] = Math.toRadians(degrees[i]);
+        }
+    }
+
+    @Benchmark
+    public double getAngleDifference() {
+        index = (index + 1) & (SIZE - 1);
+        return Utils.getAngleDifference(degrees[index], degrees[(index + 1) & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    public double normalizeDegrees() {
+        index = (index + 1) & (SIZE - 1);
+        return Utils.normalizeDegrees(degrees[index]);
+    }
+
+    @Benchmark
+    public double normalizeRadians() {
+        index = (index + 1) & (SIZE - 1);
+        return Utils.normalizeRadians(radians[index]);
+    }
+}
@@ -0,0 +1,110 @@
+package frc.robot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.utils.SwerveMath;
+import frc.robot.utils.SwerveModule;
+import frc.robot.utils.SwerveSetpointGenerator;
+import frc.robot.utils.io.SwerveModuleIOSim;
+import frc.robot.utils.io.SwerveSimulation;
+
+/**
+ * Benchmarks the path of {@link frc.robot.subsystems.Chassis#setVelocities},
+ * from the discrete module states through the setpoint generator to the
+ * modules, with the hardware replaced by the simulated modules, which are not
+ * stepped
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChassisKinematicsBenchmark {
+    private static final int SIZE = 1024; // must be a power of 2
+
+    private final double[] vx = new double[SIZE];
+    private final double[] vy = new double[SIZE];
+    private final double[] omega = new double[SIZE];
+    private final double[] heading = new double[SIZE];
+    private final double[] currentAngles = new double[4];
+    private final double[] speeds = new double[4];
+    private final double[] angles = new double[4];
+    private SwerveModule[] modules;
+    private SwerveSetpointGenerator setpointGenerator;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < SIZE; i++) {
+            vx[i] = (random.nextDouble() * 2 - 1) * SwerveConstants.MAX_DRIVE_SPEED;
+            vy[i] = (random.nextDouble() * 2 - 1) * SwerveConstants.MAX_DRIVE_SPEED;
+            omega[i] = (random.nextDouble() * 2 - 1) * SwerveConstants.MAX_ANGULAR_SPEED;
+            heading[i] = random.nextDouble() * 2 * Math.PI;
+        }
+        for (int i = 0; i < 4; i++) {
+            currentAngles[i] = random.nextDouble() * 360;
+        }
+
+        SwerveModuleIOSim[] moduleIOs = new SwerveSimulation().getModules();
+        SwerveModuleConstants[] constants = {
+                SwerveModuleConstants.FRONT_LEFT, SwerveModuleConstants.FRONT_RIGHT,
+                SwerveModuleConstants.BACK_LEFT, SwerveModuleConstants.BACK_RIGHT
+        };
+        modules = new SwerveModule[moduleIOs.length];
+        setpointGenerator = new SwerveSetpointGenerator(modules.length, SwerveConstants.MAX_STEER_RATE,
+                SwerveConstants.MAX_ACCELERATION);
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new SwerveModule(constants[i], moduleIOs[i]);
+            setpointGenerator.reset(i, modules[i].getVelocity(), modules[i].getAngle());
+        }
+    }
+
+    /**
+     * The path used by the chassis
+     */
+    @Benchmark
+    public void setVelocities(Blackhole blackhole) {
+        index = (index + 1) & (SIZE - 1);
+        SwerveMath.toDiscreteModuleStates(vx[index], vy[index], omega[index], heading[index],
+                TimedRobot.kDefaultPeriod, SwerveConstants.MODULE_LOCATIONS, speeds, angles);
+        SwerveMath.desaturate(speeds, SwerveConstants.MAX_SPEED);
+        setpointGenerator.generate(speeds, angles, TimedRobot.kDefaultPeriod);
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setState(speeds[i], angles[i], setpointGenerator.getSteerRate(i));
+        }
+        blackhole.consume(speeds);
+        blackhole.consume(angles);
+    }
+
+    /**
+     * The WPILib path the chassis used before, for comparison
+     */
+    @Benchmark
+    public SwerveModuleState[] setVelocitiesWpilib() {
+        index = (index + 1) & (SIZE - 1);
+        ChassisSpeeds speeds = ChassisSpeeds.fromFieldRelativeSpeeds(vx[index], vy[index], omega[index],
+                new Rotation2d(heading[index]));
+        SwerveModuleState[] states = SwerveConstants.KINEMATICS.toSwerveModuleStates(speeds);
+        SwerveDriveKinematics.desaturateWheelSpeeds(states, SwerveConstants.MAX_SPEED);
+        for (int i = 0; i < 4; i++) {
+            states[i] = SwerveModuleState.optimize(states[i], Rotation2d.fromDegrees(currentAngles[i]));
+        }
+        return states;
+    }
+}
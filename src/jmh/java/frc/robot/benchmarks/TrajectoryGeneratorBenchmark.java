@@ -0,0 +1,53 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.pathplanner.lib.PathPoint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.utils.TrajectoryGenerator;
+
+/**
+ * Benchmarks converting a route to path points, using the route to the loading
+ * zone from the community, both building the route every time and generating
+ * from a route that was built once
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrajectoryGeneratorBenchmark {
+    @Param({ "Blue", "Red" })
+    private Alliance alliance;
+
+    private final Pose2d start = new Pose2d(2.5, 4.5, Rotation2d.fromDegrees(170));
+    private final TrajectoryGenerator route = new TrajectoryGenerator.Builder(Alliance.Blue)
+            .add(new Pose2d(new Translation2d(5.57, 4.9), new Rotation2d()), new Rotation2d())
+            .add(new Pose2d(new Translation2d(11.11, 7.34), new Rotation2d()), new Rotation2d())
+            .add(new Pose2d(new Translation2d(15.46, 7.34), new Rotation2d()), new Rotation2d())
+            .build();
+
+    @Benchmark
+    public PathPoint[] generate() {
+        TrajectoryGenerator.Builder builder = new TrajectoryGenerator.Builder(Alliance.Blue);
+        builder.add(new Pose2d(new Translation2d(5.57, 4.9), new Rotation2d()), new Rotation2d());
+        builder.add(new Pose2d(new Translation2d(11.11, 7.34), new Rotation2d()), new Rotation2d());
+        builder.add(new Pose2d(new Translation2d(15.46, 7.34), new Rotation2d()), new Rotation2d());
+        return builder.build().generate(start, alliance);
+    }
+
+    @Benchmark
+    public PathPoint[] generateFromBuiltRoute() {
+        return route.generate(start, alliance);
+    }
+}
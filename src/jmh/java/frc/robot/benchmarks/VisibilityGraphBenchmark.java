@@ -0,0 +1,53 @@
+package frc.robot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.robot.Constants;
+import frc.robot.utils.VisibilityGraph;
+
+/**
+ * Benchmarks finding a route around the field obstacles, from random starts in
+ * the open area to the community and the loading zone
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VisibilityGraphBenchmark {
+    private static final int SIZE = 1024; // must be a power of 2
+
+    private final VisibilityGraph graph = VisibilityGraph.getField();
+    private final double[] starts = new double[SIZE * 2];
+    private double[] waypoints;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < SIZE; i++) {
+            starts[i * 2] = 5 + random.nextDouble() * (Constants.FIELD_WIDTH - 10);
+            starts[i * 2 + 1] = 0.5 + random.nextDouble() * (Constants.FIELD_HEIGHT - 1);
+        }
+        waypoints = new double[graph.getMaxWaypoints() * 2];
+    }
+
+    @Benchmark
+    public int toCommunity() {
+        index = (index + 1) & (SIZE - 1);
+        return graph.findPath(starts[index * 2], starts[index * 2 + 1], 2.17, 0.755, waypoints);
+    }
+
+    @Benchmark
+    public int toLoadingZone() {
+        index = (index + 1) & (SIZE - 1);
+        return graph.findPath(starts[index * 2], starts[index * 2 + 1], 15.46, 7.34, waypoints);
+    }
+}
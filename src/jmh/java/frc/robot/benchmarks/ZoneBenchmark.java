@@ -0,0 +1,48 @@
+package frc.robot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants;
+import frc.robot.utils.Utils.Zone;
+
+/**
+ * Benchmarks finding the zone of the robot from its position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ZoneBenchmark {
+    private static final int SIZE = 1024; // must be a power of 2
+
+    @Param({ "false", "true" })
+    private boolean red;
+
+    private final Translation2d[] positions = new Translation2d[SIZE];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < SIZE; i++) {
+            positions[i] = new Translation2d(random.nextDouble() * Constants.FIELD_WIDTH,
+                    random.nextDouble() * Constants.FIELD_HEIGHT);
+        }
+    }
+
+    @Benchmark
+    public Zone fromRobotLocation() {
+        index = (index + 1) & (SIZE - 1);
+        return Zone.fromRobotLocation(positions[index], red);
+    }
+}
@@ -0,0 +1,147 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.commands.GoUpRamp;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utils.io.ChargeStationSim;
+import frc.robot.utils.io.ChassisIO;
+import frc.robot.utils.io.SwerveSimulation;
+import frc.robot.utils.logging.BinaryLog;
+
+/**
+ * Runs {@link GoUpRamp} against the simulated charge station on a desktop JVM,
+ * faster than real time, run with {@code ./gradlew balanceSimulation}.
+ * <p>
+ * The robot starts in front of the station on either side, and drives onto it
+ * at several velocities. Every run reports the time until the command
+ * finished, the largest tilt while balancing and the tilt after the robot held
+ * its lock, so a change in the controller constants can be compared across
+ * the same runs
+ */
+public final class BalanceSimulation {
+    private static final double LOOP_PERIOD = 0.02; // seconds
+    private static final double TIMEOUT = 15; // seconds, a run that did not finish by then failed
+    private static final double HOLD_TIME = 3; // seconds the lock is held after the command finished
+    private static final double START_DISTANCE = 1; // meters, from the station to the robot center
+    private static final double[] VELOCITIES = { 1, 1.5, 2 }; // meters per second
+
+    private BalanceSimulation() {
+    }
+
+    /**
+     * The metrics of a run
+     */
+    public static class Result {
+        private final double balanceTime, maxTilt, finalTilt;
+        private final boolean level;
+
+        private Result(double balanceTime, double maxTilt, double finalTilt, boolean level) {
+            this.balanceTime = balanceTime;
+            this.maxTilt = maxTilt;
+            this.finalTilt = finalTilt;
+            this.level = level;
+        }
+
+        /**
+         * Gets the time from the start until the command finished
+         *
+         * @return The time, in seconds, or NaN if the command did not finish
+         */
+        public double getBalanceTime() {
+            return balanceTime;
+        }
+
+        /**
+         * Checks if the station was level at the end of the run
+         *
+         * @return Whether the station was level
+         */
+        public boolean isLevel() {
+            return level;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s in %.2f s, max tilt %.1f deg, final tilt %.2f deg",
+                    level ? "level" : "NOT LEVEL", balanceTime, maxTilt, finalTilt);
+        }
+    }
+
+    /**
+     * Drives onto the charge station and balances it
+     *
+     * @param velocity The velocity to drive onto the station, along the field x
+     *                 axis, the robot starts on the side it drives from
+     * @return The metrics of the run
+     */
+    public static Result run(double velocity) {
+        SwerveSimulation simulation = new SwerveSimulation();
+        ChargeStationSim station = new ChargeStationSim(Constants.RAMP);
+        simulation.setChargeStation(station);
+        double startX = velocity > 0 ? Constants.RAMP.getBottomLeft().getX() - START_DISTANCE
+                : Constants.RAMP.getTopRight().getX() + START_DISTANCE;
+        simulation.setPose(new Pose2d(startX, Constants.RAMP.getCenter().getY(), new Rotation2d()));
+
+        Chassis chassis = new Chassis(ChassisIO.simulation(simulation));
+        GoUpRamp command = new GoUpRamp(chassis, velocity);
+        double balanceTime = Double.NaN, maxTilt = 0;
+        try {
+            chassis.periodic();
+            command.initialize();
+            double startTime = simulation.getTime();
+            while (simulation.getTime() - startTime < TIMEOUT) {
+                loop(chassis, simulation);
+                command.execute();
+                if (station.isOn(simulation.getPose().getX(), simulation.getPose().getY()))
+                    maxTilt = Math.max(maxTilt, Math.abs(station.getTilt()));
+                if (command.isFinished()) {
+                    balanceTime = simulation.getTime() - startTime;
+                    break;
+                }
+            }
+            command.end(Double.isNaN(balanceTime));
+            double holdEnd = simulation.getTime() + HOLD_TIME;
+            while (simulation.getTime() < holdEnd) {
+                loop(chassis, simulation);
+            }
+        } finally {
+            CommandScheduler.getInstance().unregisterSubsystem(chassis);
+        }
+        return new Result(balanceTime, maxTilt, station.getTilt(), !Double.isNaN(balanceTime) && station.isLevel());
+    }
+
+    /**
+     * Runs one robot loop of the chassis and advances the simulation
+     */
+    private static void loop(Chassis chassis, SwerveSimulation simulation) {
+        SimHooks.stepTiming(LOOP_PERIOD);
+        chassis.periodic();
+        simulation.step(LOOP_PERIOD);
+    }
+
+    public static void main(String[] args) {
+        if (!HAL.initialize(500, 0))
+            throw new IllegalStateException("Could not initialize the HAL");
+        SimHooks.pauseTiming();
+        BinaryLog.disable();
+        // enabled, so the gyro does not count the tilt rates as bias
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        int failed = 0;
+        for (double velocity : VELOCITIES) {
+            for (double sign = 1; sign >= -1; sign -= 2) {
+                Result result = run(sign * velocity);
+                System.out.printf("%+.1f m/s: %s%n", sign * velocity, result);
+                if (!result.isLevel())
+                    failed++;
+            }
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
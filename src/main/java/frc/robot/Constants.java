@@ -38,9 +38,19 @@ public final class Constants {
     public static final Rectangle COMMUNITY_TOP = new Rectangle(0.0, 3.98, 2.91, 5.49); // in meters, blue alliance
     public static final Rectangle COMMUNITY_MIDDLE = new Rectangle(0, 1.51, 2.91, 3.98); // in meters, blue alliance
     public static final Rectangle LOADING_ZONE = new Rectangle(11.69, 5.55, 16.54, 8.02); // in meters, blue alliance
+    public static final Rectangle GRIDS = new Rectangle(0.0, 0.0, 1.38, 5.49); // in meters, blue alliance
+    public static final Rectangle BARRIER = new Rectangle(0.0, 5.49, 2.91, 5.55); // in meters, blue alliance
 
     public static final double FIELD_WIDTH = 16.54; // in meters
     public static final double FIELD_HEIGHT = 8.02; // in meters
+    public static final double ZONE_RESOLUTION = 0.05; // in meters, the cell size of the zone index
+    public static final double NAVIGATION_MARGIN = 0.45; // in meters, half the robot diagonal with bumpers
+    public static final Rectangle[] OBSTACLES = { // the obstacles of both alliances, avoided by the goto commands
+            GRIDS, BARRIER, RAMP,
+            new Rectangle(FIELD_WIDTH - 1.38, 0.0, FIELD_WIDTH, 5.49), // red grids
+            new Rectangle(FIELD_WIDTH - 2.91, 5.49, FIELD_WIDTH, 5.55), // red barrier
+            new Rectangle(FIELD_WIDTH - 4.85, 1.51, FIELD_WIDTH - 2.91, 3.98) // red ramp
+    };
 
     /**
      * The Swerve Modules constants.
@@ -54,17 +64,21 @@ public final class Constants {
         public static final double VELOCITY_KP = 0.1;
         public static final double VELOCITY_KS = 0.0479;
         public static final double VELOCITY_KV = 0.22185;
+        public static final double VELOCITY_KA = 0.02; // estimated, used only in simulation
         public static final SimpleMotorFeedforward VELOCITY_FF = new SimpleMotorFeedforward(VELOCITY_KS, VELOCITY_KV);
         public static final double ANGLE_KP = 0.2;
         public static final double ANGLE_KI = 0.0013;
 
         public static final double PPR_FALCON = 2048;
+        public static final double FALCON_FREE_SPEED = 6380; // RPM
         public static final double WHEEL_PERIMITER = 0.1016 * Math.PI; // meters
         public static final double GEAR_RATIO_VEL = 8.14;
         public static final double PULSE_PER_METER = PPR_FALCON * GEAR_RATIO_VEL / WHEEL_PERIMITER;
 
         public static final double GEAR_RATIO_ANGLE = 12.8;
         public static final double PULSE_PER_DEGREE = PPR_FALCON * GEAR_RATIO_ANGLE / 360;
+        public static final double STEER_FREE_SPEED = FALCON_FREE_SPEED / 60 * 360 / GEAR_RATIO_ANGLE; // deg/s
+        public static final double STEER_KV = 1 / STEER_FREE_SPEED; // percent output per degree per second
 
         /**
          * Creates a new SwerveModuleConstants.
@@ -91,21 +105,25 @@ public final class Constants {
      * The Swerve Drive constants.
      */
     public static final class SwerveConstants {
-        public static final SwerveDriveKinematics KINEMATICS = new SwerveDriveKinematics(
+        public static final Translation2d[] MODULE_LOCATIONS = {
                 new Translation2d(0.26515, 0.2215), // front left
                 new Translation2d(0.26515, -0.2215), // front right
                 new Translation2d(-0.26515, 0.2215), // back left
                 new Translation2d(-0.26515, -0.2215) // back right
-        );
+        };
+        public static final SwerveDriveKinematics KINEMATICS = new SwerveDriveKinematics(MODULE_LOCATIONS);
 
         public static final int GYRO_ID = 14;
 
+        public static final double ODOMETRY_FREQUENCY = 250; // hertz
+
         public static final double MAX_SPEED = (1 - SwerveModuleConstants.VELOCITY_KS)
                 / SwerveModuleConstants.VELOCITY_KV; // meters per second
         public static final double MAX_ACCELERATION = 3; // meters per second squared
         public static final PathConstraints PATH_CONSTRAINTS = new PathConstraints(MAX_SPEED, MAX_ACCELERATION);
         public static final double MAX_DRIVE_SPEED = 3.5;
         public static final double MAX_ANGULAR_SPEED = 2 * Math.PI; // radians per second
+        public static final double MAX_STEER_RATE = 1800; // degrees per second, about 60% of the free speed
 
         public static final double AUTO_TRANSLATION_KP = 1;
         public static final double AUTO_TRANSLATION_KI = 0;
@@ -118,6 +136,24 @@ public final class Constants {
         public static final double ANGLE_TOLERANCE = Math.PI / 120;
     }
 
+    /**
+     * The CAN bus constants, the frame periods are in milliseconds.
+     */
+    public static final class CanConstants {
+        public static final double BITRATE = 1e6; // bits per second
+        public static final int FRAME_BITS = 150; // an extended frame with 8 data bytes and bit stuffing
+
+        public static final int CONFIG_TIMEOUT = 50; // ms, per attempt
+        public static final int CONFIG_ATTEMPTS = 3;
+
+        public static final int ODOMETRY_PERIOD = (int) Math.round(1000 / SwerveConstants.ODOMETRY_FREQUENCY);
+        public static final int LOOP_PERIOD = 20; // frames read once per loop
+        public static final int STATUS_PERIOD = 100; // frames only used by the devices themselves
+        public static final int UNUSED_PERIOD = 255; // the slowest a status frame can be sent
+        public static final int STEER_CONTROL_PERIOD = 10;
+        public static final int DRIVE_CONTROL_PERIOD = 20; // the velocity is only changed once per loop
+    }
+
     /**
      * The Vision constants.
      */
@@ -125,5 +161,29 @@ public final class Constants {
         public static final NetworkTable LIMELIGHT_TABLE = NetworkTableInstance.getDefault().getTable("limelight");
         public static final double CAPTURE_LATENCY = 11; // ms
         public static final Translation2d CAMERA_OFFSET = new Translation2d(0.3, 0.0); // in meters
+        public static final double DEFAULT_TAG_DISTANCE = 3; // in meters, used when the target pose is missing
+        public static final double FRAME_MATCH_TOLERANCE = 0.005; // seconds, between the topics of one capture
+
+        public static final double MAX_TRANSLATION_ERROR = 1; // in meters, from the pose at capture time
+        public static final double MAX_ROTATION_ERROR = Math.toRadians(15); // in radians
+        public static final int MAX_CONSECUTIVE_REJECTIONS = 15; // frames, accepted after that to recover from drift
+
+        public static final double TRANSLATION_STD_DEV = 0.1; // in meters, at 1 meter with no latency
+        public static final double ROTATION_STD_DEV = Math.toRadians(5); // in radians, at 1 meter with no latency
+        public static final double LATENCY_STD_DEV_FACTOR = 5; // per second of latency
+
+        public static final int POSE_HISTORY_SIZE = 512; // samples, about 2 seconds of odometry
+    }
+
+    /**
+     * The binary log constants.
+     */
+    public static final class LogConstants {
+        public static final String DIRECTORY = "/home/lvuser/logs"; // on the roboRIO, "logs" in simulation
+        public static final int CAPACITY = 50 * 60 * 5; // loops, about 5 minutes before the file wraps around
+        public static final double FLUSH_PERIOD = 1; // seconds
+        public static final int FILES_KEPT = 20; // older log files are deleted
+        public static final int MAX_VISION_FRAMES = 2; // vision frames logged per loop
+        public static final int MAX_ODOMETRY_SAMPLES = 8; // odometry samples logged per loop, 5 at 250 hertz
     }
 }
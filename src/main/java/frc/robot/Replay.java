@@ -0,0 +1,187 @@
+package frc.robot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utils.Utils;
+import frc.robot.utils.io.ChassisIO;
+import frc.robot.utils.logging.BinaryLog;
+import frc.robot.utils.logging.DriverStationLog;
+import frc.robot.utils.logging.LogReader;
+import frc.robot.utils.logging.LogWriter;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * Replays recorded matches through the whole robot on a desktop JVM, faster
+ * than real time, run with {@code ./gradlew replay -Plogs=<file>,<file>}.
+ * <p>
+ * The chassis reads its sensors and vision frames from the log, the driver
+ * station gets the recorded mode and joystick, and the robot loop runs once
+ * per recorded loop on a paused simulated clock. Trajectories are generated
+ * on the loop thread, so the same log and code always give the same result.
+ * The replayed pose is compared to the recorded one, so a change in the
+ * constants shows up as a divergence. The odometry is updated from the samples
+ * the odometry thread took in every recorded loop, so without changes the
+ * replayed pose is the recorded one
+ */
+public final class Replay {
+    private Replay() {
+    }
+
+    /**
+     * The metrics of a replayed match
+     */
+    public static class Result {
+        private final int loops;
+        private final double matchTime, wallTime;
+        private final double meanLoopTime, p99LoopTime, maxLoopTime;
+        private final double meanTranslationError, maxTranslationError, finalTranslationError;
+        private final double maxRotationError;
+
+        private Result(int loops, double matchTime, double wallTime, double[] loopTimes,
+                double meanTranslationError, double maxTranslationError, double finalTranslationError,
+                double maxRotationError) {
+            this.loops = loops;
+            this.matchTime = matchTime;
+            this.wallTime = wallTime;
+            double[] sorted = Arrays.copyOf(loopTimes, loops);
+            Arrays.sort(sorted);
+            double sum = 0;
+            for (double loopTime : sorted) {
+                sum += loopTime;
+            }
+            meanLoopTime = loops == 0 ? 0 : sum / loops;
+            p99LoopTime = loops == 0 ? 0 : sorted[Math.min(loops - 1, (int) Math.ceil(loops * 0.99) - 1)];
+            maxLoopTime = loops == 0 ? 0 : sorted[loops - 1];
+            this.meanTranslationError = meanTranslationError;
+            this.maxTranslationError = maxTranslationError;
+            this.finalTranslationError = finalTranslationError;
+            this.maxRotationError = maxRotationError;
+        }
+
+        /**
+         * Gets the largest distance between the replayed and the recorded pose
+         *
+         * @return The max translation error, in meters
+         */
+        public double getMaxTranslationError() {
+            return maxTranslationError;
+        }
+
+        /**
+         * Gets the largest angle between the replayed and the recorded pose
+         *
+         * @return The max rotation error, in degrees
+         */
+        public double getMaxRotationError() {
+            return maxRotationError;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d loops, %.1f s of match in %.2f s (%.0fx)%n"
+                    + "  loop time: mean %.3f ms, p99 %.3f ms, max %.3f ms%n"
+                    + "  translation error: mean %.3f m, max %.3f m, final %.3f m%n"
+                    + "  rotation error: max %.2f deg",
+                    loops, matchTime, wallTime, wallTime > 0 ? matchTime / wallTime : 0,
+                    meanLoopTime, p99LoopTime, maxLoopTime,
+                    meanTranslationError, maxTranslationError, finalTranslationError, maxRotationError);
+        }
+    }
+
+    /**
+     * Replays a recorded match, and writes the timing and the divergence of every
+     * loop to a CSV file next to the log
+     *
+     * @param file The log file
+     * @return The metrics of the replay
+     * @throws IOException If the log could not be read or the CSV written
+     */
+    public static Result replay(Path file) throws IOException {
+        ReplaySource source = new ReplaySource(new LogReader(file));
+        if (!source.next())
+            throw new IOException(file + " has no records");
+        int timestampField = source.field("Timestamp");
+        int poseField = source.field("Chassis/Pose/X");
+        DriverStationLog driverStation = new DriverStationLog(source, 0);
+        driverStation.replay();
+
+        ChassisIO.setOverride(ChassisIO.replay(source));
+        RobotContainer.reset();
+        Robot robot = new Robot();
+        robot.robotInit();
+        Chassis chassis = RobotContainer.getInstance().getChassis();
+
+        String name = file.getFileName().toString();
+        if (name.endsWith(LogWriter.EXTENSION))
+            name = name.substring(0, name.length() - LogWriter.EXTENSION.length());
+        Path output = file.resolveSibling(name + ".replay.csv");
+
+        double[] loopTimes = new double[source.getRecordCount()];
+        int loops = 0;
+        double sumTranslationError = 0, maxTranslationError = 0, translationError = 0, maxRotationError = 0;
+        double startTime = source.get(timestampField);
+        double lastTime = startTime;
+        long wallStart = System.nanoTime();
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            writer.write("Timestamp,Loop Time,Translation Error,Rotation Error");
+            writer.newLine();
+            do {
+                double time = source.get(timestampField);
+                SimHooks.stepTiming(Math.max(0, time - lastTime));
+                lastTime = time;
+                driverStation.replay();
+
+                long loopStart = System.nanoTime();
+                robot.loopFunc();
+                double loopTime = (System.nanoTime() - loopStart) / 1e6;
+                loopTimes[loops++] = loopTime;
+
+                Pose2d pose = chassis.getPose();
+                translationError = Math.hypot(pose.getX() - source.get(poseField),
+                        pose.getY() - source.get(poseField + 1));
+                double rotationError = Math.abs(Utils.getAngleDifference(pose.getRotation().getDegrees(),
+                        Math.toDegrees(source.get(poseField + 2))));
+                sumTranslationError += translationError;
+                maxTranslationError = Math.max(maxTranslationError, translationError);
+                maxRotationError = Math.max(maxRotationError, rotationError);
+                writer.write(time + "," + loopTime + "," + translationError + "," + rotationError);
+                writer.newLine();
+            } while (source.next());
+        } finally {
+            CommandScheduler scheduler = CommandScheduler.getInstance();
+            scheduler.cancelAll();
+            scheduler.unregisterSubsystem(chassis);
+            scheduler.getDefaultButtonLoop().clear();
+            robot.close();
+            ChassisIO.setOverride(null);
+        }
+        double wallTime = (System.nanoTime() - wallStart) / 1e9;
+        return new Result(loops, lastTime - startTime, wallTime, loopTimes, sumTranslationError / loops,
+                maxTranslationError, translationError, maxRotationError);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: Replay <log file>...");
+            System.exit(1);
+        }
+        if (!HAL.initialize(500, 0))
+            throw new IllegalStateException("Could not initialize the HAL");
+        SimHooks.pauseTiming();
+        BinaryLog.disable();
+        for (String arg : args) {
+            System.out.println(arg + ": " + replay(Paths.get(arg)));
+        }
+        System.exit(0);
+    }
+}
@@ -5,8 +5,13 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.utils.LoopProfiler;
+import frc.robot.utils.TelemetryScheduler;
+import frc.robot.utils.logging.BinaryLog;
+import frc.robot.utils.logging.DriverStationLog;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -19,6 +24,8 @@ public class Robot extends TimedRobot {
 
   private RobotContainer m_robotContainer;
 
+  private DriverStationLog m_driverStationLog;
+
   /**
    * This function is run when the robot is first started up and should be used for any
    * initialization code.
@@ -28,6 +35,10 @@ public class Robot extends TimedRobot {
     // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
     // autonomous chooser on the dashboard.
     m_robotContainer = RobotContainer.getInstance();
+    m_driverStationLog = new DriverStationLog(0);
+    LoopProfiler.setLoopPeriod(getPeriod());
+    // All the log fields are registered by now, so the log file can be created.
+    BinaryLog.start();
   }
 
   /**
@@ -43,15 +54,31 @@ public class Robot extends TimedRobot {
     // commands, running already-scheduled commands, removing finished or interrupted commands,
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
+    LoopProfiler.ROBOT_PERIODIC.start();
     CommandScheduler.getInstance().run();
+    TelemetryScheduler.update();
+    LoopProfiler.ROBOT_PERIODIC.stop();
+  }
+
+  /** Runs a single loop of the robot, timed by the {@link LoopProfiler} and recorded by the {@link BinaryLog}. */
+  @Override
+  protected void loopFunc() {
+    LoopProfiler.startLoop();
+    super.loopFunc();
+    LoopProfiler.endLoop();
+    m_driverStationLog.record();
+    BinaryLog.endLoop(Timer.getFPGATimestamp());
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
   @Override
   public void disabledInit() {}
 
+  /** This function is called periodically while disabled, and warms the trajectory cache in the background. */
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    m_robotContainer.warmTrajectories();
+  }
 
   /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
   @Override
@@ -58,6 +58,23 @@ public class RobotContainer {
         return instance;
     }
 
+    /**
+     * Discards the instance, so the next {@link #getInstance()} creates a new
+     * robot. Used between replays of recorded matches
+     */
+    static void reset() {
+        instance = null;
+    }
+
+    /**
+     * Gets the chassis of the robot
+     * 
+     * @return The chassis
+     */
+    Chassis getChassis() {
+        return chassis;
+    }
+
     /**
      * Use this method to define your button->command mappings. Buttons can be
      * created by
@@ -70,6 +87,14 @@ public class RobotContainer {
         xButton.onTrue(new GoUpRamp(chassis, 1.5));
     }
 
+    /**
+     * Generates the semi autonomous trajectories from the current pose ahead of
+     * time, called periodically while disabled
+     */
+    public void warmTrajectories() {
+        chassis.warmTrajectories();
+    }
+
     /**
      * Use this to pass the autonomous command to the main {@link Robot} class.
      *
@@ -11,6 +11,8 @@ import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.Constants.SwerveConstants;
 import frc.robot.subsystems.Chassis;
+import frc.robot.utils.LoopProfiler;
+import frc.robot.utils.TimingSection;
 import frc.robot.utils.Utils;
 import frc.robot.utils.Utils.ControllerSide;
 
@@ -19,6 +21,9 @@ import frc.robot.utils.Utils.ControllerSide;
  * rotation.
  */
 public class Drive extends CommandBase {
+    private static final TimingSection EXECUTE_TIMING = LoopProfiler.section("Drive Execute",
+            LoopProfiler.ROBOT_PERIODIC);
+
     private final Chassis chassis;
     private final XboxController controller;
     private double scaleVelocity = 2;
@@ -39,6 +44,7 @@ public class Drive extends CommandBase {
 
     @Override
     public void execute() {
+        EXECUTE_TIMING.start();
         boolean red = Utils.isRedAlliance();
         Translation2d xy = Utils.getScaledStick(controller, ControllerSide.LEFT, scaleVelocity)
                 .times(red ? -1 : 1);
@@ -54,6 +60,7 @@ public class Drive extends CommandBase {
             chassis.setVelocities(vx, vy, omega);
         else
             chassis.setAngleAndVelocity(vx, vy, angle.getRadians() + Math.PI / 2 * (red ? 1 : -1));
+        EXECUTE_TIMING.stop();
     }
 
     @Override
@@ -0,0 +1,323 @@
+package frc.robot.commands;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utils.Utils;
+
+/**
+ * Drives the robot semi autonomously along a route of the trajectory cache. The
+ * trajectory is generated on the path planning thread, and the command waits
+ * for it without blocking the scheduler before following it.
+ * <p>
+ * While following, the trajectories of the alternative routes are generated in
+ * the background one at a time, from a state ahead on the current trajectory
+ * and keeping its velocity. Each starts far enough ahead to stay ahead of the
+ * robot until it is generated again, so changing to an alternative route only
+ * looks up its trajectory and switches to it when the robot reaches its start,
+ * and the robot does not stop.
+ */
+public class FollowRoute extends CommandBase {
+    private static final double REPLAN_LEAD = 0.3; // seconds ahead on the trajectory that a new route starts from
+    private static final double REPLAN_PERIOD = 0.2; // seconds between generating the new route while it is pending
+    private static final double PRECOMPUTE_PERIOD = 0.1; // seconds between generating one of the alternatives
+    private static final double MAX_SWITCH_DELAY = 0.05; // seconds the switch may be late before it is replanned
+
+    protected final Chassis chassis;
+    private final XboxController controller;
+    private final PPHolonomicDriveController driveController;
+    private final Timer timer;
+    private int route;
+    private int[] alternatives;
+    private CompletableFuture<PathPlannerTrajectory> trajectory;
+    private PathPlannerTrajectory following;
+    // the trajectories of the alternatives, from the time on their source trajectory they start at
+    private PathPlannerTrajectory[] precomputed, precomputedSources;
+    private double[] precomputedTimes;
+    private CompletableFuture<PathPlannerTrajectory> replan;
+    private PathPlannerTrajectory replanSource;
+    private int replanIndex, nextPrecompute;
+    private double replanTime, lastReplanRequest, lastPrecomputeRequest;
+    private boolean switchPending;
+    private boolean failed;
+    private boolean running;
+
+    /**
+     * Constructs a new FollowRoute command.
+     *
+     * @param chassis    The chassis subsystem
+     * @param controller The controller to check for input, which cancels the
+     *                   command
+     * @param route      The id of the route in the trajectory cache
+     */
+    public FollowRoute(Chassis chassis, XboxController controller, int route) {
+        this.chassis = chassis;
+        this.controller = controller;
+        this.route = route;
+        setAlternatives();
+        driveController = new PPHolonomicDriveController(
+                new PIDController(SwerveConstants.AUTO_TRANSLATION_KP, SwerveConstants.AUTO_TRANSLATION_KI, 0),
+                new PIDController(SwerveConstants.AUTO_TRANSLATION_KP, SwerveConstants.AUTO_TRANSLATION_KI, 0),
+                new PIDController(SwerveConstants.AUTO_ROTATION_KP, SwerveConstants.AUTO_ROTATION_KI, 0));
+        timer = new Timer();
+        addRequirements(chassis);
+    }
+
+    /**
+     * Sets the routes the command may change to while following without
+     * stopping, their trajectories are generated in the background so a change
+     * only switches trajectories.
+     *
+     * @param routes The ids of the routes in the trajectory cache
+     */
+    protected void setAlternatives(int... routes) {
+        alternatives = routes.clone();
+        precomputed = new PathPlannerTrajectory[routes.length];
+        precomputedSources = new PathPlannerTrajectory[routes.length];
+        precomputedTimes = new double[routes.length];
+    }
+
+    /**
+     * Changes the route to follow. If the command is following an alternative
+     * route, it switches to the new route without stopping, otherwise the new
+     * route is generated from the current pose and replaces the current one.
+     *
+     * @param route The id of the route in the trajectory cache
+     */
+    protected void setRoute(int route) {
+        if (route == this.route)
+            return;
+        this.route = route;
+        if (!running)
+            return;
+        if (following != null && indexOf(route) >= 0) {
+            switchPending = true;
+            lastReplanRequest = Double.NEGATIVE_INFINITY; // generated at once if it is not precomputed
+        } else {
+            cancelRoute();
+            chassis.stop();
+            startRoute();
+        }
+    }
+
+    /**
+     * Gets the index of a route in the alternative routes.
+     *
+     * @param route The id of the route
+     * @return The index, or -1 if it is not an alternative
+     */
+    private int indexOf(int route) {
+        for (int i = 0; i < alternatives.length; i++) {
+            if (alternatives[i] == route)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Requests the trajectory of the route from the current pose.
+     */
+    private void startRoute() {
+        failed = false;
+        following = null;
+        switchPending = false;
+        trajectory = chassis.generateTrajectoryAsync(route);
+        followIfReady();
+    }
+
+    /**
+     * Stops generating and following the current trajectories.
+     */
+    private void cancelRoute() {
+        if (trajectory != null)
+            trajectory.cancel(false);
+        if (replan != null)
+            replan.cancel(false);
+        trajectory = null;
+        replan = null;
+        following = null;
+    }
+
+    /**
+     * Starts following the trajectory if it finished generating.
+     */
+    private void followIfReady() {
+        if (following != null || failed || !trajectory.isDone())
+            return;
+        if (trajectory.isCompletedExceptionally() || trajectory.getNow(null) == null) {
+            failed = true;
+            return;
+        }
+        follow(trajectory.getNow(null));
+    }
+
+    /**
+     * Starts following a trajectory from its start.
+     *
+     * @param trajectory The trajectory
+     */
+    private void follow(PathPlannerTrajectory trajectory) {
+        following = trajectory;
+        timer.reset();
+        timer.start();
+        lastReplanRequest = Double.NEGATIVE_INFINITY;
+        lastPrecomputeRequest = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Checks if the robot can still switch to the trajectory of an alternative
+     * route, which is generated or being generated from a state that is not
+     * passed yet.
+     *
+     * @param index The index of the alternative
+     * @param time  The time on the current trajectory, in seconds
+     * @return Whether the alternative can be switched to
+     */
+    private boolean canSwitch(int index, double time) {
+        if (replan != null && replanIndex == index && replanSource == following
+                && time <= replanTime + MAX_SWITCH_DELAY)
+            return true;
+        return precomputed[index] != null && precomputedSources[index] == following
+                && time <= precomputedTimes[index] + MAX_SWITCH_DELAY;
+    }
+
+    /**
+     * Keeps the trajectory of an alternative that finished generating, if it
+     * starts on the trajectory that is followed.
+     */
+    private void collectReplan() {
+        if (replan == null || !replan.isDone())
+            return;
+        if (!replan.isCompletedExceptionally() && replanSource == following) {
+            precomputed[replanIndex] = replan.getNow(null);
+            precomputedSources[replanIndex] = replanSource;
+            precomputedTimes[replanIndex] = replanTime;
+        }
+        replan = null;
+    }
+
+    /**
+     * Generates one alternative route from a state ahead on the current
+     * trajectory, if the previous generation finished. A pending route that can
+     * not be switched to is generated first, a short time ahead, otherwise the
+     * alternatives are generated in turn, each far enough ahead to stay ahead
+     * until its next turn.
+     *
+     * @param time The time on the current trajectory, in seconds
+     */
+    private void replanIfNeeded(double time) {
+        if (replan != null || alternatives.length == 0)
+            return;
+        int pending = switchPending ? indexOf(route) : -1;
+        int index;
+        double lead;
+        if (pending >= 0 && !canSwitch(pending, time)) {
+            if (time - lastReplanRequest < REPLAN_PERIOD)
+                return;
+            index = pending;
+            lead = REPLAN_LEAD;
+            lastReplanRequest = time;
+        } else {
+            if (time - lastPrecomputeRequest < PRECOMPUTE_PERIOD)
+                return;
+            index = nextPrecompute;
+            nextPrecompute = (nextPrecompute + 1) % alternatives.length;
+            if (alternatives[index] == route)
+                return; // followed, or pending and ready to switch to
+            lead = REPLAN_LEAD + alternatives.length * PRECOMPUTE_PERIOD;
+            lastPrecomputeRequest = time;
+        }
+        double startTime = Math.min(time + lead, following.getTotalTimeSeconds() - REPLAN_LEAD);
+        if (startTime < time + REPLAN_LEAD)
+            return;
+        PathPlannerState state = (PathPlannerState) following.sample(startTime);
+        replan = chassis.generateTrajectoryAsync(alternatives[index],
+                new Pose2d(state.poseMeters.getTranslation(), state.holonomicRotation),
+                state.poseMeters.getRotation(), state.velocityMetersPerSecond);
+        replanSource = following;
+        replanIndex = index;
+        replanTime = startTime;
+    }
+
+    /**
+     * Switches to the trajectory of the new route once the robot reaches its
+     * start on the current trajectory.
+     *
+     * @param time The time on the current trajectory, in seconds
+     */
+    private void switchIfReady(double time) {
+        if (!switchPending)
+            return;
+        int index = indexOf(route);
+        if (precomputed[index] == null || precomputedSources[index] != following
+                || time < precomputedTimes[index])
+            return;
+        if (time - precomputedTimes[index] > MAX_SWITCH_DELAY)
+            return; // the state passed before the switch, wait for the next generation
+        switchPending = false;
+        follow(precomputed[index]);
+    }
+
+    @Override
+    public void initialize() {
+        running = true;
+        startRoute();
+    }
+
+    @Override
+    public void execute() {
+        followIfReady();
+        if (following == null)
+            return;
+        collectReplan();
+        double time = timer.get();
+        switchIfReady(time);
+        time = timer.get();
+        if (switchPending && time + REPLAN_LEAD >= following.getTotalTimeSeconds()
+                && !canSwitch(indexOf(route), time)) {
+            // too close to the end to switch, generate the new route from the current pose
+            cancelRoute();
+            startRoute();
+            if (following == null)
+                return;
+            time = timer.get();
+        }
+        replanIfNeeded(time);
+        PathPlannerState state = (PathPlannerState) following.sample(time);
+        chassis.setRobotRelativeVelocities(driveController.calculate(chassis.getPose(), state));
+    }
+
+    /**
+     * Checks if the robot reached the end of the route, rather than the command
+     * failing or the driver taking over
+     *
+     * @return Whether the route was followed to its end
+     */
+    protected boolean hasArrived() {
+        return !failed && following != null && !switchPending && timer.hasElapsed(following.getTotalTimeSeconds());
+    }
+
+    @Override
+    public boolean isFinished() {
+        return failed || (following != null && !switchPending && timer.hasElapsed(following.getTotalTimeSeconds()))
+                || Utils.hasInput(controller);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        running = false;
+        cancelRoute();
+        timer.stop();
+        chassis.stop();
+    }
+}
@@ -4,28 +4,38 @@ import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.Chassis;
 
 /**
- * This command is used to go up the ramp.
+ * This command is used to go up the ramp and balance the charge station.
+ * <p>
+ * The robot drives at the given velocity until the station tilts, then drives
+ * towards the high side at a velocity proportional to the tilt predicted a
+ * short time ahead from the tilt rate, plus a feedforward to keep the wheels
+ * moving. When the station starts tipping towards level the prediction crosses
+ * zero and the robot stops before it passes the balance point. Once level the
+ * modules lock in an X pattern.
  */
 public class GoUpRamp extends CommandBase {
 
     private final Chassis chassis;
     private final double startVelocity;
-    private double velocity;
-    private double angleSign;
-    private State lastState;
+    private double direction;
+    private double climbSign;
     private boolean onRamp;
-    private int count;
+    private double levelStartTime;
 
-    private static final double DEADBAND = 1;
-    private static final double ROTATION_MINIMUM = 5; // the minimum angle to be on the ramp while not straight
-    private static final int COUNT_MINIMUM = 50; // the minimum count to be on the ramp to stop the robot
-    private static final double VELOCITY_FACTOR = 3; // the factor to multiply the velocity by to go up the ramp
+    private static final double ON_RAMP_ANGLE = 10; // degrees, the tilt of the station with the robot on it
+    private static final double LOOKAHEAD = 0.35; // seconds, the time the tilt is predicted ahead
+    private static final double BALANCE_KP = 0.025; // meters per second per degree of predicted tilt
+    private static final double BALANCE_KF = 0.08; // meters per second, to keep the wheels moving on the ramp
+    private static final double MAX_BALANCE_VELOCITY = 0.7; // meters per second
+    private static final double LEVEL_ANGLE = 2.5; // degrees, the station counts as level within it
+    private static final double LEVEL_RATE = 4; // degrees per second, the station counts as settled below it
+    private static final double LEVEL_TIME = 0.2; // seconds the station must stay level to finish
 
     /**
      * Creates a new GoUpRamp command.
-     * 
+     *
      * @param chassis  The chassis subsystem
-     * @param velocity The velocity to go up the ramp
+     * @param velocity The velocity to drive onto the ramp, along the field x axis
      */
     public GoUpRamp(Chassis chassis, double velocity) {
         this.chassis = chassis;
@@ -34,77 +44,58 @@ public class GoUpRamp extends CommandBase {
         addRequirements(chassis);
     }
 
-    /**
-     * Deadbands the angle to prevent the robot from going up and down the ramp.
-     * 
-     * @param angle The angle to deadband
-     * @return The deadbanded angle
-     */
-    private static double deadbandAngle(double angle) {
-        if (Math.abs(angle) < DEADBAND) {
-            return 0;
-        }
-        return angle;
-    }
-
-    /**
-     * The state of the robot, either positive angle or negative angle.
-     */
-    private enum State {
-        POSITIVE,
-        NEGATIVE,
-        UNKNOWN;
-
-        /**
-         * Checks if the sign is different from the state.
-         * 
-         * @param angle The angle to check
-         * @return True if the sign is different, false otherwise
-         */
-        public boolean differentSign(double angle) {
-            angle = Math.signum(deadbandAngle(angle));
-            return (angle == 1 && this == NEGATIVE) ||
-                    (angle == -1 && this == POSITIVE);
-        }
-    }
-
     @Override
     public void initialize() {
         onRamp = false;
-        velocity = startVelocity;
-        lastState = State.UNKNOWN;
+        direction = Math.signum(startVelocity);
+        climbSign = 0;
+        levelStartTime = Double.NaN;
     }
 
     @Override
     public void execute() {
-        double angle = chassis.getUpRotation();
-        chassis.setAngleAndVelocity((onRamp && angleSign == 0) ? 0 : velocity, 0, 0);
-
-        if (!onRamp && Math.abs(angle) > ROTATION_MINIMUM)
-            onRamp = true;
-        else if (onRamp && lastState.differentSign(angle))
-            velocity /= -VELOCITY_FACTOR;
-
-        angleSign = Math.signum(deadbandAngle(angle));
-        if (angleSign == 1)
-            lastState = State.POSITIVE;
-        else if (angleSign == -1)
-            lastState = State.NEGATIVE;
+        double tilt = chassis.getUpRotation();
+        if (!onRamp) {
+            if (Math.abs(tilt) > ON_RAMP_ANGLE) {
+                onRamp = true;
+                // the tilt while climbing, so the tilt is positive while the robot
+                // should keep driving forward
+                climbSign = Math.signum(tilt);
+            } else {
+                chassis.setAngleAndVelocity(startVelocity, 0, 0);
+                return;
+            }
+        }
 
-        if (angleSign == 0 && onRamp) {
-            count++;
-        } else {
-            count = 0;
+        double climb = climbSign * tilt;
+        double climbRate = climbSign * chassis.getUpAngularVel();
+        double predicted = climb + climbRate * LOOKAHEAD;
+        double velocity = 0;
+        // stop once the station is predicted to tip past level, or is level
+        if (Math.abs(climb) > LEVEL_ANGLE && Math.abs(predicted) > LEVEL_ANGLE
+                && Math.signum(predicted) == Math.signum(climb)) {
+            velocity = BALANCE_KP * predicted + Math.copySign(BALANCE_KF, predicted);
+            velocity = Math.max(-MAX_BALANCE_VELOCITY, Math.min(MAX_BALANCE_VELOCITY, velocity));
         }
+        chassis.setAngleAndVelocity(direction * velocity, 0, 0);
+
+        boolean level = Math.abs(tilt) <= LEVEL_ANGLE && Math.abs(chassis.getUpAngularVel()) <= LEVEL_RATE;
+        if (!level)
+            levelStartTime = Double.NaN;
+        else if (Double.isNaN(levelStartTime))
+            levelStartTime = chassis.getTime();
     }
 
     @Override
     public boolean isFinished() {
-        return count >= COUNT_MINIMUM;
+        return onRamp && !Double.isNaN(levelStartTime) && chassis.getTime() - levelStartTime >= LEVEL_TIME;
     }
 
     @Override
     public void end(boolean interrupted) {
-        chassis.stop();
+        if (interrupted)
+            chassis.stop();
+        else
+            chassis.lock();
     }
 }
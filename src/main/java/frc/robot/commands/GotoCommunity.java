@@ -1,26 +1,27 @@
 package frc.robot.commands;
 
+import com.pathplanner.lib.PathPoint;
+
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.XboxController;
-import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.CommandBase;
-import edu.wpi.first.wpilibj2.command.InstantCommand;
 import frc.robot.subsystems.Chassis;
 import frc.robot.utils.TrajectoryGenerator;
 import frc.robot.utils.Utils;
 import frc.robot.utils.Utils.Zone;
+import frc.robot.utils.VisibilityGraph;
 
 /**
  * Drives the robot semi autonomously to the community zone.
  */
-public class GotoCommunity extends CommandBase {
+public class GotoCommunity extends FollowRoute {
+    /** The id of the route in the trajectory cache */
+    public static final int ROUTE = 0;
 
-    private final Chassis chassis;
-    private final XboxController controller;
-    private Command command;
+    private static final Translation2d TOP_TARGET = new Translation2d(2.17, 4.735); // blue alliance
+    private static final Translation2d BOTTOM_TARGET = new Translation2d(2.17, 0.755); // blue alliance
 
     /**
      * Constructs a new GotoCommunity command.
@@ -29,52 +30,58 @@ public class GotoCommunity extends CommandBase {
      * @param controller The controller to use for input
      */
     public GotoCommunity(Chassis chassis, XboxController controller) {
-        this.chassis = chassis;
-        this.controller = controller;
+        super(chassis, controller, ROUTE);
+        VisibilityGraph.getField(); // build the graph at startup
+        chassis.getTrajectoryCache().register(ROUTE, GotoCommunity::createPath);
     }
 
-    @Override
-    public void initialize() {
-        command = new InstantCommand();
-        TrajectoryGenerator generator = new TrajectoryGenerator(Alliance.Blue);
+    /**
+     * Creates the path to the community from a start pose.
+     * 
+     * @param start The start pose of the robot
+     * @return The path points, or null if the robot is already in the community
+     *         or there is no route around the obstacles
+     */
+    private static PathPoint[] createPath(Pose2d start) {
+        TrajectoryGenerator.Builder builder = new TrajectoryGenerator.Builder(Alliance.Blue);
 
-        Zone zone = Zone.fromRobotLocation(chassis.getPose().getTranslation());
-        if (zone == Zone.COMMUNITY_BOTTOM || zone == Zone.COMMUNITY_TOP || zone == Zone.COMMUNITY_MIDDLE) {
-            return;
+        Zone zone = Zone.fromRobotLocation(start.getX(), start.getY());
+        if (Zone.isCommunity(zone.getId())) {
+            return null;
         }
 
-        if (chassis.getPose().getY() > 1.51) {
-            // Enter through the top
-            switch (zone) {
-                case LOADING_ZONE:
-                    generator.add(new Pose2d(new Translation2d(10.98, 7.34), Rotation2d.fromDegrees(180)),
-                            Rotation2d.fromDegrees(180));
-                case OPEN_AREA:
-                    generator.add(new Pose2d(new Translation2d(5.65, 4.735), Rotation2d.fromDegrees(180)),
-                            Rotation2d.fromDegrees(180));
-                default:
-                    generator.add(new Pose2d(new Translation2d(2.17, 4.735), Rotation2d.fromDegrees(180)),
-                            Rotation2d.fromDegrees(180));
-            }
-        } else {
-            // Enter through the bottom
-            generator.add(new Pose2d(new Translation2d(2.17, 0.755), Rotation2d.fromDegrees(180)),
-                    Rotation2d.fromDegrees(180));
+        // enter through the shorter of the top and the bottom entrance, around the ramp
+        Translation2d blueStart = Utils.toBlueAlliance(start.getTranslation());
+        Translation2d[] top = VisibilityGraph.getField().findPath(blueStart, TOP_TARGET);
+        Translation2d[] bottom = VisibilityGraph.getField().findPath(blueStart, BOTTOM_TARGET);
+        Translation2d[] waypoints = getLength(blueStart, top) <= getLength(blueStart, bottom) ? top : bottom;
+        if (waypoints.length == 0) {
+            return null;
+        }
+        for (Translation2d waypoint : waypoints) {
+            builder.add(new Pose2d(waypoint, Rotation2d.fromDegrees(180)));
         }
 
-        command = chassis.createPathFollowingCommand(generator.generate(chassis.getPose()));
-
-        command.schedule();
-    }
-
-    @Override
-    public boolean isFinished() {
-        return !command.isScheduled() || Utils.hasInput(controller);
+        return builder.build().generate(start);
     }
 
-    @Override
-    public void end(boolean interrupted) {
-        command.cancel();
-        chassis.stop();
+    /**
+     * Gets the length of a route
+     * 
+     * @param start     The start of the route
+     * @param waypoints The points of the route after the start
+     * @return The length of the route, in meters, or infinity if it is empty
+     */
+    private static double getLength(Translation2d start, Translation2d[] waypoints) {
+        if (waypoints.length == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double length = 0;
+        Translation2d previous = start;
+        for (Translation2d waypoint : waypoints) {
+            length += previous.getDistance(waypoint);
+            previous = waypoint;
+        }
+        return length;
     }
 }
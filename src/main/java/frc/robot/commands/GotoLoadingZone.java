@@ -1,25 +1,25 @@
 package frc.robot.commands;
 
+import com.pathplanner.lib.PathPoint;
+
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.XboxController;
-import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.Chassis;
 import frc.robot.utils.TrajectoryGenerator;
 import frc.robot.utils.Utils;
-import frc.robot.utils.Utils.Zone;
+import frc.robot.utils.VisibilityGraph;
 
 /**
  * Drives the robot semi autonomously to the loading zone.
  */
-public class GotoLoadingZone extends CommandBase {
+public class GotoLoadingZone extends FollowRoute {
+    /** The id of the route in the trajectory cache */
+    public static final int ROUTE = 1;
 
-    private final Chassis chassis;
-    private final XboxController controller;
-    private Command command;
+    private static final Translation2d TARGET = new Translation2d(15.46, 7.34); // blue alliance
 
     /**
      * Constructs a new GotoLoadingZone command.
@@ -28,55 +28,29 @@ public class GotoLoadingZone extends CommandBase {
      * @param controller The controller to check for input
      */
     public GotoLoadingZone(Chassis chassis, XboxController controller) {
-        this.chassis = chassis;
-        this.controller = controller;
+        super(chassis, controller, ROUTE);
+        VisibilityGraph.getField(); // build the graph at startup
+        chassis.getTrajectoryCache().register(ROUTE, GotoLoadingZone::createPath);
     }
 
-    @Override
-    public void initialize() {
-        TrajectoryGenerator generator = new TrajectoryGenerator(Alliance.Blue);
-
-        Zone zone = Zone.fromRobotLocation(chassis.getPose().getTranslation());
+    /**
+     * Creates the path to the loading zone from a start pose.
+     * 
+     * @param start The start pose of the robot
+     * @return The path points, or null if there is no route around the obstacles
+     */
+    private static PathPoint[] createPath(Pose2d start) {
+        TrajectoryGenerator.Builder builder = new TrajectoryGenerator.Builder(Alliance.Blue);
 
-        if (zone == Zone.COMMUNITY_BOTTOM || zone == Zone.COMMUNITY_ENTRANCE_BOTTOM) {
-            generator.add(new Pose2d(new Translation2d(5.3, 0.76), new Rotation2d()),
-                    new Rotation2d());
-            generator.add(new Pose2d(new Translation2d(11.11, 7.34), new Rotation2d()),
-                    new Rotation2d());
-            generator.add(new Pose2d(new Translation2d(15.46, 7.34), new Rotation2d()),
-                    new Rotation2d());
-        } else {
-            switch (zone) {
-                case COMMUNITY_MIDDLE:
-                    generator.add(new Pose2d(new Translation2d(2.17, 4.74), new Rotation2d()),
-                            new Rotation2d());
-                case COMMUNITY_TOP:
-                case COMMUNITY_ENTRANCE_TOP:
-                    generator.add(new Pose2d(new Translation2d(5.57, 4.9), new Rotation2d()),
-                            new Rotation2d());
-                case OPEN_AREA:
-                    generator.add(new Pose2d(new Translation2d(11.11, 7.34), new Rotation2d()),
-                            new Rotation2d());
-                case LOADING_ZONE:
-                default:
-                    generator.add(new Pose2d(new Translation2d(15.46, 7.34), new Rotation2d()),
-                            new Rotation2d());
-            }
+        Translation2d[] waypoints = VisibilityGraph.getField().findPath(Utils.toBlueAlliance(start.getTranslation()),
+                TARGET);
+        if (waypoints.length == 0) {
+            return null;
+        }
+        for (Translation2d waypoint : waypoints) {
+            builder.add(new Pose2d(waypoint, new Rotation2d()));
         }
 
-        command = chassis.createPathFollowingCommand(generator.generate(chassis.getPose()));
-
-        command.schedule();
-    }
-
-    @Override
-    public boolean isFinished() {
-        return !command.isScheduled() || Utils.hasInput(controller);
-    }
-
-    @Override
-    public void end(boolean interrupted) {
-        command.cancel();
-        chassis.stop();
+        return builder.build().generate(start);
     }
 }
@@ -7,9 +7,6 @@ import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.CommandBase;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import frc.robot.subsystems.Chassis;
 import frc.robot.utils.TrajectoryGenerator;
@@ -18,7 +15,12 @@ import frc.robot.utils.Utils;
 /**
  * This command is used to go to the nodes on the field from the community.
  */
-public class GotoNodes extends CommandBase {
+public class GotoNodes extends FollowRoute {
+    /**
+     * The id of the route to the first node in the trajectory cache, the route to
+     * each node is {@code ROUTE + grid * 3 + node}
+     */
+    public static final int ROUTE = 2;
 
     private static final Translation2d[][] NODES = {
             { new Translation2d(1.38, 0.51), new Translation2d(1.38, 1.07), new Translation2d(1.38, 1.63) },
@@ -52,18 +54,12 @@ public class GotoNodes extends CommandBase {
         }
     }
 
-    private final Chassis chassis;
-    private final XboxController controller;
-    private Command command;
-
     private final SendableChooser<Position> gridPositionChooser;
     private Position gridPosition;
 
     private final SendableChooser<Position> nodePositionChooser;
     private Position nodePosition;
 
-    private boolean isScheduled;
-
     /**
      * Constructor for the GotoNodes command.
      * 
@@ -71,14 +67,32 @@ public class GotoNodes extends CommandBase {
      * @param controller
      */
     public GotoNodes(Chassis chassis, XboxController controller) {
-        this.chassis = chassis;
-        this.controller = controller;
+        super(chassis, controller, getRoute(Position.BOTTOM, Position.BOTTOM));
         gridPositionChooser = new SendableChooser<>();
         nodePositionChooser = new SendableChooser<>();
-        command = new InstantCommand();
-        isScheduled = false;
 
         initChoosers();
+        int[] routes = new int[9];
+        for (Position grid : Position.values()) {
+            for (Position node : Position.values()) {
+                TrajectoryGenerator route = createRoute(grid, node);
+                chassis.getTrajectoryCache().register(getRoute(grid, node), route::generate);
+                routes[grid.getValue() * 3 + node.getValue()] = getRoute(grid, node);
+            }
+        }
+        // the nodes are precomputed while following, so a new target switches to its trajectory without stopping
+        setAlternatives(routes);
+    }
+
+    /**
+     * Gets the id of the route to a node in the trajectory cache.
+     * 
+     * @param grid The grid of the node
+     * @param node The node in the grid
+     * @return The id of the route
+     */
+    private static int getRoute(Position grid, Position node) {
+        return ROUTE + grid.getValue() * 3 + node.getValue();
     }
 
     /**
@@ -103,27 +117,38 @@ public class GotoNodes extends CommandBase {
     }
 
     /**
-     * Initialize the command.
+     * Creates the route to a node, generated again from every start pose.
+     * 
+     * @param grid The grid of the node
+     * @param node The node in the grid
+     * @return The route
      */
-    private void initCommand() {
-        Translation2d node = NODES[gridPosition.getValue()][nodePosition.getValue()];
-        if (nodePosition == Position.MIDDLE) {
-            node = node.plus(new Translation2d(DISTANCE_CUBE, 0));
+    private static TrajectoryGenerator createRoute(Position grid, Position node) {
+        Translation2d target = NODES[grid.getValue()][node.getValue()];
+        if (node == Position.MIDDLE) {
+            target = target.plus(new Translation2d(DISTANCE_CUBE, 0));
         } else {
-            node = node.plus(new Translation2d(DISTANCE_CONE, 0));
+            target = target.plus(new Translation2d(DISTANCE_CONE, 0));
         }
 
-        TrajectoryGenerator generator = new TrajectoryGenerator(Alliance.Blue);
-
-        generator.add(new Pose2d(node, Rotation2d.fromDegrees(180)));
-
-        command = chassis.createPathFollowingCommand(generator.generate(chassis.getPose()));
+        return new TrajectoryGenerator.Builder(Alliance.Blue)
+                .add(new Pose2d(target, Rotation2d.fromDegrees(180)))
+                .build();
     }
 
     @Override
     public void initialize() {
-        isScheduled = true;
         changeTarget();
+        super.initialize();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        boolean arrived = !interrupted && hasArrived();
+        super.end(interrupted);
+        // hold the robot at the node while scoring, until the driver moves
+        if (arrived)
+            chassis.lock();
     }
 
     /**
@@ -133,24 +158,6 @@ public class GotoNodes extends CommandBase {
     private void changeTarget() {
         gridPosition = gridPositionChooser.getSelected();
         nodePosition = nodePositionChooser.getSelected();
-
-        if (command.isScheduled()) {
-            command.cancel();
-        }
-        initCommand();
-        if (isScheduled)
-            command.schedule();
-    }
-
-    @Override
-    public void end(boolean interrupted) {
-        command.cancel();
-        chassis.stop();
-        isScheduled = false;
-    }
-
-    @Override
-    public boolean isFinished() {
-        return Utils.hasInput(controller) || CommandScheduler.getInstance().requiring(chassis) != command;
+        setRoute(getRoute(gridPosition, nodePosition));
     }
 }
@@ -7,74 +7,245 @@ package frc.robot.subsystems;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
 
-import com.ctre.phoenix.sensors.PigeonIMU;
 import com.pathplanner.lib.PathPlanner;
 import com.pathplanner.lib.PathPlannerTrajectory;
 import com.pathplanner.lib.PathPoint;
 import com.pathplanner.lib.commands.FollowPathWithEvents;
 import com.pathplanner.lib.commands.PPSwerveControllerCommand;
 
-import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.LogConstants;
 import frc.robot.Constants.SwerveConstants;
 import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.utils.GyroService;
+import frc.robot.utils.LoopProfiler;
+import frc.robot.utils.ModuleStateManager;
+import frc.robot.utils.OdometryThread;
+import frc.robot.utils.PathPlanningService;
+import frc.robot.utils.PoseHistory;
+import frc.robot.utils.SwerveMath;
 import frc.robot.utils.SwerveModule;
+import frc.robot.utils.SwerveSetpointGenerator;
+import frc.robot.utils.TelemetryScheduler;
+import frc.robot.utils.TelemetryScheduler.Tier;
+import frc.robot.utils.TimingSection;
+import frc.robot.utils.TrajectoryCache;
 import frc.robot.utils.Utils;
+import frc.robot.utils.VisionFrame;
 import frc.robot.utils.VisionUtils;
+import frc.robot.utils.io.CanFrameProfile;
+import frc.robot.utils.io.ChassisIO;
+import frc.robot.utils.io.GyroIO;
+import frc.robot.utils.io.OdometryIO;
+import frc.robot.utils.io.SwerveModuleIO;
+import frc.robot.utils.io.SwerveSimulation;
+import frc.robot.utils.logging.BinaryLog;
 
 /**
  * The subsystem that controls the robot's swerve chassis
  */
 public class Chassis extends SubsystemBase {
+    private static final TimingSection PERIODIC_TIMING = LoopProfiler.section("Chassis Periodic",
+            LoopProfiler.ROBOT_PERIODIC);
+    private static final TimingSection ODOMETRY_TIMING = LoopProfiler.section("Odometry", PERIODIC_TIMING);
+    private static final TimingSection VISION_TIMING = LoopProfiler.section("Vision", PERIODIC_TIMING);
+    private static final double STATIONARY_VELOCITY = 0.01; // meters per second
+    private static final double MIN_LOOP_PERIOD = 0.005; // seconds, the measured period is clamped to
+    private static final double MAX_LOOP_PERIOD = 0.1; // seconds
+
+    /** The names of the modules, in order */
+    public static final String[] MODULE_NAMES = { "Front Left", "Front Right", "Back Left", "Back Right" };
+
     private final Field2d field;
     private final SwerveModule[] modules;
-    private final PigeonIMU gyro;
+    private final SwerveModulePosition[] modulePositions;
+    private final SwerveModuleState[] moduleStates;
+    private final double[] targetSpeeds, targetAngles;
+    private final SwerveSetpointGenerator setpointGenerator;
+    private double lastSetpointTime;
+    private double loopPeriod, lastPeriodicTime;
+    private final GyroService gyro;
+    private final DoubleSupplier clock;
+    private final Supplier<VisionFrame> vision;
+    private final SwerveSimulation simulation;
+    private final boolean odometryThread;
+    private Rotation2d gyroRotation;
+    private double gyroRotationDegrees;
     private final SwerveDrivePoseEstimator poseEstimator;
+    private final OdometryIO odometry;
+    private final SwerveModulePosition[] odometryPositions;
+    private final double[] odometryAngles;
+    private Rotation2d odometryRotation;
+    private double odometryRotationDegrees;
+    private volatile Pose2d estimatedPose;
+    private final PoseHistory poseHistory;
+    private final TrajectoryCache trajectoryCache;
+    private final PathPlanningService pathPlanningService;
+    private CompletableFuture<Boolean> warming;
+    private int consecutiveRejections;
+    private long visionFramesRejected;
     private final PIDController angleController;
-    private final double startRoll, startPitch;
-    private boolean isBreak;
+    private final ModuleStateManager stateManager;
+
+    // the first field of each group in the binary log
+    private final int[] moduleLogFields, moduleInputLogFields;
+    private final int gyroLogField, poseLogField, visionLogField;
+    private final int[] visionFrameLogFields;
+    private int loggedVisionFrames;
+    private final int odometryLogField;
+    private final int[] odometrySampleLogFields;
 
     /**
-     * Creates a new Chassis.
+     * Creates a new Chassis, on the real hardware or on a physics simulation when
+     * running in simulation
      */
     public Chassis() {
+        this(ChassisIO.create());
+    }
+
+    /**
+     * Creates a new Chassis on the given IO. When the odometry thread is not used
+     * the odometry is sampled once per loop, so the chassis can run faster than
+     * real time
+     * 
+     * @param io The hardware, vision, clock and path planning of the chassis
+     */
+    public Chassis(ChassisIO io) {
         field = new Field2d();
-        gyro = new PigeonIMU(SwerveConstants.GYRO_ID);
-        modules = new SwerveModule[] {
-                new SwerveModule(SwerveModuleConstants.FRONT_LEFT),
-                new SwerveModule(SwerveModuleConstants.FRONT_RIGHT),
-                new SwerveModule(SwerveModuleConstants.BACK_LEFT),
-                new SwerveModule(SwerveModuleConstants.BACK_RIGHT)
+        gyro = new GyroService(io.gyro, io.configWriter);
+        clock = io.clock;
+        vision = io.vision;
+        simulation = io.simulation;
+        odometryThread = io.odometryThread;
+        SwerveModuleConstants[] constants = {
+                SwerveModuleConstants.FRONT_LEFT, SwerveModuleConstants.FRONT_RIGHT,
+                SwerveModuleConstants.BACK_LEFT, SwerveModuleConstants.BACK_RIGHT
         };
+        modules = new SwerveModule[io.modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new SwerveModule(constants[i], io.modules[i]);
+        }
+        modulePositions = new SwerveModulePosition[modules.length];
+        moduleStates = new SwerveModuleState[modules.length];
+        targetSpeeds = new double[modules.length];
+        targetAngles = new double[modules.length];
+        loopPeriod = TimedRobot.kDefaultPeriod;
+        lastPeriodicTime = clock.getAsDouble();
+        setpointGenerator = new SwerveSetpointGenerator(modules.length, SwerveConstants.MAX_STEER_RATE,
+                SwerveConstants.MAX_ACCELERATION);
+        resetSetpoints();
+        odometryPositions = new SwerveModulePosition[modules.length];
+        odometryAngles = new double[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            odometryPositions[i] = new SwerveModulePosition();
+        }
+        odometryRotation = new Rotation2d();
+        odometryRotationDegrees = 0;
+        gyroRotation = new Rotation2d();
+        gyroRotationDegrees = 0;
         angleController = new PIDController(SwerveConstants.TELEOP_ROTATION_KP,
                 SwerveConstants.TELEOP_ROTATION_KI, 0);
         angleController.enableContinuousInput(0, 2 * Math.PI);
         angleController.setTolerance(SwerveConstants.ANGLE_TOLERANCE);
         poseEstimator = new SwerveDrivePoseEstimator(SwerveConstants.KINEMATICS, getGyroRotation(),
                 getModulePositions(), new Pose2d(0, 0, getGyroRotation()));
-        isBreak = true;
+        estimatedPose = poseEstimator.getEstimatedPosition();
+        poseHistory = new PoseHistory(VisionConstants.POSE_HISTORY_SIZE);
+        trajectoryCache = new TrajectoryCache();
+        pathPlanningService = io.pathPlanning;
+        if (io.odometry != null) {
+            odometry = io.odometry;
+        } else {
+            OdometryThread thread = new OdometryThread(modules, gyro::readRawYaw, clock,
+                    SwerveConstants.ODOMETRY_FREQUENCY);
+            if (odometryThread)
+                thread.start();
+            odometry = thread;
+        }
+        stateManager = new ModuleStateManager(modules, SwerveConstants.MODULE_LOCATIONS, io.configWriter);
+
+        moduleLogFields = new int[modules.length];
+        moduleInputLogFields = new int[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            moduleLogFields[i] = BinaryLog.fields("Chassis/" + MODULE_NAMES[i], "Velocity", "Angle",
+                    "Desired Velocity", "Desired Angle", "Distance");
+            moduleInputLogFields[i] = BinaryLog.fields("Chassis/" + MODULE_NAMES[i] + "/Inputs",
+                    SwerveModuleIO.Inputs.FIELDS);
+        }
+        gyroLogField = BinaryLog.fields("Chassis/Gyro", GyroIO.Inputs.FIELDS);
+        poseLogField = BinaryLog.fields("Chassis/Pose", "X", "Y", "Rotation");
+        visionLogField = BinaryLog.field("Chassis/Vision/Frames");
+        visionFrameLogFields = new int[LogConstants.MAX_VISION_FRAMES];
+        for (int i = 0; i < visionFrameLogFields.length; i++) {
+            visionFrameLogFields[i] = BinaryLog.fields("Chassis/Vision/" + i, "X", "Y", "Rotation", "Timestamp",
+                    "Latency", "Tag Distance", "Rejected");
+        }
+        odometryLogField = BinaryLog.field("Chassis/Odometry/Samples");
+        odometrySampleLogFields = new int[LogConstants.MAX_ODOMETRY_SAMPLES];
+        String[] sampleFields = OdometryIO.sampleFields(MODULE_NAMES);
+        for (int i = 0; i < odometrySampleLogFields.length; i++) {
+            odometrySampleLogFields[i] = BinaryLog.fields("Chassis/Odometry/" + i, sampleFields);
+        }
 
         SmartDashboard.putData(this);
+        registerTelemetry();
+    }
 
-        startPitch = gyro.getPitch();
-        startRoll = gyro.getRoll();
+    /**
+     * Registers the dashboard values of the chassis and its modules, all of them
+     * read from cached values
+     */
+    private void registerTelemetry() {
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].registerTelemetry(MODULE_NAMES[i] + " Module");
+        }
+        String table = getName();
+        TelemetryScheduler.addDouble(table, "Angle", this::getAngle, Tier.FAST, 0.01);
+        TelemetryScheduler.addDouble(table, "Module CAN Reads", this::getLastLoopCanReads, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "CAN Bus Utilization",
+                () -> RobotController.getCANStatus().percentBusUtilization * 100, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "CAN Bus Estimate", CanFrameProfile::getBusUtilization, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "CAN Config Failures", CanFrameProfile::getConfigFailures, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Odometry Repeated Samples", odometry::getRepeatedSamples, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Odometry Dropped Samples", odometry::getDroppedSamples, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Vision Frames Received", VisionUtils::getFramesReceived, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Vision Frames Dropped", VisionUtils::getFramesDropped, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Vision Frames Unpaired", VisionUtils::getFramesUnpaired, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Vision Frames Rejected", this::getVisionFramesRejected, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Locked", () -> stateManager.isLocked() ? 1 : 0, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Neutral Mode Writes", stateManager::getConfigWrites, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Gyro Reset Pending", () -> gyro.isYawResetPending() ? 1 : 0, Tier.SLOW,
+                0);
+        TelemetryScheduler.addDouble(table, "Gyro Reset Failures", gyro::getYawResetFailures, Tier.SLOW, 0);
+        TelemetryScheduler.addDouble(table, "Vision Latency", () -> VisionUtils.getLastLatency() * 1000,
+                Tier.MEDIUM, 0.1);
+
+        TelemetryScheduler.addDouble(table, "UpAngle", this::getUpRotation, Tier.MEDIUM, 0.01);
+        TelemetryScheduler.addDouble(table, "UpAngularVel", this::getUpAngularVel, Tier.MEDIUM, 0.01);
     }
 
     /**
@@ -83,20 +254,26 @@ public class Chassis extends SubsystemBase {
      * @return The angle of the robot, between 0 and 360 degrees
      */
     public double getAngle() {
-        return Utils.normalizeDegrees(gyro.getFusedHeading());
+        return Utils.normalizeDegrees(gyro.getYaw());
     }
 
     /**
-     * Gets the rotation of the robot
+     * Gets the rotation of the robot, only creating a new one when the angle
+     * changes
      * 
      * @return The rotation of the robot
      */
     public Rotation2d getGyroRotation() {
-        return Rotation2d.fromDegrees(getAngle());
+        double angle = getAngle();
+        if (angle != gyroRotationDegrees) {
+            gyroRotationDegrees = angle;
+            gyroRotation = Rotation2d.fromDegrees(angle);
+        }
+        return gyroRotation;
     }
 
     public Rotation2d getRotation() {
-        return poseEstimator.getEstimatedPosition().getRotation();
+        return getPose().getRotation();
     }
 
     /**
@@ -107,9 +284,21 @@ public class Chassis extends SubsystemBase {
      * @param omega The angular velocity, in radians per second
      */
     public void setVelocities(double vx, double vy, double omega) {
-        ChassisSpeeds speeds = ChassisSpeeds.fromFieldRelativeSpeeds(vx, vy, omega, getRotation());
-        SwerveModuleState[] states = SwerveConstants.KINEMATICS.toSwerveModuleStates(speeds);
-        setModuleStates(states);
+        SwerveMath.toDiscreteModuleStates(vx, vy, omega, getRotation().getRadians(), loopPeriod,
+                SwerveConstants.MODULE_LOCATIONS, targetSpeeds, targetAngles);
+        setModuleStates(targetSpeeds, targetAngles);
+    }
+
+    /**
+     * Sets the robot relative velocities of the robot, used by the path followers
+     * 
+     * @param speeds The robot relative speeds
+     */
+    public void setRobotRelativeVelocities(ChassisSpeeds speeds) {
+        SwerveMath.toDiscreteModuleStates(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond,
+                speeds.omegaRadiansPerSecond, loopPeriod, SwerveConstants.MODULE_LOCATIONS, targetSpeeds,
+                targetAngles);
+        setModuleStates(targetSpeeds, targetAngles);
     }
 
     /**
@@ -128,83 +317,146 @@ public class Chassis extends SubsystemBase {
     }
 
     /**
-     * Sets the states of the modules
+     * Sets the states of the modules through the setpoint generator, which limits
+     * the steering rate and the wheel acceleration. The arrays are modified in
+     * place
      * 
-     * @param states The states of the modules, in order of front left, front right,
-     *               back left, back right
+     * @param speeds The speeds of the modules, in meters per second
+     * @param angles The angles of the modules, in degrees
      */
-    private void setModuleStates(SwerveModuleState[] states) {
-        SwerveDriveKinematics.desaturateWheelSpeeds(states, SwerveConstants.MAX_SPEED);
-        for (int i = 0; i < 4; i++) {
-            states[i] = SwerveModuleState.optimize(states[i], modules[i].getAngleRotation());
-            modules[i].setState(states[i]);
+    private void setModuleStates(double[] speeds, double[] angles) {
+        double time = clock.getAsDouble();
+        if (time - lastSetpointTime > 5 * loopPeriod)
+            resetSetpoints();
+        lastSetpointTime = time;
+        if (stateManager.isLocked()) {
+            if (isStopped(speeds)) {
+                stateManager.hold();
+                return;
+            }
+            stateManager.unlock();
+        }
+        SwerveMath.desaturate(speeds, SwerveConstants.MAX_SPEED);
+        setpointGenerator.generate(speeds, angles, loopPeriod);
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setState(speeds[i], angles[i], setpointGenerator.getSteerRate(i));
         }
     }
 
     /**
-     * Gets the states of the modules
+     * Checks if all the module speeds are zero
+     */
+    private static boolean isStopped(double[] speeds) {
+        for (double speed : speeds) {
+            if (speed != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Restarts the setpoint generator from the measured module states, when the
+     * modules were not driven by it
+     */
+    private void resetSetpoints() {
+        for (int i = 0; i < modules.length; i++) {
+            setpointGenerator.reset(i, modules[i].getVelocity(), modules[i].getAngle());
+        }
+    }
+
+    /**
+     * Gets the states of the modules, the returned array is reused between calls
      * 
      * @return The states of the modules, in order of front left, front right, back
      *         left, back right
      */
     private SwerveModuleState[] getModuleStates() {
-        SwerveModuleState[] states = new SwerveModuleState[4];
-        for (int i = 0; i < 4; i++) {
-            states[i] = modules[i].getState();
+        for (int i = 0; i < modules.length; i++) {
+            moduleStates[i] = modules[i].getState();
         }
-        return states;
+        return moduleStates;
     }
 
     /**
-     * Gets the pose of the robot
+     * Gets the pose of the robot, as of the last odometry update. Safe to call
+     * from any thread
      * 
      * @return The pose of the robot
      */
     public Pose2d getPose() {
-        return poseEstimator.getEstimatedPosition();
+        return estimatedPose;
     }
 
     /**
-     * Stops all motors
+     * Stops all motors, or holds the wheels in place while they are locked
      */
     public void stop() {
+        if (stateManager.isLocked()) {
+            stateManager.hold();
+            return;
+        }
         for (SwerveModule module : modules) {
             module.stopAngleMotor();
             module.stopMoveMotor();
         }
+        resetSetpoints();
     }
 
     /**
-     * Swaps the neutral mode of the modules, between brake and coast
+     * Locks the modules in an X pattern and in brake mode, so the robot resists
+     * being pushed. The modules keep the pattern while the chassis is commanded
+     * to stand still, and are released by the first command to move
      */
-    public void swapNeutralMode() {
-        isBreak = !isBreak;
-        for (var module : modules) {
-            module.setNeutralMode(isBreak);
+    public void lock() {
+        stateManager.lock();
+        for (int i = 0; i < modules.length; i++) {
+            setpointGenerator.reset(i, 0, stateManager.getLockAngle(i));
         }
+        lastSetpointTime = clock.getAsDouble();
+    }
+
+    /**
+     * Checks if the modules are locked in an X pattern
+     * 
+     * @return Whether the modules are locked
+     */
+    public boolean isLocked() {
+        return stateManager.isLocked();
+    }
+
+    /**
+     * Swaps the neutral mode of the modules, between brake and coast. The modules
+     * stay in brake mode while locked, and are configured in the background
+     */
+    public void swapNeutralMode() {
+        stateManager.setNeutralMode(!stateManager.isBreak());
     }
 
     /**
      * Resets the angle of the robot, so the forward of the robot is the same as the
-     * forward of the field
+     * forward of the field. The reset applies at once in software, and the gyro is
+     * zeroed in the background without waiting for it
      */
     private void resetAngle() {
-        gyro.setYaw(0);
-        gyro.setFusedHeading(0);
-        while (Math.abs(gyro.getFusedHeading()) > 0.1)
-            ;
+        gyro.resetYaw();
+        odometry.clear();
+        poseHistory.clear();
         poseEstimator.resetPosition(getGyroRotation(), getModulePositions(),
                 new Pose2d(poseEstimator.getEstimatedPosition().getTranslation(), new Rotation2d()));
+        estimatedPose = poseEstimator.getEstimatedPosition();
     }
 
     /**
-     * Gets the positions of the modules
+     * Gets the positions of the modules, the returned array is reused between calls
      * 
      * @return The positions of the modules, in order of front left, front right,
      *         back left, back right
      */
     private SwerveModulePosition[] getModulePositions() {
-        return Arrays.stream(modules).map((module) -> module.getPosition()).toArray(SwerveModulePosition[]::new);
+        for (int i = 0; i < modules.length; i++) {
+            modulePositions[i] = modules[i].getPosition();
+        }
+        return modulePositions;
     }
 
     /**
@@ -213,7 +465,56 @@ public class Chassis extends SubsystemBase {
      * @param pose The pose to reset to
      */
     private void resetPose(Pose2d pose) {
+        odometry.clear();
+        poseHistory.clear();
         poseEstimator.resetPosition(getGyroRotation(), getModulePositions(), pose);
+        estimatedPose = poseEstimator.getEstimatedPosition();
+    }
+
+    /**
+     * Adds all the samples taken by the odometry thread since the last loop to the
+     * pose estimator, and records the first of them in the binary log so a replay
+     * updates the pose from the same samples
+     */
+    private void updateOdometry() {
+        int samples = odometry.readSamples();
+        BinaryLog.set(odometryLogField, Math.min(samples, odometrySampleLogFields.length));
+        for (int sample = 0; sample < samples; sample++) {
+            if (sample < odometrySampleLogFields.length)
+                logOdometrySample(sample, odometrySampleLogFields[sample]);
+            for (int i = 0; i < modules.length; i++) {
+                odometryPositions[i].distanceMeters = odometry.getDistance(sample, i);
+                double angle = odometry.getAngle(sample, i);
+                if (angle != odometryAngles[i]) {
+                    odometryAngles[i] = angle;
+                    odometryPositions[i].angle = Rotation2d.fromDegrees(angle);
+                }
+            }
+            double timestamp = odometry.getTimestamp(sample);
+            double sampleYaw = gyro.correctOdometryYaw(odometry.getYaw(sample), timestamp);
+            if (sampleYaw != odometryRotationDegrees) {
+                odometryRotationDegrees = sampleYaw;
+                odometryRotation = Rotation2d.fromDegrees(sampleYaw);
+            }
+            Pose2d pose = poseEstimator.updateWithTime(timestamp, odometryRotation, odometryPositions);
+            poseHistory.add(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+        }
+        estimatedPose = poseEstimator.getEstimatedPosition();
+    }
+
+    /**
+     * Records an odometry sample in the binary log
+     * 
+     * @param sample The index of the sample, from the last read
+     * @param field  The first of the fields of the sample
+     */
+    private void logOdometrySample(int sample, int field) {
+        BinaryLog.set(field, odometry.getTimestamp(sample));
+        BinaryLog.set(field + 1, odometry.getYaw(sample));
+        for (int i = 0; i < modules.length; i++) {
+            BinaryLog.set(field + 2 + i * 2, odometry.getDistance(sample, i));
+            BinaryLog.set(field + 3 + i * 2, odometry.getAngle(sample, i));
+        }
     }
 
     /**
@@ -245,11 +546,10 @@ public class Chassis extends SubsystemBase {
                 new PPSwerveControllerCommand(
                         trajectory,
                         this::getPose,
-                        SwerveConstants.KINEMATICS,
                         new PIDController(SwerveConstants.AUTO_TRANSLATION_KP, SwerveConstants.AUTO_TRANSLATION_KI, 0),
                         new PIDController(SwerveConstants.AUTO_TRANSLATION_KP, SwerveConstants.AUTO_TRANSLATION_KI, 0),
                         new PIDController(SwerveConstants.AUTO_ROTATION_KP, SwerveConstants.AUTO_ROTATION_KI, 0),
-                        this::setModuleStates,
+                        this::setRobotRelativeVelocities,
                         this));
 
         return new FollowPathWithEvents(command, trajectory.getMarkers(), events);
@@ -305,93 +605,280 @@ public class Chassis extends SubsystemBase {
     }
 
     /**
-     * Adds a vision input to the estimated pose of the robot
+     * Generates the trajectory of a route in the trajectory cache from the current
+     * pose, on the path planning thread
+     * 
+     * @param route The id of the route, registered in the trajectory cache
+     * @return A future of the trajectory, completed with null if there is no path
+     *         from the current pose
+     */
+    public CompletableFuture<PathPlannerTrajectory> generateTrajectoryAsync(int route) {
+        Pose2d start = getPose();
+        return pathPlanningService.submit(() -> trajectoryCache.get(route, start));
+    }
+
+    /**
+     * Generates the trajectory of a route in the trajectory cache from a moving
+     * start, on the path planning thread. The trajectory is not cached
      * 
-     * @param estimatedPose     The estimated pose of the robot by vision
-     * @param timeOfMeasurement The time of the vision measurement by
-     *                          {@link Timer#getFPGATimestamp()}
+     * @param route    The id of the route, registered in the trajectory cache
+     * @param start    The start pose of the robot
+     * @param heading  The direction the robot moves in at the start, relative to
+     *                 the field
+     * @param velocity The speed of the robot at the start, in meters per second
+     * @return A future of the trajectory, completed with null if there is no path
+     *         from the start
      */
-    public void addVisionInput(Pose2d estimatedPose, double timeOfMeasurement) {
-        poseEstimator.addVisionMeasurement(estimatedPose, timeOfMeasurement);
+    public CompletableFuture<PathPlannerTrajectory> generateTrajectoryAsync(int route, Pose2d start,
+            Rotation2d heading, double velocity) {
+        return pathPlanningService.submit(() -> trajectoryCache.generate(route, start, heading, velocity));
+    }
+
+    /**
+     * Gets the trajectory cache, used to register the routes of the semi
+     * autonomous commands
+     * 
+     * @return The trajectory cache
+     */
+    public TrajectoryCache getTrajectoryCache() {
+        return trajectoryCache;
+    }
+
+    /**
+     * Generates at most one of the registered routes from the current pose on the
+     * path planning thread, if it is not cached yet and the previous one finished.
+     * Meant to be called periodically while disabled
+     */
+    public void warmTrajectories() {
+        if (warming != null && !warming.isDone())
+            return;
+        Pose2d start = getPose();
+        warming = pathPlanningService.submit(() -> trajectoryCache.warm(start));
+    }
+
+    /**
+     * Adds a vision input to the estimated pose of the robot. The input is
+     * rejected if it is too far from the estimated pose at the time it was
+     * captured, and trusted less the further the target and the higher the
+     * latency
+     * 
+     * @param frame The vision frame
+     */
+    public void addVisionInput(VisionFrame frame) {
+        Pose2d visionPose = frame.getPose();
+        if (consecutiveRejections < VisionConstants.MAX_CONSECUTIVE_REJECTIONS
+                && poseHistory.sample(frame.getTimestamp())) {
+            double translationError = Math.hypot(visionPose.getX() - poseHistory.getSampledX(),
+                    visionPose.getY() - poseHistory.getSampledY());
+            double rotationError = Math.toRadians(Math.abs(Utils.getAngleDifference(
+                    Math.toDegrees(poseHistory.getSampledTheta()), visionPose.getRotation().getDegrees())));
+            if (translationError > VisionConstants.MAX_TRANSLATION_ERROR
+                    || rotationError > VisionConstants.MAX_ROTATION_ERROR) {
+                consecutiveRejections++;
+                visionFramesRejected++;
+                return;
+            }
+        }
+        consecutiveRejections = 0;
+
+        double distance = Math.max(1, frame.getTagDistance());
+        double scale = distance * distance * (1 + VisionConstants.LATENCY_STD_DEV_FACTOR * frame.getLatency());
+        double translationStdDev = VisionConstants.TRANSLATION_STD_DEV * scale;
+        poseEstimator.addVisionMeasurement(visionPose, frame.getTimestamp(),
+                VecBuilder.fill(translationStdDev, translationStdDev, VisionConstants.ROTATION_STD_DEV * scale));
+        estimatedPose = poseEstimator.getEstimatedPosition();
+    }
+
+    /**
+     * Gets the number of vision frames rejected for being too far from the
+     * estimated pose
+     * 
+     * @return The number of rejected vision frames
+     */
+    public long getVisionFramesRejected() {
+        return visionFramesRejected;
     }
 
     /**
      * Gets the roll of the robot
      * 
-     * @return The roll of the robot
+     * @return The roll of the robot relative to level, in degrees
      */
     public double getRoll() {
-        return gyro.getRoll() - startRoll;
+        return gyro.getRoll();
     }
 
     /**
      * Gets the pitch of the robot
      * 
-     * @return The pitch of the robot
+     * @return The pitch of the robot relative to level, in degrees
      */
     public double getPitch() {
-        return gyro.getPitch() - startPitch;
+        return gyro.getPitch();
     }
 
     /**
      * Gets the upwards rotation of the robot
      * 
-     * @return The upwards rotation of the robot
+     * @return The upwards rotation of the robot, in degrees
      */
     public double getUpRotation() {
-        double pitch = getPitch();
-        double roll = getRoll();
-        double sign;
-        if (Math.abs(pitch) > Math.abs(roll))
-            sign = Math.signum(pitch);
-        else
-            sign = Math.signum(roll);
-        return sign * Math.sqrt(pitch * pitch + roll * roll);
+        return gyro.getTilt();
     }
 
     /**
      * Gets the upwards angular velocity of the robot
      * 
-     * @return The upwards angular velocity of the robot
+     * @return The upwards angular velocity of the robot, in degrees per second
      */
     public double getUpAngularVel() {
-        double[] arr = new double[3];
-        gyro.getRawGyro(arr);
-        double sign;
-        if (Math.abs(arr[0]) > Math.abs(arr[1]))
-            sign = Math.signum(arr[0]);
-        else
-            sign = Math.signum(arr[1]);
-        return sign * Math.sqrt(arr[0] * arr[0] + arr[1] * arr[1]);
+        return gyro.getTiltRate();
+    }
+
+    /**
+     * Gets the gyro of the robot, sampled once per loop
+     * 
+     * @return The gyro
+     */
+    public GyroService getGyro() {
+        return gyro;
+    }
+
+    /**
+     * Checks if the robot stands still, so the gyro can measure its bias
+     * 
+     * @return Whether the robot is disabled and its wheels do not move
+     */
+    private boolean isStationary() {
+        if (!DriverStation.isDisabled())
+            return false;
+        for (SwerveModule module : modules) {
+            if (Math.abs(module.getVelocity()) > STATIONARY_VELOCITY)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of CAN reads made by all the modules during the last loop
+     * 
+     * @return The number of CAN reads made by the modules during the last loop
+     */
+    public int getLastLoopCanReads() {
+        int reads = 0;
+        for (SwerveModule module : modules) {
+            reads += module.getLastLoopCanReads();
+        }
+        return reads;
+    }
+
+    /**
+     * Gets the simulation the chassis runs on
+     * 
+     * @return The simulation, or null when running on the real hardware
+     */
+    public SwerveSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Gets the time used by the chassis, the FPGA time on the real robot or the
+     * simulation time in simulation
+     * 
+     * @return The time, in seconds
+     */
+    public double getTime() {
+        return clock.getAsDouble();
     }
 
     @Override
     public void periodic() {
-        poseEstimator.update(getGyroRotation(), getModulePositions());
+        PERIODIC_TIMING.start();
+        double time = clock.getAsDouble();
+        loopPeriod = MathUtil.clamp(time - lastPeriodicTime, MIN_LOOP_PERIOD, MAX_LOOP_PERIOD);
+        lastPeriodicTime = time;
+        gyro.update(isStationary());
+        for (SwerveModule module : modules) {
+            module.update();
+        }
+        ODOMETRY_TIMING.start();
+        if (!odometryThread)
+            odometry.sample();
+        updateOdometry();
+        ODOMETRY_TIMING.stop();
         field.setRobotPose(getPose());
-        Pair<Pose2d, Double> visionInput = VisionUtils.getVisionPose();
-        if (visionInput != null)
-            addVisionInput(visionInput.getFirst(), visionInput.getSecond());
+        VISION_TIMING.start();
+        loggedVisionFrames = 0;
+        VisionFrame frame;
+        while ((frame = vision.get()) != null) {
+            long rejected = visionFramesRejected;
+            addVisionInput(frame);
+            logVisionFrame(frame, visionFramesRejected != rejected);
+        }
+        VISION_TIMING.stop();
+        log();
+        PERIODIC_TIMING.stop();
     }
 
-    @Override
-    public void initSendable(SendableBuilder builder) {
-        SmartDashboard.putData("Front Left Module", modules[0]);
-        SmartDashboard.putData("Front Right Module", modules[1]);
-        SmartDashboard.putData("Back Left Module", modules[2]);
-        SmartDashboard.putData("Back Right Module", modules[3]);
+    /**
+     * Records a vision frame in the binary log, only the first frames of every
+     * loop are recorded
+     * 
+     * @param frame    The vision frame
+     * @param rejected Whether the frame was rejected
+     */
+    private void logVisionFrame(VisionFrame frame, boolean rejected) {
+        if (loggedVisionFrames >= visionFrameLogFields.length)
+            return;
+        int field = visionFrameLogFields[loggedVisionFrames++];
+        BinaryLog.set(field, frame.getPose().getX());
+        BinaryLog.set(field + 1, frame.getPose().getY());
+        BinaryLog.set(field + 2, frame.getPose().getRotation().getRadians());
+        BinaryLog.set(field + 3, frame.getTimestamp());
+        BinaryLog.set(field + 4, frame.getLatency());
+        BinaryLog.set(field + 5, frame.getTagDistance());
+        BinaryLog.set(field + 6, rejected ? 1 : 0);
+    }
 
-        SmartDashboard.putData("Field", field);
+    /**
+     * Records the state of the chassis in the binary log
+     */
+    private void log() {
+        for (int i = 0; i < modules.length; i++) {
+            int field = moduleLogFields[i];
+            BinaryLog.set(field, modules[i].getVelocity());
+            BinaryLog.set(field + 1, modules[i].getAngle());
+            BinaryLog.set(field + 2, modules[i].getDesiredVelocity());
+            BinaryLog.set(field + 3, modules[i].getDesiredAngle());
+            BinaryLog.set(field + 4, modules[i].getDistance());
+            modules[i].getInputs().log(moduleInputLogFields[i]);
+        }
+        gyro.getInputs().log(gyroLogField);
+        Pose2d pose = getPose();
+        BinaryLog.set(poseLogField, pose.getX());
+        BinaryLog.set(poseLogField + 1, pose.getY());
+        BinaryLog.set(poseLogField + 2, pose.getRotation().getRadians());
+        BinaryLog.set(visionLogField, loggedVisionFrames);
+    }
 
-        builder.addDoubleProperty("Angle", this::getAngle, null);
+    @Override
+    public void simulationPeriodic() {
+        if (simulation != null)
+            simulation.step(0.02);
+    }
 
-        Utils.addDoubleProperty(builder, "UpAngle", this::getUpRotation, 2);
-        Utils.addDoubleProperty(builder, "UpAngularVel", this::getUpAngularVel, 2);
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        SmartDashboard.putData("Field", field);
+        SmartDashboard.putData("Trajectory Cache", trajectoryCache);
 
         Utils.putData("Change Neutral", "Change", new InstantCommand(this::swapNeutralMode).ignoringDisable(true));
 
         Utils.putData("Zero Angle", "Zero", new InstantCommand(this::resetAngle).ignoringDisable(true));
 
+        Utils.putData("Calibrate Level", "Calibrate",
+                new InstantCommand(gyro::calibrateLevel).ignoringDisable(true));
+
         Utils.putData("Calibrate Offsets", "Calibrate", new InstantCommand(() -> {
             for (var module : modules) {
                 module.calibrateOffset();
@@ -0,0 +1,99 @@
+package frc.robot.utils;
+
+/**
+ * Maps a point on the field to the id of the region it is in, in constant time
+ * and without allocating. The field is split to a grid of square cells, and
+ * every cell that no region boundary crosses holds the id of its region. Only
+ * the few cells on a boundary, and points outside the field, check the regions
+ * one by one. Regions are given in the blue alliance coordinates, and points of
+ * the red alliance are mirrored across the middle of the field
+ */
+public class FieldRegions {
+    private static final byte BOUNDARY = -1; // the cell is crossed by a region boundary
+
+    private final double width, height, resolution;
+    private final int columns, rows;
+    private final Region[] regions;
+    private final byte[] ids;
+    private final byte defaultId;
+    private final byte[] cells;
+
+    /**
+     * Creates a new FieldRegions index
+     *
+     * @param width      The width of the field, in meters
+     * @param height     The height of the field, in meters
+     * @param resolution The size of a cell of the grid, in meters
+     * @param regions    The regions, blue alliance, a point in more than one
+     *                   region gets the first of them
+     * @param ids        The id of each region, must not be negative
+     * @param defaultId  The id of a point that is not in any region
+     */
+    public FieldRegions(double width, double height, double resolution, Region[] regions, byte[] ids,
+            byte defaultId) {
+        if (regions.length != ids.length)
+            throw new IllegalArgumentException("Every region needs an id");
+        for (byte id : ids) {
+            if (id < 0)
+                throw new IllegalArgumentException("Region ids must not be negative");
+        }
+        this.width = width;
+        this.height = height;
+        this.resolution = resolution;
+        this.regions = regions.clone();
+        this.ids = ids.clone();
+        this.defaultId = defaultId;
+        columns = (int) Math.ceil(width / resolution);
+        rows = (int) Math.ceil(height / resolution);
+        cells = new byte[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                cells[row * columns + column] = classify(column * resolution, row * resolution,
+                        (column + 1) * resolution, (row + 1) * resolution);
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a cell, or {@link #BOUNDARY} if some region boundary crosses
+     * it
+     */
+    private byte classify(double minX, double minY, double maxX, double maxY) {
+        for (Region region : regions) {
+            if (region.touchesBoundary(minX, minY, maxX, maxY))
+                return BOUNDARY;
+        }
+        return scan((minX + maxX) / 2, (minY + maxY) / 2);
+    }
+
+    /**
+     * Gets the id of a point by checking the regions one by one
+     */
+    private byte scan(double x, double y) {
+        for (int i = 0; i < regions.length; i++) {
+            if (regions[i].contains(x, y))
+                return ids[i];
+        }
+        return defaultId;
+    }
+
+    /**
+     * Gets the id of the region a point is in
+     *
+     * @param x   The x coordinate of the point, in meters
+     * @param y   The y coordinate of the point, in meters
+     * @param red Whether the point is relative to the red alliance, if so it is
+     *            mirrored to the blue alliance
+     * @return The id of the region, or the default id if it is not in any region
+     */
+    public byte getId(double x, double y, boolean red) {
+        if (red)
+            x = width - x;
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return scan(x, y);
+        int column = Math.min(columns - 1, (int) (x / resolution));
+        int row = Math.min(rows - 1, (int) (y / resolution));
+        byte id = cells[row * columns + column];
+        return id == BOUNDARY ? scan(x, y) : id;
+    }
+}
@@ -0,0 +1,259 @@
+package frc.robot.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import frc.robot.utils.io.GyroIO;
+
+/**
+ * Samples the gyro once per loop into a reused buffer and corrects the
+ * readings in software, so every user of the attitude in a loop gets the same
+ * values from the same timestamp without reading the CAN bus. The yaw is
+ * zeroed with a {@link YawOffset}, the pitch and roll are relative to the
+ * level calibration, and the angular velocities are compensated for the bias
+ * measured while the robot stands still. A yaw reset is sent to the gyro on a
+ * background thread, so the loop never waits for the CAN bus
+ */
+public class GyroService {
+    private static final double BIAS_FILTER = 0.01; // the weight of a new bias sample
+    private static final double MAX_BIAS = 2; // degrees per second, larger rates are not counted as bias
+
+    private final GyroIO io;
+    private final Executor writer;
+    private final GyroIO.Inputs inputs;
+    private final YawOffset yawOffset, odometryYawOffset;
+    private final double[] rateBias;
+    private double yaw, pitch, roll;
+    private double yawRate, pitchRate, rollRate;
+    private double pitchOffset, rollOffset;
+    private double rotationSinceReset; // degrees, the yaw rate integrated since the last yaw reset
+    private CompletableFuture<Boolean> yawReset; // the hardware reset waiting for the gyro, or null
+    private int yawResetFailures;
+
+    /**
+     * Creates a new GyroService, and calibrates the level from the first sample
+     *
+     * @param io     The gyro
+     * @param writer Runs the yaw resets of the gyro
+     */
+    public GyroService(GyroIO io, Executor writer) {
+        this.io = io;
+        this.writer = writer;
+        inputs = new GyroIO.Inputs();
+        yawOffset = new YawOffset();
+        odometryYawOffset = new YawOffset();
+        rateBias = new double[3];
+        update(false);
+        calibrateLevel();
+    }
+
+    /**
+     * Samples the gyro and corrects the readings, should be called once at the
+     * start of every loop
+     *
+     * @param stationary Whether the robot is known to stand still, so the
+     *                   angular velocities are bias
+     */
+    public void update(boolean stationary) {
+        if (yawReset != null && yawReset.isDone())
+            acknowledgeYawReset();
+        double lastTimestamp = inputs.timestamp;
+        io.updateInputs(inputs);
+        double[] rates = inputs.rates;
+        if (stationary) {
+            for (int i = 0; i < rates.length; i++) {
+                if (Math.abs(rates[i]) < MAX_BIAS)
+                    rateBias[i] += BIAS_FILTER * (rates[i] - rateBias[i]);
+            }
+        }
+        pitch = inputs.pitch - pitchOffset;
+        roll = inputs.roll - rollOffset;
+        rollRate = rates[0] - rateBias[0];
+        pitchRate = rates[1] - rateBias[1];
+        yawRate = rates[2] - rateBias[2];
+        rotationSinceReset += yawRate * (inputs.timestamp - lastTimestamp);
+        yaw = yawOffset.correct(inputs.yaw, rotationSinceReset);
+    }
+
+    /**
+     * Sets the current pitch and roll as level, should be called when the robot
+     * stands on a flat floor
+     */
+    public void calibrateLevel() {
+        pitchOffset = inputs.pitch;
+        rollOffset = inputs.roll;
+        pitch = 0;
+        roll = 0;
+    }
+
+    /**
+     * Reports the response of the gyro to the last yaw reset to the offsets
+     */
+    private void acknowledgeYawReset() {
+        boolean applied = !yawReset.isCompletedExceptionally() && yawReset.join();
+        yawReset = null;
+        if (!applied)
+            yawResetFailures++;
+        yawOffset.acknowledge(applied);
+        odometryYawOffset.acknowledge(applied);
+    }
+
+    /**
+     * Zeroes the yaw at once in software, and in the gyro on the background
+     * thread. A reset the gyro does not acknowledge is kept in software
+     */
+    public void resetYaw() {
+        double rawYaw = inputs.yaw;
+        boolean hardwareReset = YawOffset.needsHardwareReset(rawYaw);
+        yawOffset.reset(rawYaw, hardwareReset);
+        odometryYawOffset.reset(rawYaw, hardwareReset);
+        rotationSinceReset = 0;
+        yaw = 0;
+        // the gyro is set to the zeroed heading when the reset is sent, so the robot may
+        // rotate meanwhile, and a newer reset replaces the response of an older one
+        yawReset = hardwareReset ? CompletableFuture.supplyAsync(() -> io.setYaw(io.readYaw() - rawYaw), writer)
+                : null;
+    }
+
+    /**
+     * Checks if the gyro did not apply the last yaw reset yet
+     *
+     * @return Whether the reset is waiting for the gyro
+     */
+    public boolean isYawResetPending() {
+        return yawOffset.isPending();
+    }
+
+    /**
+     * Gets the number of yaw resets the gyro did not acknowledge
+     *
+     * @return The number of failed resets
+     */
+    public int getYawResetFailures() {
+        return yawResetFailures;
+    }
+
+    /**
+     * Reads the raw yaw directly from the gyro, safe to call from the odometry
+     * thread. The odometry samples must be corrected with
+     * {@link #correctOdometryYaw(double, double)}
+     *
+     * @return The raw yaw, in degrees
+     */
+    public double readRawYaw() {
+        return io.readYaw();
+    }
+
+    /**
+     * Corrects the raw yaw of an odometry sample, should be called for every
+     * sample in order on the main loop
+     *
+     * @param rawYaw    The raw yaw of the sample, in degrees
+     * @param timestamp The time of the sample, in seconds
+     * @return The zeroed yaw, in degrees
+     */
+    public double correctOdometryYaw(double rawYaw, double timestamp) {
+        double rotation = rotationSinceReset + yawRate * (timestamp - inputs.timestamp);
+        return odometryYawOffset.correct(rawYaw, rotation);
+    }
+
+    /**
+     * Gets the readings of the last sample, as read from the gyro
+     *
+     * @return The raw inputs, reused between loops
+     */
+    public GyroIO.Inputs getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Gets the time of the last sample
+     *
+     * @return The time, in seconds
+     */
+    public double getTimestamp() {
+        return inputs.timestamp;
+    }
+
+    /**
+     * Gets the zeroed yaw, not wrapped
+     *
+     * @return The yaw, in degrees
+     */
+    public double getYaw() {
+        return yaw;
+    }
+
+    /**
+     * Gets the pitch relative to level
+     *
+     * @return The pitch, in degrees
+     */
+    public double getPitch() {
+        return pitch;
+    }
+
+    /**
+     * Gets the roll relative to level
+     *
+     * @return The roll, in degrees
+     */
+    public double getRoll() {
+        return roll;
+    }
+
+    /**
+     * Gets the angular velocity around the vertical axis, bias compensated
+     *
+     * @return The yaw rate, in degrees per second
+     */
+    public double getYawRate() {
+        return yawRate;
+    }
+
+    /**
+     * Gets the pitch angular velocity, bias compensated
+     *
+     * @return The pitch rate, in degrees per second
+     */
+    public double getPitchRate() {
+        return pitchRate;
+    }
+
+    /**
+     * Gets the roll angular velocity, bias compensated
+     *
+     * @return The roll rate, in degrees per second
+     */
+    public double getRollRate() {
+        return rollRate;
+    }
+
+    /**
+     * Gets the tilt of the robot from level, signed by the larger of the pitch and
+     * the roll
+     *
+     * @return The tilt, in degrees
+     */
+    public double getTilt() {
+        return signedMagnitude(pitch, roll);
+    }
+
+    /**
+     * Gets the angular velocity of the tilt, signed by the larger of the pitch and
+     * the roll rates
+     *
+     * @return The tilt rate, in degrees per second
+     */
+    public double getTiltRate() {
+        return signedMagnitude(rollRate, pitchRate);
+    }
+
+    /**
+     * Gets the magnitude of a vector, signed by its larger component
+     */
+    private static double signedMagnitude(double a, double b) {
+        double sign = Math.abs(a) > Math.abs(b) ? Math.signum(a) : Math.signum(b);
+        return sign * Math.sqrt(a * a + b * b);
+    }
+}
@@ -0,0 +1,98 @@
+package frc.robot.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * Measures where the time of the robot loop goes. Sections are registered once
+ * at startup, and timing them does not allocate. Loops longer than the period
+ * are attributed to the section that spent the most time by itself, and the
+ * results are published to NetworkTables once a second
+ */
+public final class LoopProfiler {
+    private static final int PUBLISH_LOOPS = 50; // loops between publishes
+
+    private static final NetworkTable TABLE = NetworkTableInstance.getDefault().getTable("Loop Timing");
+    private static final List<TimingSection> sections = new ArrayList<>();
+    private static TimingSection[] sectionArray = new TimingSection[0];
+    private static long loopStart;
+    private static long loopPeriodNanos = Math.round(TimedRobot.kDefaultPeriod * 1e9);
+    private static int loopsSincePublish;
+
+    /** The whole loop, from the start of the mode periodic until the end of the dashboard updates */
+    public static final TimingSection LOOP = section("Loop", null);
+    /** {@link edu.wpi.first.wpilibj.IterativeRobotBase#robotPeriodic()}, including the scheduler */
+    public static final TimingSection ROBOT_PERIODIC = section("Robot Periodic", LOOP);
+    /** The dashboard and LiveWindow updates, and everything else the loop does outside robotPeriodic */
+    public static final TimingSection DASHBOARD = section("Dashboard", LOOP);
+
+    private LoopProfiler() {
+    }
+
+    /**
+     * Registers a new timing section, should only be called at startup
+     * 
+     * @param name   The name of the section
+     * @param parent The section the new section runs inside of, or null
+     * @return The timing section
+     */
+    public static synchronized TimingSection section(String name, TimingSection parent) {
+        TimingSection section = new TimingSection(name, parent, TABLE);
+        sections.add(section);
+        sectionArray = sections.toArray(new TimingSection[0]);
+        return section;
+    }
+
+    /**
+     * Sets the period of the robot loop, a loop longer than it is an overrun.
+     * Should be called at startup when the robot does not run at the default
+     * period
+     * 
+     * @param period The period of the robot loop, in seconds
+     */
+    public static void setLoopPeriod(double period) {
+        loopPeriodNanos = Math.round(period * 1e9);
+    }
+
+    /**
+     * Marks the start of a robot loop
+     */
+    public static void startLoop() {
+        loopStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a robot loop, records the times of all the sections and
+     * attributes an overrun if the loop took too long
+     */
+    public static void endLoop() {
+        long loopNanos = System.nanoTime() - loopStart;
+        LOOP.record(loopNanos);
+        DASHBOARD.record(Math.max(0, loopNanos - ROBOT_PERIODIC.getLoopNanos()));
+
+        TimingSection[] current = sectionArray;
+        if (loopNanos > loopPeriodNanos) {
+            TimingSection slowest = null;
+            for (TimingSection section : current) {
+                if (slowest == null || section.getSelfNanos() > slowest.getSelfNanos())
+                    slowest = section;
+            }
+            slowest.addOverrun();
+        }
+        for (TimingSection section : current) {
+            section.endLoop();
+        }
+
+        loopsSincePublish++;
+        if (loopsSincePublish >= PUBLISH_LOOPS) {
+            loopsSincePublish = 0;
+            for (TimingSection section : current) {
+                section.publish();
+            }
+        }
+    }
+}
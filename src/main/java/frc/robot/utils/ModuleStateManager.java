@@ -0,0 +1,170 @@
+package frc.robot.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Manages the lock and the neutral mode of the swerve modules. The lock points
+ * the wheels in an X pattern so the robot resists being pushed, and forces the
+ * brake mode while it is held. The neutral mode is a configuration write on
+ * the CAN bus, so it is only written when the wanted mode changes, on a
+ * background thread, and the changes made while a write is queued are merged
+ * into it
+ */
+public class ModuleStateManager {
+    private final SwerveModule[] modules;
+    private final double[] lockAngles;
+    private final Executor configWriter;
+    private final AtomicBoolean writeQueued;
+    private final boolean[] appliedBrake; // only used on the config writer
+    private volatile boolean wantedBrake;
+    private volatile int configWrites;
+    private boolean isBreak;
+    private boolean locked;
+
+    /**
+     * Creates a new ModuleStateManager, the motors should start in brake mode
+     *
+     * @param modules      The modules
+     * @param locations    The locations of the modules relative to the center of
+     *                     the robot, the wheels point at them when locked
+     * @param configWriter The executor the configuration writes run on
+     */
+    public ModuleStateManager(SwerveModule[] modules, Translation2d[] locations, Executor configWriter) {
+        this.modules = modules;
+        this.configWriter = configWriter;
+        lockAngles = new double[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            lockAngles[i] = Utils.normalizeDegrees(locations[i].getAngle().getDegrees());
+        }
+        writeQueued = new AtomicBoolean();
+        appliedBrake = new boolean[modules.length];
+        Arrays.fill(appliedBrake, true);
+        wantedBrake = true;
+        isBreak = true;
+    }
+
+    /**
+     * Creates the background thread the configuration writes run on
+     *
+     * @return An executor with a single low priority daemon thread
+     */
+    public static Executor createConfigWriter() {
+        return Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "Module Config");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Locks the wheels in an X pattern, until {@link #unlock()} is called
+     */
+    public void lock() {
+        locked = true;
+        hold();
+        updateNeutralMode();
+    }
+
+    /**
+     * Commands the wheels to the X pattern again, should be called every loop
+     * the robot stands still while locked
+     */
+    public void hold() {
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setState(0, lockAngles[i]);
+        }
+    }
+
+    /**
+     * Releases the lock, the neutral mode goes back to the selected one
+     */
+    public void unlock() {
+        if (!locked)
+            return;
+        locked = false;
+        updateNeutralMode();
+    }
+
+    /**
+     * Checks if the wheels are locked
+     *
+     * @return Whether the wheels are locked in an X pattern
+     */
+    public boolean isLocked() {
+        return locked;
+    }
+
+    /**
+     * Gets the angle of a locked wheel
+     *
+     * @param module The index of the module
+     * @return The angle, in degrees
+     */
+    public double getLockAngle(int module) {
+        return lockAngles[module];
+    }
+
+    /**
+     * Selects the neutral mode of the motors while not locked
+     *
+     * @param isBreak Whether the motors should be in brake mode or in coast mode
+     */
+    public void setNeutralMode(boolean isBreak) {
+        this.isBreak = isBreak;
+        updateNeutralMode();
+    }
+
+    /**
+     * Gets the selected neutral mode
+     *
+     * @return Whether brake mode is selected
+     */
+    public boolean isBreak() {
+        return isBreak;
+    }
+
+    /**
+     * Gets the number of neutral mode writes made to the modules
+     *
+     * @return The number of writes
+     */
+    public int getConfigWrites() {
+        return configWrites;
+    }
+
+    /**
+     * Queues a write if the wanted neutral mode changed, unless one is already
+     * queued and will pick the change up
+     */
+    private void updateNeutralMode() {
+        boolean brake = isBreak || locked;
+        if (brake == wantedBrake)
+            return;
+        wantedBrake = brake;
+        if (writeQueued.compareAndSet(false, true))
+            configWriter.execute(this::writeNeutralModes);
+    }
+
+    /**
+     * Writes the wanted neutral mode to the modules that are not in it, runs on
+     * the config writer
+     */
+    private void writeNeutralModes() {
+        // cleared first, so a change made during the writes queues another one
+        writeQueued.set(false);
+        boolean brake = wantedBrake;
+        for (int i = 0; i < modules.length; i++) {
+            if (appliedBrake[i] != brake) {
+                modules[i].setNeutralMode(brake);
+                appliedBrake[i] = brake;
+                configWrites++;
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package frc.robot.utils;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Notifier;
+import frc.robot.utils.io.OdometryIO;
+
+/**
+ * Samples the module positions and the gyro heading at a high frequency on a
+ * separate thread, into a lock free single producer single consumer ring
+ * buffer that is drained by the main loop.
+ * <p>
+ * The sensors are read from the last status frames the devices sent, so a
+ * read between two frames repeats the previous values. A repeated sample is
+ * skipped, so every sample is timestamped close to the arrival of its frames
+ * rather than at a later read of the same frames
+ */
+public class OdometryThread implements OdometryIO {
+    private static final int CAPACITY = 32; // must be a power of 2
+    // seconds, an unchanged sample is still added this often so the history keeps
+    // up while the robot stands still, less than a loop so every loop gets one
+    private static final double MAX_REPEAT_PERIOD = 0.015;
+
+    private final SwerveModule[] modules;
+    private final DoubleSupplier gyroYaw;
+    private final DoubleSupplier clock;
+    private final Notifier notifier;
+    private final double period;
+
+    // ring buffer, written only by the odometry thread
+    private final double[] timestamps, yaws, distances, angles;
+    private volatile long writeIndex;
+    private final double[] sampleDistances, sampleAngles;
+    private double sampleYaw, lastAddedTime;
+    private volatile long repeatedSamples;
+
+    // read buffer, used only by the main loop
+    private final double[] readTimestamps, readYaws, readDistances, readAngles;
+    private long readIndex;
+    private long droppedSamples;
+
+    /**
+     * Creates a new OdometryThread, the thread is not started until
+     * {@link #start()} is called
+     *
+     * @param modules   The modules to sample
+     * @param gyroYaw   The supplier of the gyro heading, in degrees
+     * @param clock     The supplier of the time, in seconds
+     * @param frequency The sampling frequency, in hertz
+     */
+    public OdometryThread(SwerveModule[] modules, DoubleSupplier gyroYaw, DoubleSupplier clock, double frequency) {
+        this.modules = modules;
+        this.gyroYaw = gyroYaw;
+        this.clock = clock;
+        period = 1 / frequency;
+        timestamps = new double[CAPACITY];
+        yaws = new double[CAPACITY];
+        distances = new double[CAPACITY * modules.length];
+        angles = new double[CAPACITY * modules.length];
+        readTimestamps = new double[CAPACITY];
+        readYaws = new double[CAPACITY];
+        readDistances = new double[CAPACITY * modules.length];
+        readAngles = new double[CAPACITY * modules.length];
+        sampleDistances = new double[modules.length];
+        sampleAngles = new double[modules.length];
+        sampleYaw = Double.NaN;
+        lastAddedTime = Double.NEGATIVE_INFINITY;
+        notifier = new Notifier(this::sample);
+        notifier.setName("Odometry");
+    }
+
+    /**
+     * Starts sampling on the odometry thread
+     */
+    public void start() {
+        notifier.startPeriodic(period);
+    }
+
+    /**
+     * Stops sampling on the odometry thread
+     */
+    public void stop() {
+        notifier.stop();
+    }
+
+    /**
+     * Samples the sensors once and adds the sample to the ring buffer, unless it
+     * repeats the last one. Runs on the odometry thread, or on the main loop when
+     * the thread is not started, as in simulation
+     */
+    @Override
+    public void sample() {
+        boolean changed = false;
+        for (int i = 0; i < modules.length; i++) {
+            double distance = modules[i].sampleDistance();
+            double angle = modules[i].sampleAngle();
+            changed |= distance != sampleDistances[i] || angle != sampleAngles[i];
+            sampleDistances[i] = distance;
+            sampleAngles[i] = angle;
+        }
+        double yaw = gyroYaw.getAsDouble();
+        changed |= yaw != sampleYaw;
+        sampleYaw = yaw;
+        double time = clock.getAsDouble();
+        if (!changed && time - lastAddedTime < MAX_REPEAT_PERIOD) {
+            repeatedSamples++;
+            return;
+        }
+        lastAddedTime = time;
+
+        long index = writeIndex;
+        int slot = (int) (index & (CAPACITY - 1));
+        System.arraycopy(sampleDistances, 0, distances, slot * modules.length, modules.length);
+        System.arraycopy(sampleAngles, 0, angles, slot * modules.length, modules.length);
+        yaws[slot] = yaw;
+        timestamps[slot] = time;
+        writeIndex = index + 1; // publishes the slot to the reader
+    }
+
+    /**
+     * Copies all the samples taken since the last call into the read buffer. If
+     * the main loop fell too far behind, the oldest samples are dropped
+     *
+     * @return The number of samples copied, accessible with the getters by index
+     */
+    @Override
+    public int readSamples() {
+        long end = writeIndex;
+        if (end - readIndex > CAPACITY - 1) {
+            droppedSamples += end - readIndex - (CAPACITY - 1);
+            readIndex = end - (CAPACITY - 1);
+        }
+        int count = 0;
+        for (long index = readIndex; index < end; index++) {
+            int slot = (int) (index & (CAPACITY - 1));
+            readTimestamps[count] = timestamps[slot];
+            readYaws[count] = yaws[slot];
+            System.arraycopy(distances, slot * modules.length, readDistances, count * modules.length,
+                    modules.length);
+            System.arraycopy(angles, slot * modules.length, readAngles, count * modules.length, modules.length);
+            count++;
+        }
+        // the writer may have lapped the oldest slots while they were copied
+        long overwritten = writeIndex - CAPACITY - readIndex + 1;
+        int skip = (int) Math.max(0, Math.min(count, overwritten));
+        if (skip > 0) {
+            droppedSamples += skip;
+            count -= skip;
+            System.arraycopy(readTimestamps, skip, readTimestamps, 0, count);
+            System.arraycopy(readYaws, skip, readYaws, 0, count);
+            System.arraycopy(readDistances, skip * modules.length, readDistances, 0, count * modules.length);
+            System.arraycopy(readAngles, skip * modules.length, readAngles, 0, count * modules.length);
+        }
+        readIndex = end;
+        return count;
+    }
+
+    /**
+     * Discards all the samples that were not read yet
+     */
+    @Override
+    public void clear() {
+        readIndex = writeIndex;
+    }
+
+    /**
+     * Gets the timestamp of a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @return The timestamp of the sample, in seconds
+     */
+    @Override
+    public double getTimestamp(int sample) {
+        return readTimestamps[sample];
+    }
+
+    /**
+     * Gets the gyro heading of a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @return The gyro heading, in degrees
+     */
+    @Override
+    public double getYaw(int sample) {
+        return readYaws[sample];
+    }
+
+    /**
+     * Gets the distance of a module in a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @param module The index of the module
+     * @return The distance the module has traveled, in meters
+     */
+    @Override
+    public double getDistance(int sample, int module) {
+        return readDistances[sample * modules.length + module];
+    }
+
+    /**
+     * Gets the angle of a module in a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @param module The index of the module
+     * @return The angle of the module, between 0 and 360 degrees
+     */
+    @Override
+    public double getAngle(int sample, int module) {
+        return readAngles[sample * modules.length + module];
+    }
+
+    /**
+     * Gets the number of samples skipped because they repeated the last status
+     * frames, written by the odometry thread
+     *
+     * @return The number of repeated samples
+     */
+    @Override
+    public long getRepeatedSamples() {
+        return repeatedSamples;
+    }
+
+    /**
+     * Gets the number of samples dropped because the main loop fell behind
+     *
+     * @return The number of dropped samples
+     */
+    @Override
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+}
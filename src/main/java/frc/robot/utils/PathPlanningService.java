@@ -0,0 +1,48 @@
+package frc.robot.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs path generation on a background worker thread, so it never blocks the
+ * scheduler
+ */
+public class PathPlanningService {
+    private final Executor executor;
+
+    /**
+     * Creates a new PathPlanningService with a single low priority worker thread
+     */
+    public PathPlanningService() {
+        executor = Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "Path Planning");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new PathPlanningService that runs the tasks on an executor, such
+     * as {@code Runnable::run} to generate on the calling thread in a replay
+     * 
+     * @param executor The executor to run the tasks on
+     */
+    public PathPlanningService(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a generation task to the worker thread. Cancelling the returned
+     * future before the task starts skips it
+     * 
+     * @param <T>  The type of the result
+     * @param task The task to run
+     * @return A future of the result of the task
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+}
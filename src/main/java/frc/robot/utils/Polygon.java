@@ -0,0 +1,89 @@
+package frc.robot.utils;
+
+/**
+ * Represents a simple polygon in a 2D plane, convex or not
+ */
+public class Polygon implements Region {
+    private final double[] xs, ys;
+
+    /**
+     * Creates a new polygon from its vertices, in order around the polygon
+     * 
+     * @param vertices The coordinates of the vertices, as x1, y1, x2, y2, ...
+     */
+    public Polygon(double... vertices) {
+        if (vertices.length < 6 || vertices.length % 2 != 0)
+            throw new IllegalArgumentException("A polygon needs at least 3 vertices, as x and y pairs");
+        xs = new double[vertices.length / 2];
+        ys = new double[vertices.length / 2];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = vertices[i * 2];
+            ys[i] = vertices[i * 2 + 1];
+        }
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (onSegment(x, y, xs[j], ys[j], xs[i], ys[i]))
+                return true;
+            // count the edges crossed by a ray to the right of the point
+            if ((ys[i] > y) != (ys[j] > y)
+                    && x < xs[j] + (y - ys[j]) * (xs[i] - xs[j]) / (ys[i] - ys[j]))
+                inside = !inside;
+        }
+        return inside;
+    }
+
+    @Override
+    public boolean touchesBoundary(double minX, double minY, double maxX, double maxY) {
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (segmentTouchesBox(xs[j], ys[j], xs[i], ys[i], minX, minY, maxX, maxY))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a point is on a segment
+     */
+    private static boolean onSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double cross = (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1);
+        if (Math.abs(cross) > 1e-9)
+            return false;
+        return x >= Math.min(x1, x2) && x <= Math.max(x1, x2) && y >= Math.min(y1, y2) && y <= Math.max(y1, y2);
+    }
+
+    /**
+     * Checks if a segment touches an axis aligned box, by clipping the segment to
+     * the box
+     */
+    private static boolean segmentTouchesBox(double x1, double y1, double x2, double y2, double minX, double minY,
+            double maxX, double maxY) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double[] range = { 0, 1 };
+        return clip(-dx, x1 - minX, range) && clip(dx, maxX - x1, range)
+                && clip(-dy, y1 - minY, range) && clip(dy, maxY - y1, range);
+    }
+
+    /**
+     * Clips the range of a segment against one side of a box
+     *
+     * @param p     The change of the distance to the side along the segment
+     * @param q     The distance of the start of the segment from the side
+     * @param range The range of the segment inside the box, updated in place
+     * @return Whether some of the segment is still inside the box
+     */
+    private static boolean clip(double p, double q, double[] range) {
+        if (p == 0)
+            return q >= 0;
+        double t = q / p;
+        if (p < 0)
+            range[0] = Math.max(range[0], t);
+        else
+            range[1] = Math.min(range[1], t);
+        return range[0] <= range[1];
+    }
+}
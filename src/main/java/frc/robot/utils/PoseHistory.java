@@ -0,0 +1,135 @@
+package frc.robot.utils;
+
+/**
+ * A time indexed history of robot poses, stored in a ring of primitive arrays,
+ * that can be sampled at any time inside the recorded window
+ */
+public class PoseHistory {
+    private final double[] timestamps, xs, ys, thetas;
+    private int head, size;
+    private double sampledX, sampledY, sampledTheta;
+
+    /**
+     * Creates a new PoseHistory
+     * 
+     * @param capacity The number of poses to keep
+     */
+    public PoseHistory(int capacity) {
+        timestamps = new double[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        thetas = new double[capacity];
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Adds a pose to the history, poses older than the newest one are ignored
+     * 
+     * @param timestamp The time of the pose, in seconds
+     * @param x         The x position, in meters
+     * @param y         The y position, in meters
+     * @param theta     The rotation, in radians
+     */
+    public void add(double timestamp, double x, double y, double theta) {
+        if (size > 0 && timestamp <= timestamps[index(size - 1)])
+            return;
+        int index;
+        if (size < timestamps.length) {
+            index = index(size);
+            size++;
+        } else {
+            index = head;
+            head = (head + 1) % timestamps.length;
+        }
+        timestamps[index] = timestamp;
+        xs[index] = x;
+        ys[index] = y;
+        thetas[index] = theta;
+    }
+
+    /**
+     * Removes all the poses from the history
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Converts an age index (0 is the oldest) to an array index
+     * 
+     * @param i The age index
+     * @return The index in the arrays
+     */
+    private int index(int i) {
+        return (head + i) % timestamps.length;
+    }
+
+    /**
+     * Interpolates the pose at the given time, the result is read with
+     * {@link #getSampledX()}, {@link #getSampledY()} and
+     * {@link #getSampledTheta()}. Times after the newest pose return the newest
+     * pose
+     * 
+     * @param timestamp The time to sample at, in seconds
+     * @return Whether the time is not older than the recorded window
+     */
+    public boolean sample(double timestamp) {
+        if (size == 0 || timestamp < timestamps[index(0)])
+            return false;
+        timestamp = Math.min(timestamp, timestamps[index(size - 1)]);
+
+        // binary search for the first pose at or after the timestamp
+        int low = 0, high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[index(middle)] < timestamp)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        int after = index(low);
+        if (low == 0 || timestamps[after] == timestamp) {
+            sampledX = xs[after];
+            sampledY = ys[after];
+            sampledTheta = thetas[after];
+            return true;
+        }
+        int before = index(low - 1);
+        double t = (timestamp - timestamps[before]) / (timestamps[after] - timestamps[before]);
+        sampledX = xs[before] + (xs[after] - xs[before]) * t;
+        sampledY = ys[before] + (ys[after] - ys[before]) * t;
+        sampledTheta = thetas[before]
+                + Math.toRadians(Utils.getAngleDifference(Math.toDegrees(thetas[before]),
+                        Math.toDegrees(thetas[after]))) * t;
+        return true;
+    }
+
+    /**
+     * Gets the x position of the last sample
+     * 
+     * @return The x position, in meters
+     */
+    public double getSampledX() {
+        return sampledX;
+    }
+
+    /**
+     * Gets the y position of the last sample
+     * 
+     * @return The y position, in meters
+     */
+    public double getSampledY() {
+        return sampledY;
+    }
+
+    /**
+     * Gets the rotation of the last sample
+     * 
+     * @return The rotation, in radians (not normalized)
+     */
+    public double getSampledTheta() {
+        return sampledTheta;
+    }
+}
@@ -5,7 +5,7 @@ import edu.wpi.first.math.geometry.Translation2d;
 /**
  * Represents a rectangle in a 2D plane
  */
-public class Rectangle {
+public class Rectangle implements Region {
     private final Translation2d bottomLeft, topRight;
 
     /**
@@ -38,8 +38,39 @@ public class Rectangle {
      * @return Whether the point is inside the rectangle
      */
     public boolean isInside(Translation2d point) {
-        return point.getX() >= bottomLeft.getX() && point.getX() <= topRight.getX()
-                && point.getY() >= bottomLeft.getY() && point.getY() <= topRight.getY();
+        return contains(point.getX(), point.getY());
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        return x >= bottomLeft.getX() && x <= topRight.getX() && y >= bottomLeft.getY() && y <= topRight.getY();
+    }
+
+    @Override
+    public boolean touchesBoundary(double minX, double minY, double maxX, double maxY) {
+        boolean overlaps = maxX >= bottomLeft.getX() && minX <= topRight.getX()
+                && maxY >= bottomLeft.getY() && minY <= topRight.getY();
+        boolean strictlyInside = minX > bottomLeft.getX() && maxX < topRight.getX()
+                && minY > bottomLeft.getY() && maxY < topRight.getY();
+        return overlaps && !strictlyInside;
+    }
+
+    /**
+     * Gets the bottom left corner of the rectangle
+     * 
+     * @return The bottom left corner
+     */
+    public Translation2d getBottomLeft() {
+        return bottomLeft;
+    }
+
+    /**
+     * Gets the top right corner of the rectangle
+     * 
+     * @return The top right corner
+     */
+    public Translation2d getTopRight() {
+        return topRight;
     }
 
     /**
@@ -0,0 +1,28 @@
+package frc.robot.utils;
+
+/**
+ * Represents a closed region of the field, used by the {@link FieldRegions}
+ * index
+ */
+public interface Region {
+    /**
+     * Checks if a point is inside the region, including its boundary
+     * 
+     * @param x The x coordinate of the point, in meters
+     * @param y The y coordinate of the point, in meters
+     * @return Whether the point is inside the region
+     */
+    boolean contains(double x, double y);
+
+    /**
+     * Checks if the boundary of the region touches an axis aligned box, if it
+     * does not the box is either fully inside or fully outside the region
+     * 
+     * @param minX The smallest x of the box, in meters
+     * @param minY The smallest y of the box, in meters
+     * @param maxX The largest x of the box, in meters
+     * @param maxY The largest y of the box, in meters
+     * @return Whether the boundary touches the box
+     */
+    boolean touchesBoundary(double minX, double minY, double maxX, double maxY);
+}
@@ -0,0 +1,152 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Allocation free swerve kinematics, working on primitive arrays instead of
+ * {@link edu.wpi.first.math.kinematics.SwerveModuleState} objects
+ */
+public final class SwerveMath {
+    private SwerveMath() {
+    }
+
+    /**
+     * Converts field relative chassis speeds to module speeds and angles. If all
+     * the speeds are zero, the module angles are left unchanged
+     *
+     * @param vx        The field relative x velocity, in meters per second
+     * @param vy        The field relative y velocity, in meters per second
+     * @param omega     The angular velocity, in radians per second
+     * @param heading   The heading of the robot, in radians
+     * @param locations The locations of the modules relative to the center of the
+     *                  robot
+     * @param speeds    The array to write the module speeds to, in meters per
+     *                  second
+     * @param angles    The array to write the module angles to, in degrees
+     */
+    public static void toModuleStates(double vx, double vy, double omega, double heading,
+            Translation2d[] locations, double[] speeds, double[] angles) {
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        toModuleStates(vx * cos + vy * sin, -vx * sin + vy * cos, omega, locations, speeds, angles);
+    }
+
+    /**
+     * Converts robot relative chassis speeds to module speeds and angles. If all
+     * the speeds are zero, the module angles are left unchanged
+     *
+     * @param vx        The robot relative x velocity, in meters per second
+     * @param vy        The robot relative y velocity, in meters per second
+     * @param omega     The angular velocity, in radians per second
+     * @param locations The locations of the modules relative to the center of the
+     *                  robot
+     * @param speeds    The array to write the module speeds to, in meters per
+     *                  second
+     * @param angles    The array to write the module angles to, in degrees
+     */
+    public static void toModuleStates(double vx, double vy, double omega, Translation2d[] locations,
+            double[] speeds, double[] angles) {
+        if (vx == 0 && vy == 0 && omega == 0) {
+            for (int i = 0; i < locations.length; i++) {
+                speeds[i] = 0;
+            }
+            return;
+        }
+        for (int i = 0; i < locations.length; i++) {
+            double moduleVx = vx - omega * locations[i].getY();
+            double moduleVy = vy + omega * locations[i].getX();
+            speeds[i] = Math.hypot(moduleVx, moduleVy);
+            angles[i] = Utils.normalizeDegrees(Math.toDegrees(Math.atan2(moduleVy, moduleVx)));
+        }
+    }
+
+    /**
+     * Converts field relative chassis speeds to module speeds and angles,
+     * discretized over a loop period. The speeds are held constant for the whole
+     * period while the robot rotates, so instead of the instantaneous speeds the
+     * twist that ends at the target pose is used, which removes the sideways drift
+     * when translating and rotating together. If all the speeds are zero, the
+     * module angles are left unchanged
+     *
+     * @param vx        The field relative x velocity, in meters per second
+     * @param vy        The field relative y velocity, in meters per second
+     * @param omega     The angular velocity, in radians per second
+     * @param heading   The heading of the robot, in radians
+     * @param dt        The loop period, in seconds
+     * @param locations The locations of the modules relative to the center of the
+     *                  robot
+     * @param speeds    The array to write the module speeds to, in meters per
+     *                  second
+     * @param angles    The array to write the module angles to, in degrees
+     */
+    public static void toDiscreteModuleStates(double vx, double vy, double omega, double heading, double dt,
+            Translation2d[] locations, double[] speeds, double[] angles) {
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        toDiscreteModuleStates(vx * cos + vy * sin, -vx * sin + vy * cos, omega, dt, locations, speeds, angles);
+    }
+
+    /**
+     * Converts robot relative chassis speeds to module speeds and angles,
+     * discretized over a loop period, see
+     * {@link #toDiscreteModuleStates(double, double, double, double, double, Translation2d[], double[], double[])}
+     *
+     * @param vx        The robot relative x velocity, in meters per second
+     * @param vy        The robot relative y velocity, in meters per second
+     * @param omega     The angular velocity, in radians per second
+     * @param dt        The loop period, in seconds
+     * @param locations The locations of the modules relative to the center of the
+     *                  robot
+     * @param speeds    The array to write the module speeds to, in meters per
+     *                  second
+     * @param angles    The array to write the module angles to, in degrees
+     */
+    public static void toDiscreteModuleStates(double vx, double vy, double omega, double dt,
+            Translation2d[] locations, double[] speeds, double[] angles) {
+        // the log of the pose reached by moving at the speeds for dt, as Pose2d.log
+        double dtheta = omega * dt;
+        double halfDtheta = dtheta / 2;
+        double cosMinusOne = Math.cos(dtheta) - 1;
+        double halfThetaByTanOfHalfDtheta = Math.abs(cosMinusOne) < 1e-9 ? 1 - dtheta * dtheta / 12
+                : -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        double discreteVx = vx * halfThetaByTanOfHalfDtheta + vy * halfDtheta;
+        double discreteVy = vy * halfThetaByTanOfHalfDtheta - vx * halfDtheta;
+        toModuleStates(discreteVx, discreteVy, omega, locations, speeds, angles);
+    }
+
+    /**
+     * Scales the module speeds down so none of them is above the max speed,
+     * keeping the ratio between them
+     *
+     * @param speeds   The module speeds, in meters per second
+     * @param maxSpeed The max speed of a module, in meters per second
+     */
+    public static void desaturate(double[] speeds, double maxSpeed) {
+        double max = 0;
+        for (double speed : speeds) {
+            max = Math.max(max, Math.abs(speed));
+        }
+        if (max <= maxSpeed)
+            return;
+        double ratio = maxSpeed / max;
+        for (int i = 0; i < speeds.length; i++) {
+            speeds[i] *= ratio;
+        }
+    }
+
+    /**
+     * Minimizes the change in angle of a module, by reversing the speed if the
+     * target is more than 90 degrees away from the current angle
+     *
+     * @param speeds       The module speeds, in meters per second
+     * @param angles       The module angles, in degrees
+     * @param index        The index of the module to optimize
+     * @param currentAngle The current angle of the module, in degrees
+     */
+    public static void optimize(double[] speeds, double[] angles, int index, double currentAngle) {
+        if (Math.abs(Utils.getAngleDifference(currentAngle, angles[index])) > 90) {
+            speeds[index] = -speeds[index];
+            angles[index] = Utils.normalizeDegrees(angles[index] + 180);
+        }
+    }
+}
@@ -2,58 +2,105 @@
 // Open Source Software; you can modify and/or share it under the terms of
 package frc.robot.utils;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.DemandType;
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.TalonFX;
-import com.ctre.phoenix.sensors.CANCoder;
-
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.util.sendable.Sendable;
-import edu.wpi.first.util.sendable.SendableBuilder;
 import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.utils.TelemetryScheduler.Tier;
+import frc.robot.utils.io.SwerveModuleIO;
 
 /**
  * A swerve module
  */
-public class SwerveModule implements Sendable {
-    private double angleOffset;
+public class SwerveModule {
+    private volatile double angleOffset;
     private double desiredVelocity, desiredAngle;
-    private final TalonFX moveMotor, angleMotor;
-    private final CANCoder absoluteEncoder;
+    private final SwerveModuleIO io;
+    private final SwerveModuleIO.Inputs inputs;
+    private final SwerveModuleState state;
+    private final SwerveModulePosition position;
+    private Rotation2d angleRotation;
+    private double angleRotationDegrees;
+
+    private int lastLoopCanReads;
 
     /**
      * Creates a new SwerveModule
      * 
      * @param constants The constants for the module
+     * @param io        The hardware of the module
      */
-    public SwerveModule(SwerveModuleConstants constants) {
+    public SwerveModule(SwerveModuleConstants constants, SwerveModuleIO io) {
         angleOffset = constants.angleOffset;
-        moveMotor = new TalonFX(constants.moveMotorID);
-        angleMotor = new TalonFX(constants.angleMotorID);
-        absoluteEncoder = new CANCoder(constants.absoluteEncoderID);
+        this.io = io;
+        inputs = new SwerveModuleIO.Inputs();
 
         desiredAngle = 0;
         desiredVelocity = 0;
-        configureDevices();
+        angleRotation = new Rotation2d();
+        angleRotationDegrees = 0;
+        state = new SwerveModuleState(0, angleRotation);
+        position = new SwerveModulePosition(0, angleRotation);
+        update();
     }
 
     /**
-     * Configures the devices to their default values
+     * Samples all the sensors of the module once, every getter reads from this
+     * snapshot until the next call. Should be called once at the start of every
+     * loop
      */
-    private void configureDevices() {
-        moveMotor.configFactoryDefault();
-        angleMotor.configFactoryDefault();
-        absoluteEncoder.configFactoryDefault();
+    public void update() {
+        io.updateInputs(inputs);
+        lastLoopCanReads = io.getAndResetReadCount();
+    }
 
-        moveMotor.config_kP(0, SwerveModuleConstants.VELOCITY_KP);
+    /**
+     * Reads the distance of the module directly from the motor, bypassing the
+     * snapshot. Safe to call from the odometry thread
+     * 
+     * @return The distance the module has traveled, in meters
+     */
+    public double sampleDistance() {
+        return io.readDrivePosition();
+    }
 
-        angleMotor.config_kP(0, SwerveModuleConstants.ANGLE_KP);
-        angleMotor.config_kI(0, SwerveModuleConstants.ANGLE_KI);
-        angleMotor.setNeutralMode(NeutralMode.Brake);
-        moveMotor.setNeutralMode(NeutralMode.Brake);
+    /**
+     * Reads the angle of the module directly from the absolute encoder, bypassing
+     * the snapshot. Safe to call from the odometry thread
+     * 
+     * @return The angle of the module, between 0 and 360 degrees
+     */
+    public double sampleAngle() {
+        return Utils.normalizeDegrees(io.readAbsoluteAngle() - angleOffset);
+    }
+
+    /**
+     * Gets the time the sensors were last sampled
+     * 
+     * @return The time of the last sample, in seconds
+     */
+    public double getTimestamp() {
+        return inputs.timestamp;
+    }
+
+    /**
+     * Gets the sensor snapshot of the last {@link #update()}
+     * 
+     * @return The inputs of the module, reused between calls
+     */
+    public SwerveModuleIO.Inputs getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Gets the number of CAN reads made by the module during the last loop,
+     * including the samples of the odometry thread
+     * 
+     * @return The number of CAN reads made between the last two calls to
+     *         {@link #update()}
+     */
+    public int getLastLoopCanReads() {
+        return lastLoopCanReads;
     }
 
     /**
@@ -62,16 +109,22 @@ public class SwerveModule implements Sendable {
      * @return The angle of the module, between 0 and 360 degrees
      */
     public double getAngle() {
-        return Utils.normalizeDegrees(absoluteEncoder.getAbsolutePosition() - angleOffset);
+        return Utils.normalizeDegrees(inputs.absoluteAngle - angleOffset);
     }
 
     /**
-     * Gets the angle of the module as a Rotation2d
+     * Gets the angle of the module as a Rotation2d, only creating a new one when
+     * the angle changes
      * 
      * @return The angle of the module as a Rotation2d
      */
     public Rotation2d getAngleRotation() {
-        return Rotation2d.fromDegrees(getAngle());
+        double angle = getAngle();
+        if (angle != angleRotationDegrees) {
+            angleRotationDegrees = angle;
+            angleRotation = Rotation2d.fromDegrees(angle);
+        }
+        return angleRotation;
     }
 
     /**
@@ -80,7 +133,7 @@ public class SwerveModule implements Sendable {
      * @return The velocity of the module, in meters per second
      */
     public double getVelocity() {
-        return moveMotor.getSelectedSensorVelocity() / SwerveModuleConstants.PULSE_PER_METER * 10;
+        return inputs.driveVelocity;
     }
 
     /**
@@ -90,19 +143,36 @@ public class SwerveModule implements Sendable {
      */
     public void setVelocity(double velocity) {
         desiredVelocity = velocity;
-        moveMotor.set(ControlMode.Velocity, velocity * SwerveModuleConstants.PULSE_PER_METER / 10,
-                DemandType.ArbitraryFeedForward, SwerveModuleConstants.VELOCITY_FF.calculate(velocity));
+        io.setDriveVelocity(velocity, SwerveModuleConstants.VELOCITY_FF.calculate(velocity));
+    }
+
+    /**
+     * Gets the velocity the module was last set to
+     * 
+     * @return The desired velocity, in meters per second
+     */
+    public double getDesiredVelocity() {
+        return desiredVelocity;
+    }
+
+    /**
+     * Gets the angle the module was last set to
+     * 
+     * @return The desired angle, in degrees
+     */
+    public double getDesiredAngle() {
+        return desiredAngle;
     }
 
     /**
      * Calculates the target angle for the module
      * 
      * @param targetAngle The target angle, in degrees
-     * @return The target angle, in encoder pulses
+     * @return The target position of the steer sensor, in degrees of the module
      */
     private double calculateTarget(double targetAngle) {
         double difference = Utils.getAngleDifference(getAngle(), targetAngle);
-        return angleMotor.getSelectedSensorPosition() + (difference * SwerveModuleConstants.PULSE_PER_DEGREE);
+        return inputs.steerPosition + difference;
     }
 
     /**
@@ -111,31 +181,43 @@ public class SwerveModule implements Sendable {
      * @param angle The angle to set the module to, in degrees
      */
     public void setAngle(double angle) {
+        setAngle(angle, 0);
+    }
+
+    /**
+     * Sets the angle of the module, with the rate it is expected to turn at
+     * 
+     * @param angle     The angle to set the module to, in degrees
+     * @param steerRate The steering rate of the setpoint, in degrees per second
+     */
+    public void setAngle(double angle, double steerRate) {
         desiredAngle = angle;
-        angleMotor.set(ControlMode.Position, calculateTarget(angle));
+        io.setSteerPosition(calculateTarget(angle), steerRate * SwerveModuleConstants.STEER_KV);
     }
 
     /**
      * Stops the angle motor
      */
     public void stopAngleMotor() {
-        angleMotor.set(ControlMode.PercentOutput, 0);
+        io.setSteerPower(0);
     }
 
     /**
      * Stops the move motor
      */
     public void stopMoveMotor() {
-        moveMotor.set(ControlMode.PercentOutput, 0);
+        io.setDrivePower(0);
     }
 
     /**
-     * Gets the state of the module
+     * Gets the state of the module, the returned object is reused between calls
      * 
      * @return The state of the module
      */
     public SwerveModuleState getState() {
-        return new SwerveModuleState(getVelocity(), getAngleRotation());
+        state.speedMetersPerSecond = getVelocity();
+        state.angle = getAngleRotation();
+        return state;
     }
 
     /**
@@ -144,8 +226,29 @@ public class SwerveModule implements Sendable {
      * @param state The state to set the module to
      */
     public void setState(SwerveModuleState state) {
-        setVelocity(state.speedMetersPerSecond);
-        setAngle(state.angle.getDegrees());
+        setState(state.speedMetersPerSecond, state.angle.getDegrees());
+    }
+
+    /**
+     * Sets the state of the module
+     * 
+     * @param velocity The velocity to set the module to, in meters per second
+     * @param angle    The angle to set the module to, in degrees
+     */
+    public void setState(double velocity, double angle) {
+        setState(velocity, angle, 0);
+    }
+
+    /**
+     * Sets the state of the module, with the rate it is expected to turn at
+     * 
+     * @param velocity  The velocity to set the module to, in meters per second
+     * @param angle     The angle to set the module to, in degrees
+     * @param steerRate The steering rate of the setpoint, in degrees per second
+     */
+    public void setState(double velocity, double angle, double steerRate) {
+        setVelocity(velocity);
+        setAngle(angle, steerRate);
     }
 
     /**
@@ -154,7 +257,7 @@ public class SwerveModule implements Sendable {
      * @param power The power to set the velocity motor to
      */
     public void setVelocityPower(double power) {
-        moveMotor.set(ControlMode.PercentOutput, power);
+        io.setDrivePower(power);
     }
 
     /**
@@ -163,15 +266,14 @@ public class SwerveModule implements Sendable {
      * @param isBreak Whether the module should be in brake mode or in coast mode
      */
     public void setNeutralMode(boolean isBreak) {
-        angleMotor.setNeutralMode(isBreak ? NeutralMode.Brake : NeutralMode.Coast);
-        moveMotor.setNeutralMode(isBreak ? NeutralMode.Brake : NeutralMode.Coast);
+        io.setNeutralMode(isBreak);
     }
 
     /**
      * Sets the offset of the module to the current angle
      */
     public void calibrateOffset() {
-        angleOffset = absoluteEncoder.getAbsolutePosition();
+        angleOffset = io.readAbsoluteAngle();
     }
 
     /**
@@ -180,25 +282,33 @@ public class SwerveModule implements Sendable {
      * @return The distance the module has traveled, in meters
      */
     public double getDistance() {
-        return moveMotor.getSelectedSensorPosition() / SwerveModuleConstants.PULSE_PER_METER;
+        return inputs.drivePosition;
     }
 
     /**
-     * Gets the position of the module
+     * Gets the position of the module, the returned object is reused between calls
      * 
      * @return The position of the module
      */
     public SwerveModulePosition getPosition() {
-        return new SwerveModulePosition(getDistance(), getAngleRotation());
+        position.distanceMeters = getDistance();
+        position.angle = getAngleRotation();
+        return position;
     }
 
-    @Override
-    public void initSendable(SendableBuilder builder) {
-        Utils.addDoubleProperty(builder, "Angle", this::getAngle, 2);
-        builder.addDoubleProperty("Velocity", this::getVelocity, null);
-        builder.addDoubleProperty("Angle Offset", () -> angleOffset, null);
+    /**
+     * Registers the dashboard values of the module, all of them read from the
+     * sensor snapshot
+     * 
+     * @param table The SmartDashboard table of the module
+     */
+    public void registerTelemetry(String table) {
+        TelemetryScheduler.addDouble(table, "Angle", this::getAngle, Tier.FAST, 0.01);
+        TelemetryScheduler.addDouble(table, "Velocity", this::getVelocity, Tier.FAST, 0.01);
+        TelemetryScheduler.addDouble(table, "Angle Offset", () -> angleOffset, Tier.SLOW, 0);
 
-        builder.addDoubleProperty("Desired Velocity", () -> desiredVelocity, null);
-        builder.addDoubleProperty("Desired Angle", () -> desiredAngle, null);
+        TelemetryScheduler.addDouble(table, "Desired Velocity", () -> desiredVelocity, Tier.MEDIUM, 0.01);
+        TelemetryScheduler.addDouble(table, "Desired Angle", () -> desiredAngle, Tier.MEDIUM, 0.01);
+        TelemetryScheduler.addDouble(table, "CAN Reads", this::getLastLoopCanReads, Tier.SLOW, 0);
     }
 }
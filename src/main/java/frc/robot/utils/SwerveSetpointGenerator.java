@@ -0,0 +1,120 @@
+package frc.robot.utils;
+
+/**
+ * Generates module setpoints that the modules can actually follow. The steering
+ * of every module is limited to a max rate, a wheel is slowed down by how far
+ * its module still has to turn, and the change in the velocity of all the
+ * wheels is scaled together so no wheel accelerates faster than the max
+ * acceleration. Works on primitive arrays and does not allocate
+ */
+public class SwerveSetpointGenerator {
+    private final double maxSteerRate, maxAcceleration;
+    private final double[] speeds, angles, steerRates;
+
+    /**
+     * Creates a new SwerveSetpointGenerator, starting from stopped modules at 0
+     * degrees
+     *
+     * @param modules         The number of modules
+     * @param maxSteerRate    The max steering rate of a module, in degrees per
+     *                        second
+     * @param maxAcceleration The max acceleration of a wheel, in meters per second
+     *                        squared
+     */
+    public SwerveSetpointGenerator(int modules, double maxSteerRate, double maxAcceleration) {
+        this.maxSteerRate = maxSteerRate;
+        this.maxAcceleration = maxAcceleration;
+        speeds = new double[modules];
+        angles = new double[modules];
+        steerRates = new double[modules];
+    }
+
+    /**
+     * Restarts the generator from the measured state of a module, should be called
+     * for every module when the modules were not driven by the generator
+     *
+     * @param module The index of the module
+     * @param speed  The measured speed, in meters per second
+     * @param angle  The measured angle, in degrees
+     */
+    public void reset(int module, double speed, double angle) {
+        speeds[module] = speed;
+        angles[module] = angle;
+        steerRates[module] = 0;
+    }
+
+    /**
+     * Moves the setpoints one loop towards the target module states, the targets
+     * should already be desaturated
+     *
+     * @param targetSpeeds The target speeds, in meters per second, replaced with
+     *                     the new setpoints
+     * @param targetAngles The target angles, in degrees, replaced with the new
+     *                     setpoints
+     * @param dt           The time until the next setpoint, in seconds
+     */
+    public void generate(double[] targetSpeeds, double[] targetAngles, double dt) {
+        double maxSteer = maxSteerRate * dt;
+        double maxDeltaV = maxAcceleration * dt;
+        double scale = 1;
+        for (int i = 0; i < speeds.length; i++) {
+            // optimize against the previous setpoint, which the module is following
+            SwerveMath.optimize(targetSpeeds, targetAngles, i, angles[i]);
+            double steer = Utils.getAngleDifference(angles[i], targetAngles[i]);
+            if (targetSpeeds[i] == 0 && speeds[i] == 0)
+                steer = 0; // a stopped wheel keeps its angle
+            steer = Math.max(-maxSteer, Math.min(maxSteer, steer));
+            double angle = angles[i] + steer;
+            // only the part of the target velocity along the new angle is driven
+            double speed = targetSpeeds[i] * Math.cos(Math.toRadians(targetAngles[i] - angle));
+            targetAngles[i] = Utils.normalizeDegrees(angle);
+            steerRates[i] = steer / dt;
+
+            double deltaV = velocityChange(speeds[i], angles[i], speed, angle);
+            if (deltaV > maxDeltaV)
+                scale = Math.min(scale, maxDeltaV / deltaV);
+            targetSpeeds[i] = speed;
+        }
+        for (int i = 0; i < speeds.length; i++) {
+            // blend the previous and the target velocity vectors, and drive the part
+            // along the new angle
+            double previousX = speeds[i] * Math.cos(Math.toRadians(angles[i]));
+            double previousY = speeds[i] * Math.sin(Math.toRadians(angles[i]));
+            double angle = Math.toRadians(targetAngles[i]);
+            double targetX = targetSpeeds[i] * Math.cos(angle);
+            double targetY = targetSpeeds[i] * Math.sin(angle);
+            double x = previousX + scale * (targetX - previousX);
+            double y = previousY + scale * (targetY - previousY);
+            targetSpeeds[i] = x * Math.cos(angle) + y * Math.sin(angle);
+            speeds[i] = targetSpeeds[i];
+            angles[i] = targetAngles[i];
+        }
+    }
+
+    /**
+     * Gets the magnitude of the change between two wheel velocity vectors
+     *
+     * @param speed       The previous speed, in meters per second
+     * @param angle       The previous angle, in degrees
+     * @param targetSpeed The target speed, in meters per second
+     * @param targetAngle The target angle, in degrees
+     * @return The change in velocity, in meters per second
+     */
+    private static double velocityChange(double speed, double angle, double targetSpeed, double targetAngle) {
+        double a = Math.toRadians(angle);
+        double b = Math.toRadians(targetAngle);
+        return Math.hypot(targetSpeed * Math.cos(b) - speed * Math.cos(a),
+                targetSpeed * Math.sin(b) - speed * Math.sin(a));
+    }
+
+    /**
+     * Gets the steering rate of a module in the last setpoint, to be used as a
+     * feedforward
+     *
+     * @param module The index of the module
+     * @return The steering rate, in degrees per second
+     */
+    public double getSteerRate(int module) {
+        return steerRates[module];
+    }
+}
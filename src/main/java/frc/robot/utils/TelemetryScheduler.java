@@ -0,0 +1,133 @@
+package frc.robot.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Publishes dashboard values in tiers of different rates, instead of every
+ * value every loop. Values within a tier are spread over the loops of its
+ * period, and a value is only sent when it changed by more than its epsilon.
+ * Suppliers are read on the main loop, so they must only read cached values
+ * and never the CAN bus
+ */
+public final class TelemetryScheduler {
+    private static final int PUBLISH_LOOPS = 50; // loops between publishes of the statistics
+    private static final TimingSection TIMING = LoopProfiler.section("Telemetry", LoopProfiler.ROBOT_PERIODIC);
+
+    /**
+     * The rate a value is published at, with the robot loop at 50 Hz
+     */
+    public static enum Tier {
+        /** Every loop, for values the driver watches */
+        FAST(1),
+        /** Every 5 loops */
+        MEDIUM(5),
+        /** Every 50 loops, for diagnostics */
+        SLOW(50);
+
+        private final int loops;
+
+        private Tier(int loops) {
+            this.loops = loops;
+        }
+
+        /**
+         * Gets the number of loops between publishes of a value
+         *
+         * @return The period of the tier, in loops
+         */
+        public int getLoops() {
+            return loops;
+        }
+    }
+
+    /**
+     * A published value
+     */
+    private static class Entry {
+        private final DoublePublisher publisher;
+        private final DoubleSupplier supplier;
+        private final double epsilon;
+        private final int loops, phase;
+        private double lastValue;
+        private boolean published;
+
+        private Entry(DoublePublisher publisher, DoubleSupplier supplier, double epsilon, int loops, int phase) {
+            this.publisher = publisher;
+            this.supplier = supplier;
+            this.epsilon = epsilon;
+            this.loops = loops;
+            this.phase = phase;
+        }
+    }
+
+    private static final NetworkTable ROOT = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private static final NetworkTable STATISTICS = NetworkTableInstance.getDefault().getTable("Telemetry");
+    private static final DoublePublisher PUBLISHED = STATISTICS.getDoubleTopic("Published Per Second").publish();
+    private static final DoublePublisher SKIPPED = STATISTICS.getDoubleTopic("Skipped Per Second").publish();
+    private static final DoublePublisher VALUES = STATISTICS.getDoubleTopic("Values").publish();
+    private static final List<Entry> entries = new ArrayList<>();
+    private static final int[] tierSizes = new int[Tier.values().length];
+    private static Entry[] entryArray = new Entry[0];
+    private static long loop;
+    private static int published, skipped, loopsSincePublish;
+
+    private TelemetryScheduler() {
+    }
+
+    /**
+     * Registers a value to publish, should only be called at startup
+     *
+     * @param table    The SmartDashboard table of the value
+     * @param name     The name of the value
+     * @param supplier The supplier of the value, must only read cached values
+     * @param tier     The rate to publish the value at
+     * @param epsilon  The smallest change that is published
+     */
+    public static synchronized void addDouble(String table, String name, DoubleSupplier supplier, Tier tier,
+            double epsilon) {
+        DoublePublisher publisher = ROOT.getSubTable(table).getDoubleTopic(name).publish();
+        int phase = tierSizes[tier.ordinal()]++ % tier.loops;
+        entries.add(new Entry(publisher, supplier, epsilon, tier.loops, phase));
+        entryArray = entries.toArray(new Entry[0]);
+    }
+
+    /**
+     * Publishes the values that are due this loop and changed enough, should be
+     * called once every loop
+     */
+    public static void update() {
+        TIMING.start();
+        Entry[] current = entryArray;
+        for (Entry entry : current) {
+            if (loop % entry.loops != entry.phase)
+                continue;
+            double value = entry.supplier.getAsDouble();
+            if (entry.published && Math.abs(value - entry.lastValue) <= entry.epsilon) {
+                skipped++;
+                continue;
+            }
+            entry.publisher.set(value);
+            entry.lastValue = value;
+            entry.published = true;
+            published++;
+        }
+        loop++;
+
+        loopsSincePublish++;
+        if (loopsSincePublish >= PUBLISH_LOOPS) {
+            PUBLISHED.set(published);
+            SKIPPED.set(skipped);
+            VALUES.set(current.length);
+            loopsSincePublish = 0;
+            published = 0;
+            skipped = 0;
+        }
+        TIMING.stop();
+    }
+}
@@ -0,0 +1,172 @@
+package frc.robot.utils;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A named section of the robot loop, timed with {@link System#nanoTime()} into
+ * a preallocated histogram. Created with {@link LoopProfiler#section}
+ */
+public class TimingSection {
+    private static final int FINE_BUCKETS = 100; // 10 microseconds each, up to 1 millisecond
+    private static final int COARSE_BUCKETS = 250; // 100 microseconds each, up to 26 milliseconds
+    private static final int BUCKETS = FINE_BUCKETS + COARSE_BUCKETS + 1; // last bucket is overflow
+
+    private final String name;
+    private final TimingSection parent;
+    private final long[] histogram;
+    private long samples;
+    private long maxNanos;
+    private long overruns;
+    private long startTime;
+    private long loopNanos, childNanos;
+    private boolean activeThisLoop;
+
+    private final DoublePublisher p50Publisher, p99Publisher, maxPublisher, overrunsPublisher;
+
+    /**
+     * Creates a new TimingSection
+     * 
+     * @param name   The name of the section
+     * @param parent The section this section runs inside of, or null
+     * @param table  The table to publish the results to
+     */
+    TimingSection(String name, TimingSection parent, NetworkTable table) {
+        this.name = name;
+        this.parent = parent;
+        histogram = new long[BUCKETS];
+        NetworkTable sectionTable = table.getSubTable(name);
+        p50Publisher = sectionTable.getDoubleTopic("p50").publish();
+        p99Publisher = sectionTable.getDoubleTopic("p99").publish();
+        maxPublisher = sectionTable.getDoubleTopic("max").publish();
+        overrunsPublisher = sectionTable.getDoubleTopic("overruns").publish();
+    }
+
+    /**
+     * Starts timing the section
+     */
+    public void start() {
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Stops timing the section, a section can be timed more than once in a loop
+     */
+    public void stop() {
+        record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Adds a measured time to the current loop of the section
+     * 
+     * @param nanos The measured time, in nanoseconds
+     */
+    void record(long nanos) {
+        loopNanos += nanos;
+        activeThisLoop = true;
+        if (parent != null)
+            parent.childNanos += nanos;
+    }
+
+    /**
+     * Gets the name of the section
+     * 
+     * @return The name of the section
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the time spent in the section in the current loop
+     * 
+     * @return The time, in nanoseconds
+     */
+    long getLoopNanos() {
+        return loopNanos;
+    }
+
+    /**
+     * Gets the time spent in the section itself in the current loop, not counting
+     * the sections inside of it
+     * 
+     * @return The self time, in nanoseconds
+     */
+    long getSelfNanos() {
+        return loopNanos - childNanos;
+    }
+
+    /**
+     * Marks the section as the cause of a loop overrun
+     */
+    void addOverrun() {
+        overruns++;
+    }
+
+    /**
+     * Adds the time of the current loop to the histogram, and starts a new loop
+     */
+    void endLoop() {
+        if (activeThisLoop) {
+            long micros = loopNanos / 1000;
+            int bucket;
+            if (micros < FINE_BUCKETS * 10)
+                bucket = (int) (micros / 10);
+            else
+                bucket = (int) Math.min(BUCKETS - 1, FINE_BUCKETS + (micros - FINE_BUCKETS * 10) / 100);
+            histogram[bucket]++;
+            samples++;
+            maxNanos = Math.max(maxNanos, loopNanos);
+        }
+        loopNanos = 0;
+        childNanos = 0;
+        activeThisLoop = false;
+    }
+
+    /**
+     * Gets the upper bound of a bucket
+     * 
+     * @param bucket The index of the bucket
+     * @return The upper bound, in milliseconds
+     */
+    private static double bucketUpperBound(int bucket) {
+        if (bucket < FINE_BUCKETS)
+            return (bucket + 1) * 0.01;
+        return FINE_BUCKETS * 0.01 + (bucket - FINE_BUCKETS + 1) * 0.1;
+    }
+
+    /**
+     * Gets a percentile of the recorded times
+     * 
+     * @param percentile The percentile, between 0 and 1
+     * @return The upper bound of the bucket containing the percentile, in
+     *         milliseconds
+     */
+    private double getPercentile(double percentile) {
+        long target = (long) Math.ceil(samples * percentile);
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += histogram[i];
+            if (count >= target)
+                return bucketUpperBound(i);
+        }
+        return bucketUpperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Publishes the results since the last publish, and clears them
+     */
+    void publish() {
+        if (samples > 0) {
+            p50Publisher.set(getPercentile(0.5));
+            p99Publisher.set(getPercentile(0.99));
+            maxPublisher.set(maxNanos / 1e6);
+        }
+        overrunsPublisher.set(overruns);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = 0;
+        }
+        samples = 0;
+        maxNanos = 0;
+    }
+}
@@ -0,0 +1,312 @@
+package frc.robot.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPoint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory.State;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import frc.robot.Constants.SwerveConstants;
+
+/**
+ * A cache of generated trajectories, keyed by the route, the alliance and the
+ * start pose quantized to a grid. The cached trajectory is generated from the
+ * quantized start, and a request from a pose in the same cell only generates a
+ * short entry segment from the real pose onto it, joining it with the pose,
+ * direction and speed it has at the join. Routes with no path from a cell are
+ * cached as well, until the robot leaves the cell
+ */
+public class TrajectoryCache implements Sendable {
+    private static final double POSITION_RESOLUTION = 0.25; // meters
+    private static final double ROTATION_RESOLUTION = 45; // degrees
+    private static final int CAPACITY = 64;
+    private static final double ENTRY_DISTANCE = 0.75; // meters from the start of a cached trajectory to the join
+    private static final PathPlannerTrajectory NO_PATH = new PathPlannerTrajectory();
+
+    private final Map<Long, PathPlannerTrajectory> trajectories;
+    private final Map<Integer, Function<Pose2d, PathPoint[]>> routes;
+    private final AtomicLong hits, misses;
+    private volatile double lastGenerationTime, maxGenerationTime;
+
+    /**
+     * Creates a new TrajectoryCache
+     */
+    public TrajectoryCache() {
+        trajectories = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PathPlannerTrajectory> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+        routes = new LinkedHashMap<>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Registers a route, so it can be generated and warmed. Routes should only be
+     * registered while the robot is constructed
+     *
+     * @param route       The id of the route, must be between 0 and 255
+     * @param pathFactory Creates the path points of the route from a start pose,
+     *                    or returns null if there is no path from it
+     */
+    public void register(int route, Function<Pose2d, PathPoint[]> pathFactory) {
+        routes.put(route, pathFactory);
+    }
+
+    /**
+     * Creates the key of a route from a start pose
+     *
+     * @param route The id of the route
+     * @param start The start pose
+     * @return The key of the trajectory
+     */
+    private static long key(int route, Pose2d start) {
+        long x = Math.round(start.getX() / POSITION_RESOLUTION) & 0xFF;
+        long y = Math.round(start.getY() / POSITION_RESOLUTION) & 0xFF;
+        long rotation = Math.floorMod(Math.round(start.getRotation().getDegrees() / ROTATION_RESOLUTION),
+                Math.round(360 / ROTATION_RESOLUTION));
+        long alliance = Utils.getAlliance().ordinal();
+        return (route & 0xFF) << 32 | alliance << 24 | x << 16 | y << 8 | rotation;
+    }
+
+    /**
+     * Gets the pose a start pose is quantized to, the start of the cached
+     * trajectories of its key
+     *
+     * @param start The start pose
+     * @return The quantized pose
+     */
+    private static Pose2d quantize(Pose2d start) {
+        return new Pose2d(Math.round(start.getX() / POSITION_RESOLUTION) * POSITION_RESOLUTION,
+                Math.round(start.getY() / POSITION_RESOLUTION) * POSITION_RESOLUTION,
+                Rotation2d.fromDegrees(Math.round(start.getRotation().getDegrees() / ROTATION_RESOLUTION)
+                        * ROTATION_RESOLUTION));
+    }
+
+    /**
+     * Generates the trajectory of a route from a start pose
+     *
+     * @param route The id of the route
+     * @param start The start pose of the robot
+     * @return The trajectory, or null if there is no path
+     */
+    private PathPlannerTrajectory generate(int route, Pose2d start) {
+        return generate(route, start, null, 0);
+    }
+
+    /**
+     * Generates the trajectory of a route from a moving start, without caching
+     * it. The trajectory leaves the start in the direction the robot moves and
+     * at its speed, so it continues smoothly from another trajectory
+     *
+     * @param route    The id of the route
+     * @param start    The start pose of the robot
+     * @param heading  The direction the robot moves in, relative to the field
+     * @param velocity The speed of the robot, in meters per second
+     * @return The trajectory, or null if there is no path
+     */
+    public PathPlannerTrajectory generate(int route, Pose2d start, Rotation2d heading, double velocity) {
+        Function<Pose2d, PathPoint[]> pathFactory = routes.get(route);
+        if (pathFactory == null)
+            throw new IllegalArgumentException("Route " + route + " is not registered");
+        long startTime = System.nanoTime();
+        PathPoint[] points = pathFactory.apply(start);
+        if (points == null || points.length < 2)
+            return null;
+        if (heading != null)
+            points[0] = new PathPoint(start.getTranslation(), heading, start.getRotation(), velocity);
+        PathPlannerTrajectory trajectory = PathPlanner.generatePath(SwerveConstants.PATH_CONSTRAINTS,
+                Arrays.asList(points));
+        lastGenerationTime = (System.nanoTime() - startTime) / 1e6;
+        maxGenerationTime = Math.max(maxGenerationTime, lastGenerationTime);
+        return trajectory;
+    }
+
+    /**
+     * Generates the trajectory of a route from the quantized start of a pose and
+     * caches it. The cache is not locked while generating
+     *
+     * @param route The id of the route
+     * @param key   The key of the trajectory
+     * @param start The start pose of the robot
+     * @return The trajectory, or {@link #NO_PATH} if there is no path from the
+     *         quantized start
+     */
+    private PathPlannerTrajectory cache(int route, long key, Pose2d start) {
+        PathPlannerTrajectory trajectory = generate(route, quantize(start));
+        if (trajectory == null)
+            trajectory = NO_PATH;
+        synchronized (this) {
+            trajectories.put(key, trajectory);
+        }
+        return trajectory;
+    }
+
+    /**
+     * Gets the trajectory of a route from a start pose. The trajectory generated
+     * from the quantized start is cached, and an entry segment from the start
+     * pose is joined onto it. Called on the path planning thread
+     *
+     * @param route The id of the route
+     * @param start The start pose of the robot
+     * @return The trajectory, or null if there is no path from the start pose
+     */
+    public PathPlannerTrajectory get(int route, Pose2d start) {
+        long startTime = System.nanoTime();
+        long key = key(route, start);
+        PathPlannerTrajectory cached;
+        synchronized (this) {
+            cached = trajectories.get(key);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            cached = cache(route, key, start);
+        }
+        if (cached == NO_PATH)
+            return null;
+        PathPlannerTrajectory trajectory = join(cached, start);
+        if (trajectory == null) // shorter than the entry segment
+            return generate(route, start);
+        lastGenerationTime = (System.nanoTime() - startTime) / 1e6;
+        maxGenerationTime = Math.max(maxGenerationTime, lastGenerationTime);
+        return trajectory;
+    }
+
+    /**
+     * Generates an entry segment from a start pose onto a trajectory, and joins
+     * them
+     *
+     * @param trajectory The trajectory to join
+     * @param start      The start pose of the robot
+     * @return The joined trajectory, or null if the trajectory is shorter than
+     *         the entry segment
+     */
+    private static PathPlannerTrajectory join(PathPlannerTrajectory trajectory, Pose2d start) {
+        Translation2d first = trajectory.getInitialState().poseMeters.getTranslation();
+        PathPlannerState join = null;
+        for (State state : trajectory.getStates()) {
+            if (state.poseMeters.getTranslation().getDistance(first) >= ENTRY_DISTANCE) {
+                join = (PathPlannerState) state;
+                break;
+            }
+        }
+        if (join == null)
+            return null;
+        Translation2d joinPosition = join.poseMeters.getTranslation();
+        PathPlannerTrajectory entry = PathPlanner.generatePath(SwerveConstants.PATH_CONSTRAINTS,
+                new PathPoint(start.getTranslation(), joinPosition.minus(start.getTranslation()).getAngle(),
+                        start.getRotation()),
+                new PathPoint(joinPosition, join.poseMeters.getRotation(), join.holonomicRotation,
+                        join.velocityMetersPerSecond));
+        return new JoinedTrajectory(entry, trajectory, join.timeSeconds);
+    }
+
+    /**
+     * Generates and caches the trajectory of at most one registered route that
+     * is not cached yet from the quantized start pose. Meant to be called
+     * periodically on the path planning thread while disabled
+     *
+     * @param start The start pose of the robot
+     * @return Whether a trajectory was generated
+     */
+    public boolean warm(Pose2d start) {
+        for (int route : routes.keySet()) {
+            long key = key(route, start);
+            synchronized (this) {
+                if (trajectories.containsKey(key))
+                    continue;
+            }
+            cache(route, key, start);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the ratio of requests that were found in the cache
+     *
+     * @return The hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = this.hits.get(), misses = this.misses.get();
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.addDoubleProperty("Hits", hits::get, null);
+        builder.addDoubleProperty("Misses", misses::get, null);
+        builder.addDoubleProperty("Hit Rate", this::getHitRate, null);
+        builder.addDoubleProperty("Cached", trajectories::size, null);
+        builder.addDoubleProperty("Last Generation Time", () -> lastGenerationTime, null);
+        builder.addDoubleProperty("Max Generation Time", () -> maxGenerationTime, null);
+    }
+
+    /**
+     * An entry segment followed by a cached trajectory from the state it joins,
+     * only sampled. The states of the trajectories are shared, so its states
+     * list is empty
+     */
+    private static class JoinedTrajectory extends PathPlannerTrajectory {
+        private final PathPlannerTrajectory entry, trajectory;
+        private final double entryTime, joinTime;
+
+        /**
+         * Creates a new JoinedTrajectory
+         *
+         * @param entry      The entry segment, ending at the join
+         * @param trajectory The joined trajectory
+         * @param joinTime   The time of the join on the joined trajectory, in
+         *                   seconds
+         */
+        JoinedTrajectory(PathPlannerTrajectory entry, PathPlannerTrajectory trajectory, double joinTime) {
+            this.entry = entry;
+            this.trajectory = trajectory;
+            this.entryTime = entry.getTotalTimeSeconds();
+            this.joinTime = joinTime;
+        }
+
+        @Override
+        public PathPlannerState sample(double time) {
+            if (time < entryTime)
+                return (PathPlannerState) entry.sample(time);
+            return (PathPlannerState) trajectory.sample(time - entryTime + joinTime);
+        }
+
+        @Override
+        public double getTotalTimeSeconds() {
+            return entryTime + trajectory.getTotalTimeSeconds() - joinTime;
+        }
+
+        @Override
+        public PathPlannerState getInitialState() {
+            return entry.getInitialState();
+        }
+
+        @Override
+        public PathPlannerState getEndState() {
+            return trajectory.getEndState();
+        }
+
+        @Override
+        public List<State> getStates() {
+            return List.of();
+        }
+    }
+}
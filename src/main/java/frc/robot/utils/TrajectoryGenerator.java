@@ -1,7 +1,6 @@
 package frc.robot.utils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import com.pathplanner.lib.PathPoint;
 
@@ -12,108 +11,238 @@ import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import frc.robot.Constants;
 
 /**
- * Utility class for generating trajectories
+ * An immutable route of points, that generates trajectories from any start
+ * pose. The points are converted to path points for both alliances once, when
+ * the route is built, so generating a trajectory only creates the points next
+ * to the start. Built with a {@link Builder}
  */
 public class TrajectoryGenerator {
-    private final List<Pose2d> positions;
-    private final List<Rotation2d> headings;
-    private final List<Double> velocities;
     private final Alliance alliance;
+    private final int size;
+    private final double[] x, y, headings, rotations; // headings are NaN when calculated, angles in radians
+    private final double[] velocities;
+    // the path points of the route after the first, whose heading does not depend on the start
+    private final PathPoint[] points, mirroredPoints;
 
     /**
-     * Constructs a new TrajectoryGenerator
-     * 
-     * @param alliance The trajectory's alliance
+     * Builds a route, can be reused to build more routes that share their first
+     * points. Adding points does not change routes that were already built
      */
-    public TrajectoryGenerator(Alliance alliance) {
-        positions = new ArrayList<>();
-        headings = new ArrayList<>();
-        velocities = new ArrayList<>();
-        this.alliance = alliance;
+    public static class Builder {
+        private final Alliance alliance;
+        private double[] x, y, headings, rotations, velocities;
+        private int size;
+
+        /**
+         * Creates a new Builder
+         *
+         * @param alliance The alliance the points are relative to
+         */
+        public Builder(Alliance alliance) {
+            this.alliance = alliance;
+            x = new double[4];
+            y = new double[4];
+            headings = new double[4];
+            rotations = new double[4];
+            velocities = new double[4];
+        }
+
+        /**
+         * Adds a point to the route
+         *
+         * @param robotPosition The robot's position
+         * @param heading       The robot's heading, null to calculate it from the
+         *                      points around it
+         * @param velocity      The robot's velocity, -1 for default
+         * @return This builder
+         */
+        public Builder add(Pose2d robotPosition, Rotation2d heading, double velocity) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+                headings = Arrays.copyOf(headings, size * 2);
+                rotations = Arrays.copyOf(rotations, size * 2);
+                velocities = Arrays.copyOf(velocities, size * 2);
+            }
+            x[size] = robotPosition.getX();
+            y[size] = robotPosition.getY();
+            headings[size] = heading == null ? Double.NaN : heading.getRadians();
+            rotations[size] = robotPosition.getRotation().getRadians();
+            velocities[size] = velocity;
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds a point to the route
+         *
+         * @param robotPosition The robot's position
+         * @param heading       The robot's heading
+         * @return This builder
+         */
+        public Builder add(Pose2d robotPosition, Rotation2d heading) {
+            return add(robotPosition, heading, -1);
+        }
+
+        /**
+         * Adds a point to the route, with the heading calculated from the points
+         * around it
+         *
+         * @param robotPosition The robot's position
+         * @return This builder
+         */
+        public Builder add(Pose2d robotPosition) {
+            return add(robotPosition, null);
+        }
+
+        /**
+         * Builds the route from the points added so far
+         *
+         * @return The route
+         */
+        public TrajectoryGenerator build() {
+            return new TrajectoryGenerator(this);
+        }
     }
 
     /**
-     * Adds a point to the trajectory
-     * 
-     * @param robotPosition The robot's position
-     * @param heading       The robot's heading
-     * @param velocity      The robot's velocity
+     * Constructs a new TrajectoryGenerator from the points of a builder
+     *
+     * @param builder The builder
      */
-    public void add(Pose2d robotPosition, Rotation2d heading, double velocity) {
-        positions.add(robotPosition);
-        headings.add(heading);
-        velocities.add(velocity);
+    private TrajectoryGenerator(Builder builder) {
+        alliance = builder.alliance;
+        size = builder.size;
+        x = Arrays.copyOf(builder.x, size);
+        y = Arrays.copyOf(builder.y, size);
+        headings = Arrays.copyOf(builder.headings, size);
+        rotations = Arrays.copyOf(builder.rotations, size);
+        velocities = Arrays.copyOf(builder.velocities, size);
+
+        points = new PathPoint[size];
+        mirroredPoints = new PathPoint[size];
+        for (int i = 1; i < size; i++) {
+            int next = Math.min(i + 1, size - 1);
+            double heading = Double.isNaN(headings[i]) ? Math.atan2(y[next] - y[i - 1], x[next] - x[i - 1])
+                    : headings[i];
+            points[i] = createPoint(x[i], y[i], heading, rotations[i], velocities[i], false);
+            mirroredPoints[i] = createPoint(x[i], y[i], heading, rotations[i], velocities[i], true);
+        }
     }
 
     /**
-     * Adds a point to the trajectory
-     * 
-     * @param robotPosition The robot's position
-     * @param heading       The robot's heading
+     * Creates a path point, converting it to the other alliance
+     *
+     * @param x        The x of the point, relative to the route alliance
+     * @param y        The y of the point
+     * @param heading  The heading of the point, in radians
+     * @param rotation The holonomic rotation of the point, in radians
+     * @param velocity The velocity of the point, -1 for default
+     * @param mirror   Whether to convert the point to the other alliance
+     * @return The path point
      */
-    public void add(Pose2d robotPosition, Rotation2d heading) {
-        add(robotPosition, heading, -1);
+    private PathPoint createPoint(double x, double y, double heading, double rotation, double velocity,
+            boolean mirror) {
+        return Utils.createAllianceRelativePathPoint(new Translation2d(x, y), new Rotation2d(heading),
+                new Rotation2d(rotation), velocity, alliance, mirror ? otherAlliance() : alliance);
     }
 
     /**
-     * Adds a point to the trajectory
-     * 
-     * @param robotPosition The robot's position
+     * Gets the alliance the route is not relative to
      */
-    public void add(Pose2d robotPosition) {
-        add(robotPosition, null);
+    private Alliance otherAlliance() {
+        return alliance == Alliance.Blue ? Alliance.Red : Alliance.Blue;
     }
 
     /**
-     * Calculates the heading of a point based on the previous and next points
-     * 
-     * @param index The index of the point to calculate the heading of
-     * @return The calculated heading
+     * Gets the number of points in the route, without a start pose
+     *
+     * @return The number of points
      */
-    private Rotation2d calculateHeading(int index) {
-        if (index < 0 && index >= positions.size())
-            throw new IllegalArgumentException(
-                    "Index must be between 0 and " + (positions.size() - 1) + " (inclusive)");
-        return positions.get(Math.min(index + 1, positions.size() - 1)).getTranslation()
-                .minus(positions.get(Math.max(index - 1, 0)).getTranslation()).getAngle();
+    public int size() {
+        return size;
     }
 
     /**
      * Generates the trajectory, converts the points to the current alliance
-     * 
+     *
      * @param startPosition The robot's starting position to enter the trajectory
      *                      (relative to the field)
      * @return The generated trajectory
      */
     public PathPoint[] generate(Pose2d startPosition) {
-        if (alliance != Utils.getAlliance())
-            startPosition = new Pose2d(
-                    new Translation2d(Constants.FIELD_WIDTH - startPosition.getX(), startPosition.getY()),
-                    startPosition.getRotation().rotateBy(Rotation2d.fromDegrees(180)));
-        headings.add(0, null);
-        positions.add(0, startPosition);
-        velocities.add(0, -1.);
-
-        return generate();
+        return generate(startPosition, Utils.getAlliance());
+    }
+
+    /**
+     * Generates the trajectory from a start pose, converts the points to the given
+     * alliance. The route is not changed, so it can be generated again from
+     * another start
+     *
+     * @param startPosition   The robot's starting position to enter the trajectory
+     *                        (relative to the field)
+     * @param currentAlliance The alliance to convert the points to
+     * @return The generated trajectory
+     */
+    public PathPoint[] generate(Pose2d startPosition, Alliance currentAlliance) {
+        boolean mirror = alliance != currentAlliance;
+        double startX = startPosition.getX();
+        double startRotation = startPosition.getRotation().getRadians();
+        if (mirror) {
+            // the start is relative to the field, convert it to the route alliance
+            startX = Constants.FIELD_WIDTH - startX;
+            startRotation += Math.PI;
+        }
+        double startY = startPosition.getY();
+
+        PathPoint[] path = new PathPoint[size + 1];
+        double startHeading = size == 0 ? 0 : Math.atan2(y[0] - startY, x[0] - startX);
+        path[0] = createPoint(startX, startY, startHeading, startRotation, -1, mirror);
+        if (size > 0)
+            path[1] = createFirstPoint(startX, startY, mirror);
+        System.arraycopy(mirror ? mirroredPoints : points, 1, path, 2, Math.max(0, size - 1));
+        return path;
     }
 
     /**
      * Generates the trajectory, converts the points to the current alliance
-     * 
+     *
      * @return The generated trajectory
      */
     public PathPoint[] generate() {
-        PathPoint[] path = new PathPoint[headings.size()];
-        for (int i = 0; i < path.length; i++) {
-            Pose2d position = positions.get(i);
-            Rotation2d heading = headings.get(i);
-            double velocity = velocities.get(i);
-            if (heading == null)
-                heading = calculateHeading(i);
-            path[i] = Utils.createAllianceRelativePathPoint(position.getTranslation(), heading,
-                    position.getRotation(), velocity, alliance);
-        }
+        return generate(Utils.getAlliance());
+    }
 
+    /**
+     * Generates the trajectory without a start pose, converts the points to the
+     * given alliance
+     *
+     * @param currentAlliance The alliance to convert the points to
+     * @return The generated trajectory
+     */
+    public PathPoint[] generate(Alliance currentAlliance) {
+        boolean mirror = alliance != currentAlliance;
+        PathPoint[] path = new PathPoint[size];
+        if (size > 0)
+            path[0] = createFirstPoint(x[0], y[0], mirror);
+        System.arraycopy(mirror ? mirroredPoints : points, 1, path, 1, Math.max(0, size - 1));
         return path;
     }
+
+    /**
+     * Creates the first point of the route, whose heading depends on the point
+     * before it
+     *
+     * @param previousX The x of the point before it, relative to the route
+     *                  alliance
+     * @param previousY The y of the point before it
+     * @param mirror    Whether to convert the point to the other alliance
+     * @return The path point
+     */
+    private PathPoint createFirstPoint(double previousX, double previousY, boolean mirror) {
+        int next = Math.min(1, size - 1);
+        double heading = Double.isNaN(headings[0]) ? Math.atan2(y[next] - previousY, x[next] - previousX)
+                : headings[0];
+        return createPoint(x[0], y[0], heading, rotations[0], velocities[0], mirror);
+    }
 }
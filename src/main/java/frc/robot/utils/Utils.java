@@ -1,13 +1,10 @@
 package frc.robot.utils;
 
-import java.util.function.DoubleSupplier;
-
 import com.pathplanner.lib.PathPoint;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.util.sendable.Sendable;
-import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.util.sendable.SendableRegistry;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
@@ -55,7 +52,7 @@ public final class Utils {
      * @return The normalized angle
      */
     public static double normalizeRadians(double angle) {
-        return Math.toRadians(normalizeDegrees(Math.toDegrees(angle)));
+        return ((angle % (2 * Math.PI)) + 2 * Math.PI) % (2 * Math.PI);
     }
 
     /**
@@ -83,30 +80,6 @@ public final class Utils {
         return Math.pow(Math.abs(value), scale) * Math.signum(value);
     }
 
-    /**
-     * Rounds a double to a certain number of decimal places
-     * 
-     * @param value  The value to round
-     * @param places The number of decimal places to round to
-     * @return The rounded value, in a String
-     */
-    public static String round(double value, int places) {
-        return String.format("%." + places + "f", value);
-    }
-
-    /**
-     * Adds a double property to a SendableBuilder
-     * 
-     * @param builder            The SendableBuilder to add the property to
-     * @param name               The name of the property
-     * @param supplier           The supplier of the property
-     * @param placesAfterDecimal The number of decimal places to round to
-     */
-    public static void addDoubleProperty(SendableBuilder builder, String name, DoubleSupplier supplier,
-            int placesAfterDecimal) {
-        builder.addStringProperty(name, () -> round(supplier.getAsDouble(), placesAfterDecimal), null);
-    }
-
     /**
      * The side of the controller, Left or Right
      */
@@ -194,6 +167,58 @@ public final class Utils {
         LOADING_ZONE, OPEN_AREA, COMMUNITY_TOP, COMMUNITY_MIDDLE, COMMUNITY_BOTTOM, COMMUNITY_ENTRANCE_TOP,
         COMMUNITY_ENTRANCE_BOTTOM;
 
+        private static final Zone[] VALUES = values();
+        private static final FieldRegions REGIONS = new FieldRegions(Constants.FIELD_WIDTH, Constants.FIELD_HEIGHT,
+                Constants.ZONE_RESOLUTION,
+                new Region[] { Constants.COMMUNITY_BOTTOM, Constants.COMMUNITY_MIDDLE, Constants.COMMUNITY_TOP,
+                        Constants.ENTRANCE_BOTTOM, Constants.ENTRANCE_TOP, Constants.LOADING_ZONE },
+                new byte[] { COMMUNITY_BOTTOM.getId(), COMMUNITY_MIDDLE.getId(), COMMUNITY_TOP.getId(),
+                        COMMUNITY_ENTRANCE_BOTTOM.getId(), COMMUNITY_ENTRANCE_TOP.getId(), LOADING_ZONE.getId() },
+                OPEN_AREA.getId());
+
+        /**
+         * Gets the id of the zone, to be compared without the enum
+         * 
+         * @return The id of the zone
+         */
+        public byte getId() {
+            return (byte) ordinal();
+        }
+
+        /**
+         * Gets the zone from its id
+         * 
+         * @param id The id of the zone
+         * @return The zone
+         */
+        public static Zone fromId(byte id) {
+            return VALUES[id];
+        }
+
+        /**
+         * Gets the id of the zone the robot is in from its position, does not
+         * allocate
+         * 
+         * @param x   The x coordinate of the robot, in meters
+         * @param y   The y coordinate of the robot, in meters
+         * @param red Whether the robot is on the red alliance
+         * @return The id of the zone the robot is in
+         */
+        public static byte getId(double x, double y, boolean red) {
+            return REGIONS.getId(x, y, red);
+        }
+
+        /**
+         * Gets the zone the robot is in from its position
+         * 
+         * @param x The x coordinate of the robot, in meters
+         * @param y The y coordinate of the robot, in meters
+         * @return The zone the robot is in
+         */
+        public static Zone fromRobotLocation(double x, double y) {
+            return fromId(getId(x, y, isRedAlliance()));
+        }
+
         /**
          * Gets the zone the robot is in from its position
          * 
@@ -201,21 +226,28 @@ public final class Utils {
          * @return The zone the robot is in
          */
         public static Zone fromRobotLocation(Translation2d robotPosition) {
-            if (isRedAlliance())
-                robotPosition = new Translation2d(Constants.FIELD_WIDTH - robotPosition.getX(), robotPosition.getY());
-            if (Constants.COMMUNITY_BOTTOM.isInside(robotPosition))
-                return COMMUNITY_BOTTOM;
-            if (Constants.COMMUNITY_MIDDLE.isInside(robotPosition))
-                return COMMUNITY_MIDDLE;
-            if (Constants.COMMUNITY_TOP.isInside(robotPosition))
-                return COMMUNITY_TOP;
-            if (Constants.ENTRANCE_BOTTOM.isInside(robotPosition))
-                return COMMUNITY_ENTRANCE_BOTTOM;
-            if (Constants.ENTRANCE_TOP.isInside(robotPosition))
-                return COMMUNITY_ENTRANCE_TOP;
-            if (Constants.LOADING_ZONE.isInside(robotPosition))
-                return LOADING_ZONE;
-            return OPEN_AREA;
+            return fromRobotLocation(robotPosition, isRedAlliance());
+        }
+
+        /**
+         * Gets the zone the robot is in from its position
+         * 
+         * @param robotPosition The robot's position
+         * @param red           Whether the robot is on the red alliance
+         * @return The zone the robot is in
+         */
+        public static Zone fromRobotLocation(Translation2d robotPosition, boolean red) {
+            return fromId(getId(robotPosition.getX(), robotPosition.getY(), red));
+        }
+
+        /**
+         * Checks if the zone is one of the community zones
+         * 
+         * @param id The id of the zone
+         * @return Whether the zone is in the community
+         */
+        public static boolean isCommunity(byte id) {
+            return id == COMMUNITY_BOTTOM.getId() || id == COMMUNITY_MIDDLE.getId() || id == COMMUNITY_TOP.getId();
         }
     }
 
@@ -228,6 +260,19 @@ public final class Utils {
         return DriverStation.getAlliance();
     }
 
+    /**
+     * Converts a field position to the blue alliance coordinates, mirroring it
+     * when the robot is on the red alliance
+     * 
+     * @param position The position, relative to the field
+     * @return The position, relative to the blue alliance
+     */
+    public static Translation2d toBlueAlliance(Translation2d position) {
+        if (!isRedAlliance())
+            return position;
+        return new Translation2d(Constants.FIELD_WIDTH - position.getX(), position.getY());
+    }
+
     /**
      * Creates a path point with the position and heading relative to the alliance
      * 
@@ -241,8 +286,26 @@ public final class Utils {
      */
     public static PathPoint createAllianceRelativePathPoint(Translation2d position, Rotation2d heading,
             Rotation2d holonomicRotation, double velocity, Alliance alliance) {
+        return createAllianceRelativePathPoint(position, heading, holonomicRotation, velocity, alliance,
+                getAlliance());
+    }
+
+    /**
+     * Creates a path point with the position and heading relative to the alliance
+     * 
+     * @param position          The position of the point
+     * @param heading           The heading of the point
+     * @param holonomicRotation The holonomic rotation of the point
+     * @param velocity          The velocity of the point, -1 for default
+     * @param alliance          The alliance the point is relative to
+     * @param currentAlliance   The alliance of the robot
+     * @return The path point, with the position and heading relative to the
+     *         current alliance
+     */
+    public static PathPoint createAllianceRelativePathPoint(Translation2d position, Rotation2d heading,
+            Rotation2d holonomicRotation, double velocity, Alliance alliance, Alliance currentAlliance) {
 
-        if (getAlliance() != alliance) {
+        if (currentAlliance != alliance) {
             position = new Translation2d(Constants.FIELD_WIDTH - position.getX(), position.getY());
             heading = heading.rotateBy(Rotation2d.fromDegrees(180));
             holonomicRotation = holonomicRotation.rotateBy(Rotation2d.fromDegrees(180));
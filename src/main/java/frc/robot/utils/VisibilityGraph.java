@@ -0,0 +1,280 @@
+package frc.robot.utils;
+
+import java.util.Arrays;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants;
+
+/**
+ * Finds the shortest route between two points of the field around rectangular
+ * obstacles. The obstacles are inflated by the size of the robot, so the robot
+ * center can follow the route, and the visibility between their corners is
+ * computed once when the graph is built. A query only connects the start and
+ * the goal to the corners they see and runs A* over the corners, working on
+ * primitive arrays
+ */
+public class VisibilityGraph {
+    private static final double EPSILON = 1e-6; // meters, touching the edge of an obstacle is not blocked
+
+    private final double[] minX, minY, maxX, maxY; // the inflated obstacles
+    private final double[] nodeX, nodeY; // the corners of the obstacles that the robot can reach
+    private final double[][] edges; // the distance between two corners that see each other, or infinity
+    private final int start, goal; // the indices of the query points, after the corners
+
+    // work arrays of a query, over the corners and the two query points
+    private final double[] x, y, cost, estimate;
+    private final int[] previous;
+    private final boolean[] closed;
+
+    /**
+     * Holds the graph of the field, built on first use
+     */
+    private static class FieldHolder {
+        private static final VisibilityGraph FIELD = new VisibilityGraph(Constants.FIELD_WIDTH,
+                Constants.FIELD_HEIGHT, Constants.NAVIGATION_MARGIN, Constants.OBSTACLES);
+    }
+
+    /**
+     * Gets the graph of the field, with the obstacles of {@link Constants}, blue
+     * alliance
+     *
+     * @return The graph of the field
+     */
+    public static VisibilityGraph getField() {
+        return FieldHolder.FIELD;
+    }
+
+    /**
+     * Creates a new VisibilityGraph
+     *
+     * @param width     The width of the field, in meters
+     * @param height    The height of the field, in meters
+     * @param margin    The distance the robot center keeps from the obstacles and
+     *                  the field walls, in meters
+     * @param obstacles The obstacles
+     */
+    public VisibilityGraph(double width, double height, double margin, Rectangle[] obstacles) {
+        int count = obstacles.length;
+        minX = new double[count];
+        minY = new double[count];
+        maxX = new double[count];
+        maxY = new double[count];
+        for (int i = 0; i < count; i++) {
+            minX[i] = obstacles[i].getBottomLeft().getX() - margin;
+            minY[i] = obstacles[i].getBottomLeft().getY() - margin;
+            maxX[i] = obstacles[i].getTopRight().getX() + margin;
+            maxY[i] = obstacles[i].getTopRight().getY() + margin;
+        }
+
+        double[] cornersX = new double[count * 4];
+        double[] cornersY = new double[count * 4];
+        int nodes = 0;
+        for (int i = 0; i < count; i++) {
+            for (int corner = 0; corner < 4; corner++) {
+                double cx = corner % 2 == 0 ? minX[i] : maxX[i];
+                double cy = corner < 2 ? minY[i] : maxY[i];
+                if (cx < margin || cx > width - margin || cy < margin || cy > height - margin
+                        || insideObstacle(cx, cy))
+                    continue;
+                cornersX[nodes] = cx;
+                cornersY[nodes] = cy;
+                nodes++;
+            }
+        }
+        nodeX = Arrays.copyOf(cornersX, nodes);
+        nodeY = Arrays.copyOf(cornersY, nodes);
+        start = nodes;
+        goal = nodes + 1;
+
+        edges = new double[nodes][nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                edges[i][j] = i != j && visible(nodeX[i], nodeY[i], nodeX[j], nodeY[j], -1)
+                        ? Math.hypot(nodeX[j] - nodeX[i], nodeY[j] - nodeY[i])
+                        : Double.POSITIVE_INFINITY;
+            }
+        }
+
+        x = new double[nodes + 2];
+        y = new double[nodes + 2];
+        cost = new double[nodes + 2];
+        estimate = new double[nodes + 2];
+        previous = new int[nodes + 2];
+        closed = new boolean[nodes + 2];
+    }
+
+    /**
+     * Checks if a point is strictly inside one of the obstacles
+     */
+    private boolean insideObstacle(double px, double py) {
+        return obstacleAt(px, py) >= 0;
+    }
+
+    /**
+     * Gets the obstacle a point is strictly inside of
+     *
+     * @return The index of the obstacle, or -1 if the point is not in any
+     */
+    private int obstacleAt(double px, double py) {
+        for (int i = 0; i < minX.length; i++) {
+            if (px > minX[i] + EPSILON && px < maxX[i] - EPSILON && py > minY[i] + EPSILON
+                    && py < maxY[i] - EPSILON)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a segment does not pass through any obstacle
+     *
+     * @param ignored An obstacle to ignore, so a point inside it can leave it, or
+     *                -1
+     */
+    private boolean visible(double x1, double y1, double x2, double y2, int ignored) {
+        for (int i = 0; i < minX.length; i++) {
+            if (i != ignored && crosses(x1, y1, x2, y2, minX[i] + EPSILON, minY[i] + EPSILON,
+                    maxX[i] - EPSILON, maxY[i] - EPSILON))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a segment passes through the inside of a box, by clipping the
+     * segment between the sides of the box on each axis
+     */
+    private static boolean crosses(double x1, double y1, double x2, double y2, double boxMinX, double boxMinY,
+            double boxMaxX, double boxMaxY) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double enter = 0, exit = 1;
+        if (dx == 0) {
+            if (x1 <= boxMinX || x1 >= boxMaxX)
+                return false;
+        } else {
+            double t1 = (boxMinX - x1) / dx;
+            double t2 = (boxMaxX - x1) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (y1 <= boxMinY || y1 >= boxMaxY)
+                return false;
+        } else {
+            double t1 = (boxMinY - y1) / dy;
+            double t2 = (boxMaxY - y1) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter < exit;
+    }
+
+    /**
+     * Gets the most waypoints a route can have
+     *
+     * @return The number of corners and the goal
+     */
+    public int getMaxWaypoints() {
+        return nodeX.length + 1;
+    }
+
+    /**
+     * Finds the shortest route between two points, blue alliance
+     *
+     * @param startX    The x of the start, in meters
+     * @param startY    The y of the start, in meters
+     * @param goalX     The x of the goal, in meters
+     * @param goalY     The y of the goal, in meters
+     * @param waypoints The coordinates of the route after the start, as x1, y1,
+     *                  x2, y2, ..., ending at the goal, must fit every corner and
+     *                  the goal
+     * @return The number of waypoints, or 0 if there is no route around the
+     *         obstacles
+     */
+    public synchronized int findPath(double startX, double startY, double goalX, double goalY,
+            double[] waypoints) {
+        int nodes = nodeX.length;
+        System.arraycopy(nodeX, 0, x, 0, nodes);
+        System.arraycopy(nodeY, 0, y, 0, nodes);
+        x[start] = startX;
+        y[start] = startY;
+        x[goal] = goalX;
+        y[goal] = goalY;
+        // a robot that is already inside an obstacle, like on the ramp, may leave it
+        int startObstacle = obstacleAt(startX, startY);
+        int goalObstacle = obstacleAt(goalX, goalY);
+
+        for (int i = 0; i < nodes + 2; i++) {
+            cost[i] = Double.POSITIVE_INFINITY;
+            estimate[i] = Double.POSITIVE_INFINITY;
+            previous[i] = -1;
+            closed[i] = false;
+        }
+        cost[start] = 0;
+        estimate[start] = Math.hypot(goalX - startX, goalY - startY);
+
+        while (true) {
+            int current = -1;
+            for (int i = 0; i < nodes + 2; i++) {
+                if (!closed[i] && estimate[i] < Double.POSITIVE_INFINITY
+                        && (current < 0 || estimate[i] < estimate[current]))
+                    current = i;
+            }
+            if (current < 0)
+                return 0;
+            if (current == goal)
+                break;
+            closed[current] = true;
+
+            for (int next = 0; next < nodes + 2; next++) {
+                if (closed[next] || next == start)
+                    continue;
+                double distance;
+                if (current < nodes && next < nodes) {
+                    distance = edges[current][next];
+                } else {
+                    int ignored = current == start ? startObstacle : next == goal ? goalObstacle : -1;
+                    distance = visible(x[current], y[current], x[next], y[next], ignored)
+                            ? Math.hypot(x[next] - x[current], y[next] - y[current])
+                            : Double.POSITIVE_INFINITY;
+                }
+                double nextCost = cost[current] + distance;
+                if (nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    previous[next] = current;
+                    estimate[next] = nextCost + Math.hypot(goalX - x[next], goalY - y[next]);
+                }
+            }
+        }
+
+        int count = 0;
+        for (int node = goal; node != start; node = previous[node]) {
+            count++;
+        }
+        int index = count;
+        for (int node = goal; node != start; node = previous[node]) {
+            index--;
+            waypoints[index * 2] = x[node];
+            waypoints[index * 2 + 1] = y[node];
+        }
+        return count;
+    }
+
+    /**
+     * Finds the shortest route between two points, blue alliance
+     *
+     * @param start The start of the route
+     * @param goal  The goal of the route
+     * @return The points of the route after the start, ending at the goal, or
+     *         an empty array if there is no route around the obstacles
+     */
+    public Translation2d[] findPath(Translation2d start, Translation2d goal) {
+        double[] waypoints = new double[getMaxWaypoints() * 2];
+        int count = findPath(start.getX(), start.getY(), goal.getX(), goal.getY(), waypoints);
+        Translation2d[] path = new Translation2d[count];
+        for (int i = 0; i < count; i++) {
+            path[i] = new Translation2d(waypoints[i * 2], waypoints[i * 2 + 1]);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,67 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * A single pose measurement from the vision system
+ */
+public class VisionFrame {
+    private final Pose2d pose;
+    private final double timestamp;
+    private final double latency;
+    private final double tagDistance;
+
+    /**
+     * Creates a new VisionFrame
+     * 
+     * @param pose        The pose of the robot measured by the vision system
+     * @param timestamp   The time the frame was captured, by
+     *                    {@link edu.wpi.first.wpilibj.Timer#getFPGATimestamp()}
+     * @param latency     The time from capture until the frame was published, in
+     *                    seconds
+     * @param tagDistance The distance from the camera to the target, in meters
+     */
+    public VisionFrame(Pose2d pose, double timestamp, double latency, double tagDistance) {
+        this.pose = pose;
+        this.timestamp = timestamp;
+        this.latency = latency;
+        this.tagDistance = tagDistance;
+    }
+
+    /**
+     * Gets the pose of the robot measured by the vision system
+     * 
+     * @return The pose of the robot
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * Gets the time the frame was captured
+     * 
+     * @return The time the frame was captured, by
+     *         {@link edu.wpi.first.wpilibj.Timer#getFPGATimestamp()}
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the time from capture until the frame was published
+     * 
+     * @return The latency, in seconds
+     */
+    public double getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the distance from the camera to the target
+     * 
+     * @return The distance to the target, in meters
+     */
+    public double getTagDistance() {
+        return tagDistance;
+    }
+}
@@ -1,43 +1,198 @@
 package frc.robot.utils;
 
-import edu.wpi.first.math.Pair;
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.networktables.PubSubOption;
 import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants;
 import frc.robot.Constants.VisionConstants;
 
 /**
- * Utility class for vision
+ * Utility class for vision. Every new Limelight frame is captured exactly once
+ * by a NetworkTables listener and put in a bounded queue, which is drained by
+ * the main loop. The botpose and the target pose are separate topics, so a
+ * frame is only made of the two values published by the same capture, paired
+ * by their timestamps
  */
 public class VisionUtils {
+    private static final int QUEUE_CAPACITY = 8;
+
+    private static final ArrayBlockingQueue<VisionFrame> frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong framesReceived = new AtomicLong();
+    private static final AtomicLong framesDropped = new AtomicLong();
+    private static final AtomicLong framesUnpaired = new AtomicLong();
+    private static DoubleArraySubscriber botposeSubscriber;
+    private static DoubleSubscriber latencySubscriber;
+    private static DoubleArraySubscriber targetPoseSubscriber;
+    private static double lastLatency;
+
+    // the last unpaired values, guarded by the class lock on the listener thread
+    private static double[] pendingPose, pendingTargetPose;
+    private static long pendingPoseTime, pendingTargetPoseTime;
+
+    /**
+     * Starts listening to new frames from the Limelight, does nothing if already
+     * started
+     */
+    public static synchronized void start() {
+        if (botposeSubscriber != null)
+            return;
+        botposeSubscriber = VisionConstants.LIMELIGHT_TABLE.getDoubleArrayTopic("botpose")
+                .subscribe(new double[0], PubSubOption.keepDuplicates(true));
+        latencySubscriber = VisionConstants.LIMELIGHT_TABLE.getDoubleTopic("tl").subscribe(0);
+        targetPoseSubscriber = VisionConstants.LIMELIGHT_TABLE.getDoubleArrayTopic("targetpose_cameraspace")
+                .subscribe(new double[0], PubSubOption.keepDuplicates(true));
+        VisionConstants.LIMELIGHT_TABLE.getInstance().addListener(botposeSubscriber,
+                EnumSet.of(NetworkTableEvent.Kind.kValueAll), VisionUtils::onBotpose);
+        VisionConstants.LIMELIGHT_TABLE.getInstance().addListener(targetPoseSubscriber,
+                EnumSet.of(NetworkTableEvent.Kind.kValueAll), VisionUtils::onTargetPose);
+    }
 
     /**
-     * Gets the pose of the robot from the vision system
+     * Handles a new botpose value, runs on the NetworkTables listener thread
      * 
-     * @return The pose of the robot from the vision system, and the timestamp of
-     *         the measurement, or null if no target is found
+     * @param event The value event
      */
-    public static Pair<Pose2d, Double> getVisionPose() {
-        double hasTarget = VisionConstants.LIMELIGHT_TABLE.getEntry("tv").getDouble(0);
-        if (hasTarget == 0)
-            return null;
+    private static synchronized void onBotpose(NetworkTableEvent event) {
+        NetworkTableValue value = event.valueData.value;
+        double[] limeLightPose = value.getDoubleArray();
+        // the Limelight publishes zeros when no target is found
+        if (limeLightPose.length < 6 || (limeLightPose[0] == 0 && limeLightPose[1] == 0)) {
+            pendingPose = null;
+            return;
+        }
+        framesReceived.incrementAndGet();
+        if (pendingPose != null)
+            framesUnpaired.incrementAndGet();
+        pendingPose = limeLightPose;
+        pendingPoseTime = value.getTime();
+        pair();
+    }
 
-        double[] limeLightPose = VisionConstants.LIMELIGHT_TABLE.getEntry("botpose").getDoubleArray(new double[0]);
-        if (limeLightPose.length != 6)
-            return null;
+    /**
+     * Handles a new target pose value, runs on the NetworkTables listener thread
+     * 
+     * @param event The value event
+     */
+    private static synchronized void onTargetPose(NetworkTableEvent event) {
+        NetworkTableValue value = event.valueData.value;
+        pendingTargetPose = value.getDoubleArray();
+        pendingTargetPoseTime = value.getTime();
+        pair();
+    }
 
-        double latency = VisionConstants.LIMELIGHT_TABLE.getEntry("tl").getDouble(0);
-        limeLightPose[0] = Constants.FIELD_WIDTH / 2 - limeLightPose[0];
-        limeLightPose[1] = limeLightPose[1] + Constants.FIELD_HEIGHT / 2;
+    /**
+     * Makes a frame of the pending botpose and target pose if they were published
+     * by the same capture. Otherwise the older one can never be paired and is
+     * discarded, unless it is the botpose, which waits for its target pose
+     */
+    private static void pair() {
+        if (pendingPose == null || pendingTargetPose == null)
+            return;
+        long difference = pendingPoseTime - pendingTargetPoseTime;
+        if (Math.abs(difference) > VisionConstants.FRAME_MATCH_TOLERANCE * 1e6) {
+            if (difference > 0) {
+                pendingTargetPose = null;
+            } else {
+                pendingPose = null;
+                framesUnpaired.incrementAndGet();
+            }
+            return;
+        }
+        addFrame(pendingPose, pendingPoseTime, pendingTargetPose);
+        pendingPose = null;
+        pendingTargetPose = null;
+    }
+
+    /**
+     * Adds a frame to the queue, dropping the oldest one if it is full
+     * 
+     * @param limeLightPose The botpose published by the Limelight
+     * @param time          The time the botpose was published, in microseconds
+     * @param targetPose    The target pose published with the botpose
+     */
+    private static void addFrame(double[] limeLightPose, long time, double[] targetPose) {
+        // newer firmware publishes the total latency in the same array, which keeps
+        // the read atomic
+        double latency = limeLightPose.length >= 7 ? limeLightPose[6] : latencySubscriber.get();
+        double x = Constants.FIELD_WIDTH / 2 - limeLightPose[0];
+        double y = limeLightPose[1] + Constants.FIELD_HEIGHT / 2;
 
         Rotation2d robotRotation = Rotation2d.fromDegrees(limeLightPose[5]);
-        Translation2d robotTranslation = new Translation2d(limeLightPose[0], limeLightPose[1])
+        Translation2d robotTranslation = new Translation2d(x, y)
                 .minus(VisionConstants.CAMERA_OFFSET.rotateBy(robotRotation));
+        double totalLatency = (latency + VisionConstants.CAPTURE_LATENCY) / 1000;
+        double timestamp = time / 1e6 - totalLatency;
+
+        double tagDistance = targetPose.length >= 3
+                ? Math.sqrt(targetPose[0] * targetPose[0] + targetPose[1] * targetPose[1]
+                        + targetPose[2] * targetPose[2])
+                : VisionConstants.DEFAULT_TAG_DISTANCE;
 
-        return new Pair<Pose2d, Double>(
-                new Pose2d(robotTranslation, robotRotation),
-                Timer.getFPGATimestamp() - ((latency + VisionConstants.CAPTURE_LATENCY) / 1000));
+        VisionFrame frame = new VisionFrame(new Pose2d(robotTranslation, robotRotation), timestamp, totalLatency,
+                tagDistance);
+        while (!frames.offer(frame)) {
+            if (frames.poll() != null)
+                framesDropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the oldest vision frame that was not handled yet
+     * 
+     * @return The oldest unhandled frame, or null if there are none
+     */
+    public static VisionFrame pollFrame() {
+        VisionFrame frame = frames.poll();
+        if (frame != null)
+            lastLatency = Timer.getFPGATimestamp() - frame.getTimestamp();
+        return frame;
+    }
+
+    /**
+     * Gets the number of frames with a target received from the Limelight
+     * 
+     * @return The number of frames received
+     */
+    public static long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    /**
+     * Gets the number of frames dropped because the queue was full
+     * 
+     * @return The number of frames dropped
+     */
+    public static long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    /**
+     * Gets the number of botpose values discarded because no target pose was
+     * published with them
+     * 
+     * @return The number of unpaired frames
+     */
+    public static long getFramesUnpaired() {
+        return framesUnpaired.get();
+    }
+
+    /**
+     * Gets the latency of the last handled frame, from capture until it was
+     * polled by the main loop
+     * 
+     * @return The end to end latency, in seconds
+     */
+    public static double getLastLatency() {
+        return lastLatency;
     }
 }
@@ -0,0 +1,90 @@
+package frc.robot.utils;
+
+/**
+ * Zeroes a stream of gyro yaw readings in software, without waiting for the
+ * gyro. The reset applies immediately as an offset, and once the gyro
+ * acknowledged the same reset in hardware the offset is dropped on the first
+ * reading that is back near zero, after the rotation of the robot since the
+ * reset, so the corrected yaw stays continuous. Every stream of
+ * readings, like the loop inputs and the odometry samples, needs its own offset
+ * since each sees the reset at a different reading
+ */
+public class YawOffset {
+    /**
+     * The smallest reset that is also done in hardware, in degrees. A reading
+     * after a smaller reset cannot be told apart from a reading before it within
+     * the error of the rotation measured since the reset, so it is only kept in
+     * software
+     */
+    public static final double MIN_HARDWARE_RESET = 20;
+
+    private double offset;
+    private boolean pending, acknowledged;
+
+    /**
+     * Checks if a reset from a yaw should also be done in hardware
+     *
+     * @param yaw The raw yaw of the gyro, in degrees
+     * @return Whether to reset the gyro in hardware
+     */
+    public static boolean needsHardwareReset(double yaw) {
+        return Math.abs(yaw) >= MIN_HARDWARE_RESET;
+    }
+
+    /**
+     * Zeroes the yaw at the current reading
+     *
+     * @param yaw           The raw yaw of the gyro, in degrees
+     * @param hardwareReset Whether the gyro was asked to zero its yaw, in which
+     *                      case the offset is dropped once the gyro acknowledged
+     *                      it and the readings are back near zero
+     */
+    public void reset(double yaw, boolean hardwareReset) {
+        offset = yaw;
+        pending = hardwareReset;
+        acknowledged = false;
+    }
+
+    /**
+     * Reports the response of the gyro to the hardware reset. A reset the gyro
+     * did not acknowledge is kept in software
+     *
+     * @param applied Whether the gyro acknowledged the reset
+     */
+    public void acknowledge(boolean applied) {
+        if (applied) {
+            acknowledged = pending;
+        } else {
+            pending = false;
+        }
+    }
+
+    /**
+     * Corrects a raw reading, should be called for every reading of the stream in
+     * order
+     *
+     * @param yaw      The raw yaw of the gyro, in degrees
+     * @param rotation The rotation of the robot since the reset, measured apart
+     *                 from the yaw readings, like the integrated yaw rate, in
+     *                 degrees
+     * @return The zeroed yaw, in degrees
+     */
+    public double correct(double yaw, double rotation) {
+        // a reading of the zeroed gyro is the rotation since the reset, and a reading
+        // from before the gyro applied the reset is the offset and the rotation
+        if (pending && acknowledged && Math.abs(yaw - rotation) < Math.abs(yaw - offset - rotation)) {
+            offset = 0;
+            pending = false;
+        }
+        return yaw - offset;
+    }
+
+    /**
+     * Checks if the gyro did not acknowledge or apply the hardware reset yet
+     *
+     * @return Whether the reset is waiting for the gyro
+     */
+    public boolean isPending() {
+        return pending;
+    }
+}
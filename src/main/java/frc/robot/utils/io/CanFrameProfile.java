@@ -0,0 +1,185 @@
+package frc.robot.utils.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix.ErrorCode;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.Constants.CanConstants;
+
+/**
+ * The periods of the CAN frames of a device, declared once and applied at
+ * startup. Every period is set with retries and the status frames are read
+ * back to verify them. The applied profiles add up to an estimate of the bus
+ * utilization
+ */
+public class CanFrameProfile {
+    private static double busFramesPerSecond;
+    private static int configFailures;
+
+    /**
+     * Sets the period of a frame
+     */
+    @FunctionalInterface
+    public interface PeriodSetter {
+        /**
+         * Sets the period of the frame
+         *
+         * @param period    The period, in milliseconds
+         * @param timeoutMs The time to wait for the device to confirm, in
+         *                  milliseconds
+         * @return The error of the call
+         */
+        ErrorCode set(int period, int timeoutMs);
+    }
+
+    private static class Frame {
+        private final String name;
+        private final int period;
+        private final PeriodSetter setter;
+        private final IntUnaryOperator getter;
+
+        private Frame(String name, int period, PeriodSetter setter, IntUnaryOperator getter) {
+            this.name = name;
+            this.period = period;
+            this.setter = setter;
+            this.getter = getter;
+        }
+    }
+
+    private final String device;
+    private final List<Frame> frames;
+
+    /**
+     * Creates a new empty CanFrameProfile
+     *
+     * @param device The name of the device, for the warnings
+     */
+    public CanFrameProfile(String device) {
+        this.device = device;
+        frames = new ArrayList<>();
+    }
+
+    /**
+     * Adds a status frame, verified by reading its period back
+     *
+     * @param name   The name of the frame, for the warnings
+     * @param period The period, in milliseconds
+     * @param setter Sets the period of the frame
+     * @param getter Reads the period of the frame with a timeout in
+     *               milliseconds
+     * @return This profile, for chaining
+     */
+    public CanFrameProfile status(String name, int period, PeriodSetter setter, IntUnaryOperator getter) {
+        frames.add(new Frame(name, period, setter, getter));
+        return this;
+    }
+
+    /**
+     * Adds a control frame, which cannot be read back
+     *
+     * @param name   The name of the frame, for the warnings
+     * @param period The period, in milliseconds
+     * @param setter Sets the period of the frame
+     * @return This profile, for chaining
+     */
+    public CanFrameProfile control(String name, int period, PeriodSetter setter) {
+        frames.add(new Frame(name, period, setter, null));
+        return this;
+    }
+
+    /**
+     * Gets the number of frames the device sends and receives per second
+     *
+     * @return The frames per second
+     */
+    public double getFramesPerSecond() {
+        double framesPerSecond = 0;
+        for (Frame frame : frames) {
+            framesPerSecond += 1000.0 / frame.period;
+        }
+        return framesPerSecond;
+    }
+
+    /**
+     * Sets the periods of all the frames, and adds them to the bus utilization
+     * estimate. A frame that could not be set is reported as a warning
+     *
+     * @return Whether all the frames were set and verified
+     */
+    public boolean apply() {
+        boolean applied = true;
+        for (Frame frame : frames) {
+            if (!applyFrame(frame)) {
+                DriverStation.reportWarning(device + ": could not set " + frame.name + " to " + frame.period
+                        + " ms", false);
+                applied = false;
+            }
+        }
+        addToBus(getFramesPerSecond(), applied ? 0 : 1);
+        return applied;
+    }
+
+    /**
+     * Sets and verifies the period of a frame, retrying on failure
+     */
+    private static boolean applyFrame(Frame frame) {
+        for (int attempt = 0; attempt < CanConstants.CONFIG_ATTEMPTS; attempt++) {
+            if (frame.setter.set(frame.period, CanConstants.CONFIG_TIMEOUT) != ErrorCode.OK)
+                continue;
+            if (frame.getter == null || frame.getter.applyAsInt(CanConstants.CONFIG_TIMEOUT) == frame.period)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs a configuration call, retrying on failure. A call that keeps failing
+     * is reported as a warning
+     *
+     * @param device The name of the device, for the warning
+     * @param name   The name of the configuration, for the warning
+     * @param config The configuration call
+     * @return Whether the call succeeded
+     */
+    public static boolean configure(String device, String name, Supplier<ErrorCode> config) {
+        ErrorCode error = ErrorCode.OK;
+        for (int attempt = 0; attempt < CanConstants.CONFIG_ATTEMPTS; attempt++) {
+            error = config.get();
+            if (error == ErrorCode.OK)
+                return true;
+        }
+        DriverStation.reportWarning(device + ": could not configure " + name + ", " + error, false);
+        addToBus(0, 1);
+        return false;
+    }
+
+    /**
+     * Adds an applied profile or a failed configuration to the bus totals
+     */
+    private static synchronized void addToBus(double framesPerSecond, int failures) {
+        busFramesPerSecond += framesPerSecond;
+        configFailures += failures;
+    }
+
+    /**
+     * Gets an estimate of the CAN bus utilization by the applied profiles
+     *
+     * @return The utilization, in percent
+     */
+    public static synchronized double getBusUtilization() {
+        return busFramesPerSecond * CanConstants.FRAME_BITS / CanConstants.BITRATE * 100;
+    }
+
+    /**
+     * Gets the number of devices that failed to configure
+     *
+     * @return The number of failed profiles and configuration calls
+     */
+    public static synchronized int getConfigFailures() {
+        return configFailures;
+    }
+}
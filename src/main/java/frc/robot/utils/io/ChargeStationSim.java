@@ -0,0 +1,94 @@
+package frc.robot.utils.io;
+
+import frc.robot.utils.Rectangle;
+
+/**
+ * Simulates the charge station as a platform hinged at its center, tilted by
+ * the weight of the robot on it and damped by its hinge. Only the tilt along
+ * the field x axis is modeled, and the robot counts as on the station while
+ * its center is over it
+ */
+public class ChargeStationSim {
+    private static final double GRAVITY = 9.81; // meters per second squared
+    private static final double ROBOT_MASS = 55; // kilograms, with bumpers and battery
+    private static final double INERTIA = 40; // kilograms meters squared, of the platform around its hinge
+    private static final double STIFFNESS = 600; // newton meters per radian, of the hinge springs
+    private static final double DAMPING = 90; // newton meters seconds per radian, of the hinge
+    private static final double MAX_TILT = Math.toRadians(15); // the platform rests on the ground
+
+    private final double minX, minY, maxX, maxY, centerX;
+    private double tilt, tiltRate;
+
+    /**
+     * Creates a new ChargeStationSim, level
+     *
+     * @param area The area of the charge station with its ramps, the hinge is at
+     *             its center
+     */
+    public ChargeStationSim(Rectangle area) {
+        minX = area.getBottomLeft().getX();
+        minY = area.getBottomLeft().getY();
+        maxX = area.getTopRight().getX();
+        maxY = area.getTopRight().getY();
+        centerX = area.getCenter().getX();
+    }
+
+    /**
+     * Advances the simulation
+     *
+     * @param dt The time to advance, in seconds
+     * @param x  The x of the robot center, in meters
+     * @param y  The y of the robot center, in meters
+     */
+    public void step(double dt, double x, double y) {
+        double torque = -STIFFNESS * tilt - DAMPING * tiltRate;
+        if (isOn(x, y))
+            // the weight of the robot pushes its side of the platform down
+            torque -= ROBOT_MASS * GRAVITY * (x - centerX) * Math.cos(tilt);
+        tiltRate += torque / INERTIA * dt;
+        tilt += tiltRate * dt;
+        if (Math.abs(tilt) >= MAX_TILT) {
+            tilt = Math.copySign(MAX_TILT, tilt);
+            if (tiltRate * tilt > 0)
+                tiltRate = 0;
+        }
+    }
+
+    /**
+     * Checks if the robot is on the station
+     *
+     * @param x The x of the robot center, in meters
+     * @param y The y of the robot center, in meters
+     * @return Whether the robot center is over the station or its ramps
+     */
+    public boolean isOn(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Gets the tilt of the platform, positive when its high x side is up
+     *
+     * @return The tilt, in degrees
+     */
+    public double getTilt() {
+        return Math.toDegrees(tilt);
+    }
+
+    /**
+     * Gets the angular velocity of the platform
+     *
+     * @return The tilt rate, in degrees per second
+     */
+    public double getTiltRate() {
+        return Math.toDegrees(tiltRate);
+    }
+
+    /**
+     * Checks if the platform is level, as judged at the end of a match
+     *
+     * @return Whether the tilt is within 2.5 degrees
+     */
+    public boolean isLevel() {
+        return Math.abs(getTilt()) <= 2.5;
+    }
+}
@@ -0,0 +1,176 @@
+package frc.robot.utils.io;
+
+import java.util.concurrent.Executor;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants;
+import frc.robot.Constants.LogConstants;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utils.ModuleStateManager;
+import frc.robot.utils.PathPlanningService;
+import frc.robot.utils.VisionFrame;
+import frc.robot.utils.VisionUtils;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * Everything the chassis gets from outside of itself, the hardware, the vision
+ * frames, the clock, and the path planning and configuration threads. Switching
+ * it runs the same chassis on the robot, in simulation or in a replay of a
+ * recorded match
+ */
+public class ChassisIO {
+    private static ChassisIO override;
+
+    /** The gyro */
+    public final GyroIO gyro;
+    /** The modules, in order of front left, front right, back left, back right */
+    public final SwerveModuleIO[] modules;
+    /** Polls the next vision frame, returns null when there are none */
+    public final Supplier<VisionFrame> vision;
+    /** The time, in seconds */
+    public final DoubleSupplier clock;
+    /** Generates the trajectories of the semi autonomous commands */
+    public final PathPlanningService pathPlanning;
+    /** Runs the configuration writes of the modules and the yaw resets of the gyro */
+    public final Executor configWriter;
+    /** Whether the odometry is sampled on its own thread, otherwise once per loop */
+    public final boolean odometryThread;
+    /** The recorded odometry samples, or null to sample the modules */
+    public final OdometryIO odometry;
+    /** The physics simulation, or null when not simulating */
+    public final SwerveSimulation simulation;
+
+    /**
+     * Creates a new ChassisIO
+     * 
+     * @param gyro           The gyro
+     * @param modules        The modules, in order of front left, front right,
+     *                       back left, back right
+     * @param vision         Polls the next vision frame
+     * @param clock          The time, in seconds
+     * @param pathPlanning   Generates the trajectories
+     * @param configWriter   Runs the configuration writes of the modules and
+     *                       the yaw resets of the gyro
+     * @param odometryThread Whether to sample the odometry on its own thread
+     * @param odometry       The recorded odometry samples, or null to sample
+     *                       the modules
+     * @param simulation     The physics simulation, or null
+     */
+    public ChassisIO(GyroIO gyro, SwerveModuleIO[] modules, Supplier<VisionFrame> vision, DoubleSupplier clock,
+            PathPlanningService pathPlanning, Executor configWriter, boolean odometryThread, OdometryIO odometry,
+            SwerveSimulation simulation) {
+        this.gyro = gyro;
+        this.modules = modules;
+        this.vision = vision;
+        this.clock = clock;
+        this.pathPlanning = pathPlanning;
+        this.configWriter = configWriter;
+        this.odometryThread = odometryThread;
+        this.odometry = odometry;
+        this.simulation = simulation;
+    }
+
+    /**
+     * Creates the IO of the real robot, and starts listening to the Limelight
+     * 
+     * @return The IO of the real robot
+     */
+    public static ChassisIO real() {
+        VisionUtils.start();
+        return new ChassisIO(new GyroIOPigeon(SwerveConstants.GYRO_ID),
+                new SwerveModuleIO[] {
+                        new SwerveModuleIOTalonFX(SwerveModuleConstants.FRONT_LEFT),
+                        new SwerveModuleIOTalonFX(SwerveModuleConstants.FRONT_RIGHT),
+                        new SwerveModuleIOTalonFX(SwerveModuleConstants.BACK_LEFT),
+                        new SwerveModuleIOTalonFX(SwerveModuleConstants.BACK_RIGHT)
+                },
+                VisionUtils::pollFrame, Timer::getFPGATimestamp, new PathPlanningService(),
+                ModuleStateManager.createConfigWriter(), true, null, null);
+    }
+
+    /**
+     * Creates the IO of a physics simulation, the Limelight is still read if one
+     * is publishing, with its frames moved onto the simulation clock. The
+     * simulated modules are configured on the calling thread
+     * 
+     * @param simulation The simulation
+     * @return The IO of the simulation
+     */
+    public static ChassisIO simulation(SwerveSimulation simulation) {
+        VisionUtils.start();
+        return new ChassisIO(simulation.getGyro(), simulation.getModules(), pollVision(simulation::getTime),
+                simulation::getTime, new PathPlanningService(), Runnable::run, false, null, simulation);
+    }
+
+    /**
+     * Polls the Limelight with the timestamps of the frames moved from the FPGA
+     * time onto another clock, keeping the age of every frame
+     * 
+     * @param clock The clock of the chassis, in seconds
+     * @return Polls the next vision frame
+     */
+    private static Supplier<VisionFrame> pollVision(DoubleSupplier clock) {
+        return () -> {
+            VisionFrame frame = VisionUtils.pollFrame();
+            if (frame == null)
+                return null;
+            double age = Timer.getFPGATimestamp() - frame.getTimestamp();
+            return new VisionFrame(frame.getPose(), clock.getAsDouble() - age, frame.getLatency(),
+                    frame.getTagDistance());
+        };
+    }
+
+    /**
+     * Creates the IO of a replay of a recorded match. The odometry is updated
+     * from the recorded samples, and trajectories are generated and the modules
+     * configured on the calling thread so the replay is deterministic
+     * 
+     * @param source The replayed log
+     * @return The IO of the replay
+     */
+    public static ChassisIO replay(ReplaySource source) {
+        SwerveModuleIO[] modules = new SwerveModuleIO[Chassis.MODULE_NAMES.length];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new SwerveModuleIOReplay(source, "Chassis/" + Chassis.MODULE_NAMES[i] + "/Inputs");
+        }
+        GyroIO gyro = new GyroIOReplay(source, "Chassis/Gyro");
+        int gyroTimestamp = source.field("Chassis/Gyro/Timestamp");
+        return new ChassisIO(gyro, modules,
+                new VisionIOReplay(source, "Chassis/Vision", LogConstants.MAX_VISION_FRAMES),
+                () -> source.get(gyroTimestamp), new PathPlanningService(Runnable::run), Runnable::run, false,
+                new OdometryIOReplay(source, "Chassis/Odometry", Chassis.MODULE_NAMES,
+                        LogConstants.MAX_ODOMETRY_SAMPLES),
+                null);
+    }
+
+    /**
+     * Sets the IO the next chassis is created with, instead of the one chosen by
+     * {@link #create()}
+     * 
+     * @param io The IO, or null to go back to choosing by the runtime
+     */
+    public static void setOverride(ChassisIO io) {
+        override = io;
+    }
+
+    /**
+     * Creates the IO for the current runtime, the real robot or a physics
+     * simulation, unless an override is set
+     * 
+     * @return The IO
+     */
+    public static ChassisIO create() {
+        if (override != null)
+            return override;
+        if (RobotBase.isReal())
+            return real();
+        SwerveSimulation simulation = new SwerveSimulation();
+        simulation.setChargeStation(new ChargeStationSim(Constants.RAMP));
+        return simulation(simulation);
+    }
+}
@@ -0,0 +1,85 @@
+package frc.robot.utils.io;
+
+import frc.robot.utils.logging.BinaryLog;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * The hardware of the gyro, so the chassis can run on the robot, in simulation
+ * or in benchmarks
+ */
+public interface GyroIO {
+    /**
+     * The readings of the gyro, sampled together once per loop
+     */
+    public static class Inputs {
+        /** The names of the fields in the binary log, in the order they are logged */
+        public static final String[] FIELDS = { "Yaw", "Pitch", "Roll", "Rate X", "Rate Y", "Rate Z",
+                "Timestamp" };
+
+        /** The fused heading, counterclockwise positive, in degrees */
+        public double yaw;
+        /** The pitch, in degrees */
+        public double pitch;
+        /** The roll, in degrees */
+        public double roll;
+        /** The angular velocities around the x, y and z axes, in degrees per second */
+        public final double[] rates = new double[3];
+        /** The time the readings were sampled, in seconds */
+        public double timestamp;
+
+        /**
+         * Records the inputs in the binary log
+         * 
+         * @param field The first of the fields registered with {@link #FIELDS}
+         */
+        public void log(int field) {
+            BinaryLog.set(field, yaw);
+            BinaryLog.set(field + 1, pitch);
+            BinaryLog.set(field + 2, roll);
+            for (int i = 0; i < rates.length; i++) {
+                BinaryLog.set(field + 3 + i, rates[i]);
+            }
+            BinaryLog.set(field + 6, timestamp);
+        }
+
+        /**
+         * Reads the inputs from the current record of a replayed log
+         * 
+         * @param source The replayed log
+         * @param field  The first of the fields registered with {@link #FIELDS}
+         */
+        public void replay(ReplaySource source, int field) {
+            yaw = source.get(field);
+            pitch = source.get(field + 1);
+            roll = source.get(field + 2);
+            for (int i = 0; i < rates.length; i++) {
+                rates[i] = source.get(field + 3 + i);
+            }
+            timestamp = source.get(field + 6);
+        }
+    }
+
+    /**
+     * Samples all the readings into the inputs
+     * 
+     * @param inputs The inputs to update
+     */
+    void updateInputs(Inputs inputs);
+
+    /**
+     * Reads the fused heading directly, safe to call from the odometry thread
+     * 
+     * @return The fused heading, in degrees
+     */
+    double readYaw();
+
+    /**
+     * Sets the heading of the gyro, retrying until the gyro acknowledges it. The
+     * readings change with the next status frame of the gyro. Waits for the CAN
+     * responses, so it must not run on the robot loop
+     * 
+     * @param yaw The new heading, in degrees
+     * @return Whether the gyro acknowledged the new heading
+     */
+    boolean setYaw(double yaw);
+}
@@ -0,0 +1,81 @@
+package frc.robot.utils.io;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.sensors.PigeonIMU;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CanConstants;
+
+/**
+ * A PigeonIMU gyro
+ */
+public class GyroIOPigeon implements GyroIO {
+    private final PigeonIMU gyro;
+
+    /**
+     * Creates a new GyroIOPigeon, and sets its frame periods
+     * 
+     * @param id The CAN ID of the gyro
+     */
+    public GyroIOPigeon(int id) {
+        gyro = new PigeonIMU(id);
+        frameProfile().apply();
+    }
+
+    /**
+     * Creates the frame profile of the gyro. The fused heading is sampled by the
+     * odometry thread, the pitch, the roll and the rates once per loop
+     * 
+     * @return The profile, not applied yet
+     */
+    private CanFrameProfile frameProfile() {
+        CanFrameProfile profile = new CanFrameProfile("Pigeon " + gyro.getDeviceID());
+        addStatusFrame(profile, PigeonIMU_StatusFrame.CondStatus_6_SensorFusion, CanConstants.ODOMETRY_PERIOD);
+        addStatusFrame(profile, PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, CanConstants.LOOP_PERIOD);
+        addStatusFrame(profile, PigeonIMU_StatusFrame.BiasedStatus_2_Gyro, CanConstants.LOOP_PERIOD);
+        addStatusFrame(profile, PigeonIMU_StatusFrame.CondStatus_1_General, CanConstants.STATUS_PERIOD);
+        PigeonIMU_StatusFrame[] unused = {
+                PigeonIMU_StatusFrame.CondStatus_2_GeneralCompass, PigeonIMU_StatusFrame.CondStatus_3_GeneralAccel,
+                PigeonIMU_StatusFrame.CondStatus_10_SixDeg_Quat, PigeonIMU_StatusFrame.CondStatus_11_GyroAccum,
+                PigeonIMU_StatusFrame.RawStatus_4_Mag, PigeonIMU_StatusFrame.BiasedStatus_4_Mag,
+                PigeonIMU_StatusFrame.BiasedStatus_6_Accel
+        };
+        for (PigeonIMU_StatusFrame frame : unused) {
+            addStatusFrame(profile, frame, CanConstants.UNUSED_PERIOD);
+        }
+        return profile;
+    }
+
+    /**
+     * Adds a status frame of the gyro to a profile
+     */
+    private void addStatusFrame(CanFrameProfile profile, PigeonIMU_StatusFrame frame, int period) {
+        profile.status(frame.name(), period, (p, timeout) -> gyro.setStatusFramePeriod(frame, p, timeout),
+                (timeout) -> gyro.getStatusFramePeriod(frame, timeout));
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.timestamp = Timer.getFPGATimestamp();
+        inputs.yaw = gyro.getFusedHeading();
+        inputs.pitch = gyro.getPitch();
+        inputs.roll = gyro.getRoll();
+        gyro.getRawGyro(inputs.rates);
+    }
+
+    @Override
+    public double readYaw() {
+        return gyro.getFusedHeading();
+    }
+
+    @Override
+    public boolean setYaw(double yaw) {
+        for (int attempt = 0; attempt < CanConstants.CONFIG_ATTEMPTS; attempt++) {
+            if (gyro.setYaw(yaw, CanConstants.CONFIG_TIMEOUT) == ErrorCode.OK
+                    && gyro.setFusedHeading(yaw, CanConstants.CONFIG_TIMEOUT) == ErrorCode.OK)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package frc.robot.utils.io;
+
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * A gyro that reads from a recorded log
+ */
+public class GyroIOReplay implements GyroIO {
+    private final ReplaySource source;
+    private final int field;
+
+    /**
+     * Creates a new GyroIOReplay
+     * 
+     * @param source The replayed log
+     * @param prefix The prefix the inputs of the gyro were logged with
+     */
+    public GyroIOReplay(ReplaySource source, String prefix) {
+        this.source = source;
+        field = source.field(prefix + "/" + Inputs.FIELDS[0]);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.replay(source, field);
+    }
+
+    @Override
+    public double readYaw() {
+        return source.get(field);
+    }
+
+    @Override
+    public boolean setYaw(double yaw) {
+        // the recorded heading already includes any reset made in the match
+        return true;
+    }
+}
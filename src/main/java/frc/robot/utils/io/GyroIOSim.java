@@ -0,0 +1,69 @@
+package frc.robot.utils.io;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A simulated gyro, moved by {@link SwerveSimulation}
+ */
+public class GyroIOSim implements GyroIO {
+    private final DoubleSupplier clock;
+    private double yaw, pitch, roll;
+    private double pitchRate, rollRate, yawRate;
+
+    /**
+     * Creates a new GyroIOSim
+     * 
+     * @param clock The simulation time, in seconds
+     */
+    public GyroIOSim(DoubleSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Rotates the simulated robot around its vertical axis
+     * 
+     * @param degrees The rotation, in degrees
+     * @param rate    The angular velocity, in degrees per second
+     */
+    public void addYaw(double degrees, double rate) {
+        yaw += degrees;
+        yawRate = rate;
+    }
+
+    /**
+     * Sets the tilt of the simulated robot
+     * 
+     * @param pitch     The pitch, in degrees
+     * @param roll      The roll, in degrees
+     * @param pitchRate The pitch angular velocity, in degrees per second
+     * @param rollRate  The roll angular velocity, in degrees per second
+     */
+    public void setTilt(double pitch, double roll, double pitchRate, double rollRate) {
+        this.pitch = pitch;
+        this.roll = roll;
+        this.pitchRate = pitchRate;
+        this.rollRate = rollRate;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.timestamp = clock.getAsDouble();
+        inputs.yaw = yaw;
+        inputs.pitch = pitch;
+        inputs.roll = roll;
+        inputs.rates[0] = rollRate;
+        inputs.rates[1] = pitchRate;
+        inputs.rates[2] = yawRate;
+    }
+
+    @Override
+    public double readYaw() {
+        return yaw;
+    }
+
+    @Override
+    public boolean setYaw(double yaw) {
+        this.yaw = yaw;
+        return true;
+    }
+}
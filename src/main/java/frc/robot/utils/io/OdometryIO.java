@@ -0,0 +1,92 @@
+package frc.robot.utils.io;
+
+/**
+ * The samples of the module positions and the gyro heading the odometry is
+ * updated from, taken by the odometry thread or read from a recorded log
+ */
+public interface OdometryIO {
+    /**
+     * Gets the names of the fields of a sample in the binary log, in the order
+     * they are logged
+     *
+     * @param modules The names of the modules
+     * @return The timestamp and the yaw, followed by the distance and the angle
+     *         of every module
+     */
+    static String[] sampleFields(String[] modules) {
+        String[] fields = new String[2 + modules.length * 2];
+        fields[0] = "Timestamp";
+        fields[1] = "Yaw";
+        for (int i = 0; i < modules.length; i++) {
+            fields[2 + i * 2] = modules[i] + " Distance";
+            fields[3 + i * 2] = modules[i] + " Angle";
+        }
+        return fields;
+    }
+
+    /**
+     * Samples the sensors once on the calling thread, when the odometry thread
+     * is not started
+     */
+    void sample();
+
+    /**
+     * Moves the samples taken since the last call to the getters
+     *
+     * @return The number of samples, accessible with the getters by index
+     */
+    int readSamples();
+
+    /**
+     * Discards all the samples that were not read yet
+     */
+    void clear();
+
+    /**
+     * Gets the timestamp of a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @return The timestamp of the sample, in seconds
+     */
+    double getTimestamp(int sample);
+
+    /**
+     * Gets the raw gyro heading of a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @return The gyro heading, in degrees
+     */
+    double getYaw(int sample);
+
+    /**
+     * Gets the distance of a module in a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @param module The index of the module
+     * @return The distance the module has traveled, in meters
+     */
+    double getDistance(int sample, int module);
+
+    /**
+     * Gets the angle of a module in a read sample
+     *
+     * @param sample The index of the sample, from the last {@link #readSamples()}
+     * @param module The index of the module
+     * @return The angle of the module, between 0 and 360 degrees
+     */
+    double getAngle(int sample, int module);
+
+    /**
+     * Gets the number of samples skipped because they repeated the last one
+     *
+     * @return The number of repeated samples
+     */
+    long getRepeatedSamples();
+
+    /**
+     * Gets the number of samples dropped because the main loop fell behind
+     *
+     * @return The number of dropped samples
+     */
+    long getDroppedSamples();
+}
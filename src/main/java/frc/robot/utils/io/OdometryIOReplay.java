@@ -0,0 +1,81 @@
+package frc.robot.utils.io;
+
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * Reads the odometry samples recorded in each loop of a log, in place of the
+ * odometry thread
+ */
+public class OdometryIOReplay implements OdometryIO {
+    private final ReplaySource source;
+    private final int countField;
+    private final int[] sampleFields;
+    private int record;
+
+    /**
+     * Creates a new OdometryIOReplay
+     *
+     * @param source     The replayed log
+     * @param prefix     The prefix the odometry samples were logged with
+     * @param modules    The names of the modules
+     * @param maxSamples The number of samples logged per loop
+     */
+    public OdometryIOReplay(ReplaySource source, String prefix, String[] modules, int maxSamples) {
+        this.source = source;
+        countField = source.field(prefix + "/Samples");
+        String first = OdometryIO.sampleFields(modules)[0];
+        sampleFields = new int[maxSamples];
+        for (int i = 0; i < maxSamples; i++) {
+            sampleFields[i] = source.field(prefix + "/" + i + "/" + first);
+        }
+        record = -1;
+    }
+
+    @Override
+    public void sample() {
+        // the samples were taken in the recorded match
+    }
+
+    @Override
+    public int readSamples() {
+        if (source.getRecord() == record)
+            return 0;
+        record = source.getRecord();
+        return (int) source.get(countField);
+    }
+
+    @Override
+    public void clear() {
+        // the samples discarded in the recorded match were never logged
+    }
+
+    @Override
+    public double getTimestamp(int sample) {
+        return source.get(sampleFields[sample]);
+    }
+
+    @Override
+    public double getYaw(int sample) {
+        return source.get(sampleFields[sample] + 1);
+    }
+
+    @Override
+    public double getDistance(int sample, int module) {
+        return source.get(sampleFields[sample] + 2 + module * 2);
+    }
+
+    @Override
+    public double getAngle(int sample, int module) {
+        return source.get(sampleFields[sample] + 3 + module * 2);
+    }
+
+    @Override
+    public long getRepeatedSamples() {
+        return 0;
+    }
+
+    @Override
+    public long getDroppedSamples() {
+        return 0;
+    }
+}
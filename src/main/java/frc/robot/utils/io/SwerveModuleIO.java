@@ -0,0 +1,126 @@
+package frc.robot.utils.io;
+
+import frc.robot.utils.logging.BinaryLog;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * The hardware of a swerve module, so the module logic can run on the robot, in
+ * simulation or in benchmarks
+ */
+public interface SwerveModuleIO {
+    /**
+     * The sensor readings of a swerve module, sampled together once per loop
+     */
+    public static class Inputs {
+        /** The names of the fields in the binary log, in the order they are logged */
+        public static final String[] FIELDS = { "Absolute Angle", "Drive Position", "Drive Velocity",
+                "Steer Position", "Timestamp" };
+
+        /** The reading of the absolute encoder, without the offset, in degrees */
+        public double absoluteAngle;
+        /** The distance the drive wheel has traveled, in meters */
+        public double drivePosition;
+        /** The velocity of the drive wheel, in meters per second */
+        public double driveVelocity;
+        /** The position of the steer motor's integrated sensor, in degrees of the module */
+        public double steerPosition;
+        /** The time the readings were sampled, in seconds */
+        public double timestamp;
+
+        /**
+         * Records the inputs in the binary log
+         * 
+         * @param field The first of the fields registered with {@link #FIELDS}
+         */
+        public void log(int field) {
+            BinaryLog.set(field, absoluteAngle);
+            BinaryLog.set(field + 1, drivePosition);
+            BinaryLog.set(field + 2, driveVelocity);
+            BinaryLog.set(field + 3, steerPosition);
+            BinaryLog.set(field + 4, timestamp);
+        }
+
+        /**
+         * Reads the inputs from the current record of a replayed log
+         * 
+         * @param source The replayed log
+         * @param field  The first of the fields registered with {@link #FIELDS}
+         */
+        public void replay(ReplaySource source, int field) {
+            absoluteAngle = source.get(field);
+            drivePosition = source.get(field + 1);
+            driveVelocity = source.get(field + 2);
+            steerPosition = source.get(field + 3);
+            timestamp = source.get(field + 4);
+        }
+    }
+
+    /**
+     * Samples all the sensors into the inputs
+     * 
+     * @param inputs The inputs to update
+     */
+    void updateInputs(Inputs inputs);
+
+    /**
+     * Reads the distance of the drive wheel directly, safe to call from the
+     * odometry thread
+     * 
+     * @return The distance the drive wheel has traveled, in meters
+     */
+    double readDrivePosition();
+
+    /**
+     * Reads the absolute encoder directly, safe to call from the odometry thread
+     * 
+     * @return The reading of the absolute encoder, without the offset, in degrees
+     */
+    double readAbsoluteAngle();
+
+    /**
+     * Gets the number of sensor reads made since the last call, on any thread
+     * 
+     * @return The number of sensor reads
+     */
+    default int getAndResetReadCount() {
+        return 0;
+    }
+
+    /**
+     * Runs the drive motor in closed loop velocity control
+     * 
+     * @param velocity    The target velocity, in meters per second
+     * @param feedforward The feedforward, in percent output
+     */
+    void setDriveVelocity(double velocity, double feedforward);
+
+    /**
+     * Runs the drive motor at a constant output
+     * 
+     * @param power The output, between -1 and 1
+     */
+    void setDrivePower(double power);
+
+    /**
+     * Runs the steer motor in closed loop position control
+     * 
+     * @param position    The target position of the integrated sensor, in degrees
+     *                    of the module
+     * @param feedforward The feedforward, in percent output
+     */
+    void setSteerPosition(double position, double feedforward);
+
+    /**
+     * Runs the steer motor at a constant output
+     * 
+     * @param power The output, between -1 and 1
+     */
+    void setSteerPower(double power);
+
+    /**
+     * Sets the neutral mode of both motors
+     * 
+     * @param isBreak Whether the motors should be in brake mode or in coast mode
+     */
+    void setNeutralMode(boolean isBreak);
+}
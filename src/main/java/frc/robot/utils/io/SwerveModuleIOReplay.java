@@ -0,0 +1,58 @@
+package frc.robot.utils.io;
+
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * A swerve module that reads its sensors from a recorded log. Outputs are
+ * ignored, the module moves as it did in the recorded match
+ */
+public class SwerveModuleIOReplay implements SwerveModuleIO {
+    private final ReplaySource source;
+    private final int field;
+
+    /**
+     * Creates a new SwerveModuleIOReplay
+     * 
+     * @param source The replayed log
+     * @param prefix The prefix the inputs of the module were logged with
+     */
+    public SwerveModuleIOReplay(ReplaySource source, String prefix) {
+        this.source = source;
+        field = source.field(prefix + "/" + Inputs.FIELDS[0]);
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.replay(source, field);
+    }
+
+    @Override
+    public double readDrivePosition() {
+        return source.get(field + 1);
+    }
+
+    @Override
+    public double readAbsoluteAngle() {
+        return source.get(field);
+    }
+
+    @Override
+    public void setDriveVelocity(double velocity, double feedforward) {
+    }
+
+    @Override
+    public void setDrivePower(double power) {
+    }
+
+    @Override
+    public void setSteerPosition(double position, double feedforward) {
+    }
+
+    @Override
+    public void setSteerPower(double power) {
+    }
+
+    @Override
+    public void setNeutralMode(boolean isBreak) {
+    }
+}
@@ -0,0 +1,143 @@
+package frc.robot.utils.io;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.MathUtil;
+import frc.robot.Constants.SwerveModuleConstants;
+
+/**
+ * A physics simulated swerve module. The drive wheel follows the
+ * {@link SwerveModuleConstants#VELOCITY_KS}, {@link SwerveModuleConstants#VELOCITY_KV}
+ * and {@link SwerveModuleConstants#VELOCITY_KA} model, and the steering follows
+ * the free speed of the motor through {@link SwerveModuleConstants#GEAR_RATIO_ANGLE}.
+ * Time only advances when {@link #step(double)} is called, so it can run faster
+ * than real time
+ */
+public class SwerveModuleIOSim implements SwerveModuleIO {
+    /** The proportional gain of the TalonFX velocity loop, in percent output per meter per second */
+    private static final double DRIVE_KP = SwerveModuleConstants.VELOCITY_KP * SwerveModuleConstants.PULSE_PER_METER
+            / 10 / 1023;
+    /** The proportional gain of the TalonFX position loop, in percent output per degree */
+    private static final double STEER_KP = SwerveModuleConstants.ANGLE_KP * SwerveModuleConstants.PULSE_PER_DEGREE
+            / 1023;
+
+    private final double angleOffset;
+    private final DoubleSupplier clock;
+    private double drivePosition, driveVelocity, steerAngle;
+    private boolean driveClosedLoop, steerClosedLoop;
+    private double driveTarget, driveFeedforward, drivePower;
+    private double steerTarget, steerFeedforward, steerPower;
+    private boolean isBreak;
+
+    /**
+     * Creates a new SwerveModuleIOSim
+     * 
+     * @param constants The constants for the module, the absolute encoder reads
+     *                  its offset when the module is at 0 degrees
+     * @param clock     The simulation time, in seconds
+     */
+    public SwerveModuleIOSim(SwerveModuleConstants constants, DoubleSupplier clock) {
+        angleOffset = constants.angleOffset;
+        this.clock = clock;
+        isBreak = true;
+    }
+
+    /**
+     * Advances the simulation of the module
+     * 
+     * @param dt The time to advance, in seconds
+     */
+    public void step(double dt) {
+        double drive = MathUtil.clamp(
+                driveClosedLoop ? driveFeedforward + DRIVE_KP * (driveTarget - driveVelocity) : drivePower, -1, 1);
+        if (Math.abs(driveVelocity) < 1e-3 && Math.abs(drive) <= SwerveModuleConstants.VELOCITY_KS) {
+            driveVelocity = 0;
+        } else {
+            double sign = driveVelocity != 0 ? Math.signum(driveVelocity) : Math.signum(drive);
+            double friction = SwerveModuleConstants.VELOCITY_KS * sign;
+            // in coast mode with no output the motor does not brake by back EMF
+            double acceleration = (isBreak || drive != 0)
+                    ? (drive - friction - SwerveModuleConstants.VELOCITY_KV * driveVelocity)
+                            / SwerveModuleConstants.VELOCITY_KA
+                    : -friction / SwerveModuleConstants.VELOCITY_KA;
+            double velocity = driveVelocity + acceleration * dt;
+            // friction can stop the wheel but not reverse it
+            if (drive == 0 && Math.signum(velocity) != Math.signum(driveVelocity))
+                velocity = 0;
+            driveVelocity = velocity;
+        }
+        drivePosition += driveVelocity * dt;
+
+        double steer = MathUtil.clamp(
+                steerClosedLoop ? steerFeedforward + STEER_KP * (steerTarget - steerAngle) : steerPower, -1, 1);
+        steerAngle += steer * SwerveModuleConstants.STEER_FREE_SPEED * dt;
+    }
+
+    /**
+     * Gets the angle of the module
+     * 
+     * @return The angle of the module, in degrees (not normalized)
+     */
+    public double getAngle() {
+        return steerAngle;
+    }
+
+    /**
+     * Gets the velocity of the drive wheel
+     * 
+     * @return The velocity, in meters per second
+     */
+    public double getVelocity() {
+        return driveVelocity;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.timestamp = clock.getAsDouble();
+        inputs.absoluteAngle = readAbsoluteAngle();
+        inputs.drivePosition = drivePosition;
+        inputs.driveVelocity = driveVelocity;
+        inputs.steerPosition = steerAngle;
+    }
+
+    @Override
+    public double readDrivePosition() {
+        return drivePosition;
+    }
+
+    @Override
+    public double readAbsoluteAngle() {
+        return ((steerAngle + angleOffset) % 360 + 360) % 360;
+    }
+
+    @Override
+    public void setDriveVelocity(double velocity, double feedforward) {
+        driveClosedLoop = true;
+        driveTarget = velocity;
+        driveFeedforward = feedforward;
+    }
+
+    @Override
+    public void setDrivePower(double power) {
+        driveClosedLoop = false;
+        drivePower = power;
+    }
+
+    @Override
+    public void setSteerPosition(double position, double feedforward) {
+        steerClosedLoop = true;
+        steerTarget = position;
+        steerFeedforward = feedforward;
+    }
+
+    @Override
+    public void setSteerPower(double power) {
+        steerClosedLoop = false;
+        steerPower = power;
+    }
+
+    @Override
+    public void setNeutralMode(boolean isBreak) {
+        this.isBreak = isBreak;
+    }
+}
@@ -0,0 +1,185 @@
+package frc.robot.utils.io;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ctre.phoenix.motorcontrol.ControlFrame;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.ctre.phoenix.motorcontrol.can.TalonFXConfiguration;
+import com.ctre.phoenix.sensors.CANCoder;
+import com.ctre.phoenix.sensors.CANCoderConfiguration;
+import com.ctre.phoenix.sensors.CANCoderStatusFrame;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CanConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+
+/**
+ * A swerve module with two TalonFX motors and a CANCoder
+ */
+public class SwerveModuleIOTalonFX implements SwerveModuleIO {
+    private final TalonFX moveMotor, angleMotor;
+    private final CANCoder absoluteEncoder;
+    private final AtomicInteger readCount; // also counts the reads of the odometry thread
+
+    /**
+     * Creates a new SwerveModuleIOTalonFX and configures the devices
+     * 
+     * @param constants The constants for the module
+     */
+    public SwerveModuleIOTalonFX(SwerveModuleConstants constants) {
+        moveMotor = new TalonFX(constants.moveMotorID);
+        angleMotor = new TalonFX(constants.angleMotorID);
+        absoluteEncoder = new CANCoder(constants.absoluteEncoderID);
+        readCount = new AtomicInteger();
+        configureDevices();
+    }
+
+    /**
+     * Configures the devices, each with all its settings in one call, and sets
+     * their frame periods
+     */
+    private void configureDevices() {
+        String move = "Drive Motor " + moveMotor.getDeviceID();
+        String angle = "Steer Motor " + angleMotor.getDeviceID();
+        String encoder = "CANCoder " + absoluteEncoder.getDeviceID();
+
+        TalonFXConfiguration moveConfig = new TalonFXConfiguration();
+        moveConfig.slot0.kP = SwerveModuleConstants.VELOCITY_KP;
+        CanFrameProfile.configure(move, "settings",
+                () -> moveMotor.configAllSettings(moveConfig, CanConstants.CONFIG_TIMEOUT));
+
+        TalonFXConfiguration angleConfig = new TalonFXConfiguration();
+        angleConfig.slot0.kP = SwerveModuleConstants.ANGLE_KP;
+        angleConfig.slot0.kI = SwerveModuleConstants.ANGLE_KI;
+        CanFrameProfile.configure(angle, "settings",
+                () -> angleMotor.configAllSettings(angleConfig, CanConstants.CONFIG_TIMEOUT));
+
+        CANCoderConfiguration encoderConfig = new CANCoderConfiguration();
+        CanFrameProfile.configure(encoder, "settings",
+                () -> absoluteEncoder.configAllSettings(encoderConfig, CanConstants.CONFIG_TIMEOUT));
+
+        angleMotor.setNeutralMode(NeutralMode.Brake);
+        moveMotor.setNeutralMode(NeutralMode.Brake);
+
+        // the drive position and the absolute angle are sampled by the odometry
+        // thread, the steer position once per loop
+        motorProfile(move, moveMotor, CanConstants.ODOMETRY_PERIOD, CanConstants.DRIVE_CONTROL_PERIOD).apply();
+        motorProfile(angle, angleMotor, CanConstants.LOOP_PERIOD, CanConstants.STEER_CONTROL_PERIOD).apply();
+        new CanFrameProfile(encoder)
+                .status("sensor data", CanConstants.ODOMETRY_PERIOD,
+                        (period, timeout) -> absoluteEncoder.setStatusFramePeriod(CANCoderStatusFrame.SensorData,
+                                period, timeout),
+                        (timeout) -> absoluteEncoder.getStatusFramePeriod(CANCoderStatusFrame.SensorData, timeout))
+                .status("battery and faults", CanConstants.UNUSED_PERIOD,
+                        (period, timeout) -> absoluteEncoder.setStatusFramePeriod(CANCoderStatusFrame.VbatAndFaults,
+                                period, timeout),
+                        (timeout) -> absoluteEncoder.getStatusFramePeriod(CANCoderStatusFrame.VbatAndFaults,
+                                timeout))
+                .apply();
+    }
+
+    /**
+     * Creates the frame profile of a motor, which only reads its selected sensor
+     *
+     * @param name           The name of the motor
+     * @param motor          The motor
+     * @param feedbackPeriod The period of the sensor position and velocity, in
+     *                        milliseconds
+     * @param controlPeriod  The period of the control frame, in milliseconds
+     * @return The profile, not applied yet
+     */
+    private static CanFrameProfile motorProfile(String name, TalonFX motor, int feedbackPeriod, int controlPeriod) {
+        CanFrameProfile profile = new CanFrameProfile(name)
+                .control("control", controlPeriod,
+                        (period, timeout) -> motor.setControlFramePeriod(ControlFrame.Control_3_General, period));
+        addStatusFrame(profile, motor, StatusFrameEnhanced.Status_1_General, CanConstants.STATUS_PERIOD);
+        addStatusFrame(profile, motor, StatusFrameEnhanced.Status_2_Feedback0, feedbackPeriod);
+        StatusFrameEnhanced[] unused = {
+                StatusFrameEnhanced.Status_4_AinTempVbat, StatusFrameEnhanced.Status_10_Targets,
+                StatusFrameEnhanced.Status_12_Feedback1, StatusFrameEnhanced.Status_13_Base_PIDF0,
+                StatusFrameEnhanced.Status_14_Turn_PIDF1, StatusFrameEnhanced.Status_Brushless_Current
+        };
+        for (StatusFrameEnhanced frame : unused) {
+            addStatusFrame(profile, motor, frame, CanConstants.UNUSED_PERIOD);
+        }
+        return profile;
+    }
+
+    /**
+     * Adds a status frame of a motor to a profile
+     */
+    private static void addStatusFrame(CanFrameProfile profile, TalonFX motor, StatusFrameEnhanced frame,
+            int period) {
+        profile.status(frame.name(), period, (p, timeout) -> motor.setStatusFramePeriod(frame, p, timeout),
+                (timeout) -> motor.getStatusFramePeriod(frame, timeout));
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.timestamp = Timer.getFPGATimestamp();
+        inputs.absoluteAngle = readAbsoluteAngle();
+        inputs.drivePosition = readDrivePosition();
+        inputs.driveVelocity = countRead(moveMotor.getSelectedSensorVelocity())
+                / SwerveModuleConstants.PULSE_PER_METER * 10;
+        inputs.steerPosition = countRead(angleMotor.getSelectedSensorPosition())
+                / SwerveModuleConstants.PULSE_PER_DEGREE;
+    }
+
+    @Override
+    public double readDrivePosition() {
+        return countRead(moveMotor.getSelectedSensorPosition()) / SwerveModuleConstants.PULSE_PER_METER;
+    }
+
+    @Override
+    public double readAbsoluteAngle() {
+        return countRead(absoluteEncoder.getAbsolutePosition());
+    }
+
+    /**
+     * Counts a sensor read, wraps every read of a device
+     * 
+     * @param value The value read
+     * @return The value read
+     */
+    private double countRead(double value) {
+        readCount.incrementAndGet();
+        return value;
+    }
+
+    @Override
+    public int getAndResetReadCount() {
+        return readCount.getAndSet(0);
+    }
+
+    @Override
+    public void setDriveVelocity(double velocity, double feedforward) {
+        moveMotor.set(ControlMode.Velocity, velocity * SwerveModuleConstants.PULSE_PER_METER / 10,
+                DemandType.ArbitraryFeedForward, feedforward);
+    }
+
+    @Override
+    public void setDrivePower(double power) {
+        moveMotor.set(ControlMode.PercentOutput, power);
+    }
+
+    @Override
+    public void setSteerPosition(double position, double feedforward) {
+        angleMotor.set(ControlMode.Position, position * SwerveModuleConstants.PULSE_PER_DEGREE,
+                DemandType.ArbitraryFeedForward, feedforward);
+    }
+
+    @Override
+    public void setSteerPower(double power) {
+        angleMotor.set(ControlMode.PercentOutput, power);
+    }
+
+    @Override
+    public void setNeutralMode(boolean isBreak) {
+        angleMotor.setNeutralMode(isBreak ? NeutralMode.Brake : NeutralMode.Coast);
+        moveMotor.setNeutralMode(isBreak ? NeutralMode.Brake : NeutralMode.Coast);
+    }
+}
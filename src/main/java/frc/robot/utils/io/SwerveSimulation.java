@@ -0,0 +1,153 @@
+package frc.robot.utils.io;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+
+/**
+ * Simulates the whole swerve drive, the modules, the gyro and the true pose of
+ * the robot. Time only advances when {@link #step(double)} is called, so full
+ * loops can run faster than real time on a desktop JVM
+ */
+public class SwerveSimulation {
+    private static final double SUBSTEP = 0.001; // seconds
+
+    private final SwerveModuleIOSim[] modules;
+    private final SwerveModuleState[] states;
+    private final GyroIOSim gyro;
+    private ChargeStationSim chargeStation;
+    private double time;
+    private Pose2d pose;
+
+    /**
+     * Creates a new SwerveSimulation, with the robot at the origin
+     */
+    public SwerveSimulation() {
+        modules = new SwerveModuleIOSim[] {
+                new SwerveModuleIOSim(SwerveModuleConstants.FRONT_LEFT, this::getTime),
+                new SwerveModuleIOSim(SwerveModuleConstants.FRONT_RIGHT, this::getTime),
+                new SwerveModuleIOSim(SwerveModuleConstants.BACK_LEFT, this::getTime),
+                new SwerveModuleIOSim(SwerveModuleConstants.BACK_RIGHT, this::getTime)
+        };
+        states = new SwerveModuleState[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            states[i] = new SwerveModuleState();
+        }
+        gyro = new GyroIOSim(this::getTime);
+        time = 0;
+        pose = new Pose2d();
+    }
+
+    /**
+     * Advances the simulation
+     * 
+     * @param dt The time to advance, in seconds
+     */
+    public void step(double dt) {
+        int substeps = Math.max(1, (int) Math.round(dt / SUBSTEP));
+        double h = dt / substeps;
+        for (int step = 0; step < substeps; step++) {
+            for (int i = 0; i < modules.length; i++) {
+                modules[i].step(h);
+                states[i].speedMetersPerSecond = modules[i].getVelocity();
+                states[i].angle = Rotation2d.fromDegrees(modules[i].getAngle());
+            }
+            ChassisSpeeds speeds = SwerveConstants.KINEMATICS.toChassisSpeeds(states);
+            pose = pose.exp(new Twist2d(speeds.vxMetersPerSecond * h, speeds.vyMetersPerSecond * h,
+                    speeds.omegaRadiansPerSecond * h));
+            gyro.addYaw(Math.toDegrees(speeds.omegaRadiansPerSecond * h),
+                    Math.toDegrees(speeds.omegaRadiansPerSecond));
+            if (chargeStation != null)
+                stepChargeStation(h);
+            time += h;
+        }
+    }
+
+    /**
+     * Advances the charge station and tilts the gyro with it while the robot is
+     * on the station
+     * 
+     * @param dt The time to advance, in seconds
+     */
+    private void stepChargeStation(double dt) {
+        chargeStation.step(dt, pose.getX(), pose.getY());
+        if (!chargeStation.isOn(pose.getX(), pose.getY())) {
+            gyro.setTilt(0, 0, 0, 0);
+            return;
+        }
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        double tilt = chargeStation.getTilt();
+        double rate = chargeStation.getTiltRate();
+        gyro.setTilt(tilt * cos, tilt * sin, rate * cos, rate * sin);
+    }
+
+    /**
+     * Adds a charge station to the simulation, that tilts the robot while it is
+     * on it
+     * 
+     * @param chargeStation The charge station, or null to remove it
+     */
+    public void setChargeStation(ChargeStationSim chargeStation) {
+        this.chargeStation = chargeStation;
+    }
+
+    /**
+     * Gets the simulated charge station
+     * 
+     * @return The charge station, or null if there is none
+     */
+    public ChargeStationSim getChargeStation() {
+        return chargeStation;
+    }
+
+    /**
+     * Gets the simulation time
+     * 
+     * @return The time since the simulation started, in seconds
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the true pose of the simulated robot
+     * 
+     * @return The true pose
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * Moves the simulated robot
+     * 
+     * @param pose The new true pose
+     */
+    public void setPose(Pose2d pose) {
+        this.pose = pose;
+    }
+
+    /**
+     * Gets the simulated modules
+     * 
+     * @return The simulated modules, in order of front left, front right, back
+     *         left, back right
+     */
+    public SwerveModuleIOSim[] getModules() {
+        return modules;
+    }
+
+    /**
+     * Gets the simulated gyro
+     * 
+     * @return The simulated gyro
+     */
+    public GyroIOSim getGyro() {
+        return gyro;
+    }
+}
@@ -0,0 +1,54 @@
+package frc.robot.utils.io;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.utils.VisionFrame;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * Polls the vision frames recorded in each loop of a log
+ */
+public class VisionIOReplay implements Supplier<VisionFrame> {
+    private final ReplaySource source;
+    private final int countField;
+    private final int[] frameFields;
+    private int record, polled;
+
+    /**
+     * Creates a new VisionIOReplay
+     * 
+     * @param source    The replayed log
+     * @param prefix    The prefix the vision frames were logged with
+     * @param maxFrames The number of frames logged per loop
+     */
+    public VisionIOReplay(ReplaySource source, String prefix, int maxFrames) {
+        this.source = source;
+        countField = source.field(prefix + "/Frames");
+        frameFields = new int[maxFrames];
+        for (int i = 0; i < maxFrames; i++) {
+            frameFields[i] = source.field(prefix + "/" + i + "/X");
+        }
+        record = -1;
+    }
+
+    /**
+     * Polls the next frame recorded in the current loop
+     * 
+     * @return The frame, or null if all the frames of the loop were polled
+     */
+    @Override
+    public VisionFrame get() {
+        if (source.getRecord() != record) {
+            record = source.getRecord();
+            polled = 0;
+        }
+        if (polled >= (int) source.get(countField))
+            return null;
+        int field = frameFields[polled++];
+        return new VisionFrame(new Pose2d(source.get(field), source.get(field + 1),
+                new Rotation2d(source.get(field + 2))),
+                source.get(field + 3), source.get(field + 4), source.get(field + 5));
+    }
+}
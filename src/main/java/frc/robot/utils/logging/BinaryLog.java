@@ -0,0 +1,151 @@
+package frc.robot.utils.logging;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.Constants.LogConstants;
+
+/**
+ * Records a fixed set of values every robot loop into a binary log file, for
+ * post match analysis. Fields are registered once at startup, before
+ * {@link #start()}, and setting them does not allocate.
+ * <p>
+ * The roboRIO clock starts in 1970 until the driver station sets it, so the
+ * file is created under a random name and renamed to the date and time once
+ * the clock is valid
+ */
+public final class BinaryLog {
+    private static final long VALID_CLOCK = 1672531200000L; // 2023-01-01, in milliseconds since 1970
+    private static final int CLOCK_CHECK_LOOPS = 50; // loops between checks of the clock until it is valid
+    private static final int CREATE_ATTEMPTS = 3;
+
+    private static final List<String> fields = new ArrayList<>();
+    private static double[] values = new double[0];
+    private static LogWriter writer;
+    private static boolean disabled;
+    private static Path directory;
+    private static boolean named;
+    private static int loopsSinceClockCheck;
+
+    /** The time of the loop, in seconds */
+    public static final int TIMESTAMP = field("Timestamp");
+
+    private BinaryLog() {
+    }
+
+    /**
+     * Registers a new field, should only be called at startup
+     *
+     * @param name The name of the field
+     * @return The index of the field
+     */
+    public static synchronized int field(String name) {
+        if (writer != null)
+            throw new IllegalStateException("Field " + name + " registered after the log started");
+        fields.add(name);
+        values = Arrays.copyOf(values, fields.size());
+        return fields.size() - 1;
+    }
+
+    /**
+     * Registers consecutive fields with a common prefix, should only be called at
+     * startup
+     *
+     * @param prefix The prefix of the names, separated from them by a slash
+     * @param names  The names of the fields
+     * @return The index of the first field, the others follow it in order
+     */
+    public static synchronized int fields(String prefix, String... names) {
+        int first = fields.size();
+        for (String name : names) {
+            field(prefix + "/" + name);
+        }
+        return first;
+    }
+
+    /**
+     * Sets the value of a field, held until it is set again
+     *
+     * @param field The index of the field
+     * @param value The value
+     */
+    public static void set(int field, double value) {
+        values[field] = value;
+    }
+
+    /**
+     * Creates the log file under a new random name and starts recording, should
+     * be called once all the fields are registered. If the file cannot be created
+     * the robot runs without logging
+     */
+    public static synchronized void start() {
+        if (writer != null || disabled)
+            return;
+        directory = Paths.get(RobotBase.isReal() ? LogConstants.DIRECTORY : "logs");
+        try {
+            Files.createDirectories(directory);
+            for (int attempt = 0; writer == null; attempt++) {
+                String name = "boot_" + Long.toHexString(ThreadLocalRandom.current().nextLong())
+                        + LogWriter.EXTENSION;
+                try {
+                    writer = new LogWriter(directory.resolve(name), fields.toArray(new String[0]),
+                            LogConstants.CAPACITY, LogConstants.FLUSH_PERIOD, LogConstants.FILES_KEPT);
+                } catch (FileAlreadyExistsException e) {
+                    if (attempt + 1 >= CREATE_ATTEMPTS)
+                        throw e;
+                }
+            }
+        } catch (IOException e) {
+            DriverStation.reportError("Could not create the log file: " + e.getMessage(), false);
+        }
+        loopsSinceClockCheck = CLOCK_CHECK_LOOPS; // checked on the first loop
+    }
+
+    /**
+     * Prevents the log from starting, used when replaying a recorded log so it is
+     * not overwritten or pruned
+     */
+    public static synchronized void disable() {
+        disabled = true;
+    }
+
+    /**
+     * Writes the values of all the fields as a record, should be called once at
+     * the end of every robot loop
+     *
+     * @param timestamp The time of the loop, in seconds
+     */
+    public static void endLoop(double timestamp) {
+        if (writer == null)
+            return;
+        values[TIMESTAMP] = timestamp;
+        writer.write(values);
+        if (!named && ++loopsSinceClockCheck >= CLOCK_CHECK_LOOPS) {
+            loopsSinceClockCheck = 0;
+            nameIfClockSet();
+        }
+    }
+
+    /**
+     * Renames the log file to the date and time if the clock was set by the
+     * driver station. The rename runs on the flusher thread
+     */
+    private static void nameIfClockSet() {
+        if (System.currentTimeMillis() < VALID_CLOCK)
+            return;
+        named = true;
+        String name = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + LogWriter.EXTENSION;
+        writer.rename(directory.resolve(name));
+    }
+}
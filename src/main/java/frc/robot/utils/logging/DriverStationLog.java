@@ -0,0 +1,88 @@
+package frc.robot.utils.logging;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Records the robot mode and a joystick in the binary log, and plays them back
+ * into the simulated driver station in a replay, so the commands see the same
+ * driver inputs as in the recorded match
+ */
+public class DriverStationLog {
+    private static final int AXES = 6;
+
+    private final int port;
+    private final int modeField, joystickField;
+    private final ReplaySource source;
+
+    /**
+     * Creates a new DriverStationLog and registers its fields, should only be
+     * called at startup
+     *
+     * @param port The port of the joystick to record
+     */
+    public DriverStationLog(int port) {
+        this.port = port;
+        source = null;
+        modeField = BinaryLog.fields("DriverStation", "Enabled", "Autonomous", "Test", "Red");
+        joystickField = BinaryLog.fields("DriverStation/Joystick " + port, "Axis 0", "Axis 1", "Axis 2", "Axis 3",
+                "Axis 4", "Axis 5", "Axis Count", "Buttons", "Button Count", "POV");
+    }
+
+    /**
+     * Creates a new DriverStationLog that replays a recorded log
+     *
+     * @param source The replayed log
+     * @param port   The port of the recorded joystick
+     */
+    public DriverStationLog(ReplaySource source, int port) {
+        this.port = port;
+        this.source = source;
+        modeField = source.field("DriverStation/Enabled");
+        joystickField = source.field("DriverStation/Joystick " + port + "/Axis 0");
+    }
+
+    /**
+     * Records the current mode and joystick state, should be called once every
+     * loop
+     */
+    public void record() {
+        BinaryLog.set(modeField, DriverStation.isEnabled() ? 1 : 0);
+        BinaryLog.set(modeField + 1, DriverStation.isAutonomous() ? 1 : 0);
+        BinaryLog.set(modeField + 2, DriverStation.isTest() ? 1 : 0);
+        BinaryLog.set(modeField + 3, DriverStation.getAlliance() == Alliance.Red ? 1 : 0);
+        int axisCount = Math.min(AXES, DriverStation.getStickAxisCount(port));
+        for (int axis = 0; axis < AXES; axis++) {
+            BinaryLog.set(joystickField + axis, axis < axisCount ? DriverStation.getStickAxis(port, axis) : 0);
+        }
+        BinaryLog.set(joystickField + AXES, axisCount);
+        BinaryLog.set(joystickField + AXES + 1, DriverStation.getStickButtons(port));
+        BinaryLog.set(joystickField + AXES + 2, DriverStation.getStickButtonCount(port));
+        BinaryLog.set(joystickField + AXES + 3,
+                DriverStation.getStickPOVCount(port) > 0 ? DriverStation.getStickPOV(port, 0) : -1);
+    }
+
+    /**
+     * Plays the mode and joystick state of the current record of the replayed log
+     * into the simulated driver station
+     */
+    public void replay() {
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(source.get(modeField) != 0);
+        DriverStationSim.setAutonomous(source.get(modeField + 1) != 0);
+        DriverStationSim.setTest(source.get(modeField + 2) != 0);
+        DriverStationSim.setAllianceStationId(
+                source.get(modeField + 3) != 0 ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+        DriverStationSim.setJoystickAxisCount(port, (int) source.get(joystickField + AXES));
+        for (int axis = 0; axis < AXES; axis++) {
+            DriverStationSim.setJoystickAxis(port, axis, source.get(joystickField + axis));
+        }
+        DriverStationSim.setJoystickButtons(port, (int) source.get(joystickField + AXES + 1));
+        DriverStationSim.setJoystickButtonCount(port, (int) source.get(joystickField + AXES + 2));
+        DriverStationSim.setJoystickPOVCount(port, 1);
+        DriverStationSim.setJoystickPOV(port, 0, (int) source.get(joystickField + AXES + 3));
+        DriverStationSim.notifyNewData();
+    }
+}
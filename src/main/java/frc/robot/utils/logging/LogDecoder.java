@@ -0,0 +1,61 @@
+package frc.robot.utils.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Exports log files to CSV on the desktop, run with
+ * {@code ./gradlew decodeLog -Plogs=<file>,<file>}. Every log file is written
+ * next to itself with a .csv extension
+ */
+public final class LogDecoder {
+    private LogDecoder() {
+    }
+
+    /**
+     * Exports a log file to CSV
+     *
+     * @param input  The log file
+     * @param output The CSV file, replaced if it exists
+     * @throws IOException If the files could not be read or written
+     */
+    public static void decode(Path input, Path output) throws IOException {
+        LogReader reader = new LogReader(input);
+        String[] fields = reader.getFieldNames();
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            writer.write("Sequence");
+            for (String field : fields) {
+                writer.write(',');
+                writer.write(field.contains(",") ? '"' + field + '"' : field);
+            }
+            writer.newLine();
+            for (int record = 0; record < reader.getRecordCount(); record++) {
+                writer.write(Long.toString(reader.getSequence(record)));
+                for (int field = 0; field < fields.length; field++) {
+                    writer.write(',');
+                    writer.write(Double.toString(reader.get(record, field)));
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: LogDecoder <log file>...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            Path input = Paths.get(arg);
+            String name = input.getFileName().toString();
+            if (name.endsWith(LogWriter.EXTENSION))
+                name = name.substring(0, name.length() - LogWriter.EXTENSION.length());
+            Path output = input.resolveSibling(name + ".csv");
+            decode(input, output);
+            System.out.println(input + " -> " + output);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package frc.robot.utils.logging;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a log file written by {@link LogWriter}, with the records in the order
+ * they were written. Runs on the desktop as well as on the robot
+ */
+public class LogReader {
+    private final MappedByteBuffer buffer;
+    private final String[] fieldNames;
+    private final int headerSize, recordSize, capacity;
+    private final long[] sequences;
+
+    /**
+     * Opens a log file
+     *
+     * @param file The log file
+     * @throws IOException If the file could not be read or is not a log file
+     */
+    public LogReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != LogWriter.MAGIC)
+            throw new IOException(file + " is not a log file");
+        int version = buffer.getInt();
+        if (version != LogWriter.VERSION)
+            throw new IOException(file + " has unsupported version " + version);
+        headerSize = buffer.getInt();
+        int fieldCount = buffer.getInt();
+        capacity = buffer.getInt();
+        fieldNames = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            fieldNames[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        recordSize = Long.BYTES + fieldCount * Double.BYTES;
+
+        long[] found = new long[capacity];
+        int count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long sequence = buffer.getLong(headerSize + slot * recordSize);
+            if (sequence > 0)
+                found[count++] = sequence;
+        }
+        sequences = Arrays.copyOf(found, count);
+        Arrays.sort(sequences);
+    }
+
+    /**
+     * Gets the names of the fields
+     *
+     * @return The names of the fields, by field index
+     */
+    public String[] getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Gets the index of a field
+     *
+     * @param name The name of the field
+     * @return The index of the field, or -1 if there is no such field
+     */
+    public int getFieldIndex(String name) {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].equals(name))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of records in the file
+     *
+     * @return The number of records that were not overwritten
+     */
+    public int getRecordCount() {
+        return sequences.length;
+    }
+
+    /**
+     * Gets the sequence number of a record
+     *
+     * @param record The index of the record, from the oldest
+     * @return The sequence number, counting from 1 since the log was started
+     */
+    public long getSequence(int record) {
+        return sequences[record];
+    }
+
+    /**
+     * Gets the value of a field in a record
+     *
+     * @param record The index of the record, from the oldest
+     * @param field  The index of the field
+     * @return The value of the field
+     */
+    public double get(int record, int field) {
+        int slot = (int) ((sequences[record] - 1) % capacity);
+        return buffer.getDouble(headerSize + slot * recordSize + Long.BYTES + field * Double.BYTES);
+    }
+}
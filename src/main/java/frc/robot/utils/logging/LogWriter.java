@@ -0,0 +1,255 @@
+package frc.robot.utils.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes fixed size records into a preallocated, memory mapped ring file. A
+ * record is written straight into the mapped memory without copying or
+ * allocating, and only the flusher thread forces the pages to the disk.
+ * <p>
+ * The file starts with a header of the magic, the version, the header size,
+ * the field count, the capacity and the field names. Every record is a
+ * sequence number followed by one double per field. The sequence number is
+ * zeroed while the record is written, so a record torn by a power loss is
+ * skipped by the {@link LogReader}.
+ * <p>
+ * A file is never replaced, it is created new and can be renamed while it is
+ * written, once a meaningful name is known
+ */
+public class LogWriter implements AutoCloseable {
+    static final int MAGIC = 0x53574C47; // "SWLG"
+    static final int VERSION = 1;
+    static final String EXTENSION = ".swlog";
+    private static final int RENAME_ATTEMPTS = 10; // suffixes tried when the new name is taken
+    private static final int FILL_CHUNK = 64 * 1024; // bytes of zeros written at a time when preallocating
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int headerSize, recordSize, fieldCount, capacity;
+    private final Thread flusher;
+    private volatile boolean running;
+    private volatile Path file, pendingName;
+    private long sequence;
+
+    /**
+     * Creates a new LogWriter, preallocating the file and starting the flusher
+     * thread
+     *
+     * @param file        The file to write, must not exist
+     * @param fields      The names of the fields of every record
+     * @param capacity    The number of records until the file wraps around
+     * @param flushPeriod The time between flushes to the disk, in seconds
+     * @param filesKept   The number of log files to keep in the directory of the
+     *                    file, older ones are deleted by the flusher thread
+     * @throws IOException If the file could not be created, a
+     *                     {@link FileAlreadyExistsException} if it exists
+     */
+    public LogWriter(Path file, String[] fields, int capacity, double flushPeriod, int filesKept)
+            throws IOException {
+        fieldCount = fields.length;
+        this.capacity = capacity;
+        recordSize = Long.BYTES + fieldCount * Double.BYTES;
+
+        byte[][] names = new byte[fieldCount][];
+        int namesSize = 0;
+        for (int i = 0; i < fieldCount; i++) {
+            names[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+            namesSize += Short.BYTES + names[i].length;
+        }
+        headerSize = (5 * Integer.BYTES + namesSize + 7) & ~7;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.file = file;
+        long size = headerSize + (long) capacity * recordSize;
+        preallocate(channel, size);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.load(); // fault in every page, so a write never waits for the disk
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(headerSize).putInt(fieldCount).putInt(capacity);
+        for (byte[] name : names) {
+            buffer.putShort((short) name.length).put(name);
+        }
+        sequence = 0;
+
+        running = true;
+        long flushMillis = Math.round(flushPeriod * 1000);
+        Path directory = file.toAbsolutePath().getParent();
+        flusher = new Thread(() -> {
+            prune(directory, filesKept, file);
+            while (running) {
+                try {
+                    Thread.sleep(flushMillis);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                buffer.force();
+                renameIfPending();
+            }
+        }, "Log Flusher");
+        flusher.setDaemon(true);
+        flusher.setPriority(Thread.MIN_PRIORITY);
+        flusher.start();
+    }
+
+    /**
+     * Fills a new file with zeros, so every block of the file is allocated on the
+     * disk before it is mapped, rather than on the first write to each page
+     *
+     * @param channel The channel of the empty file
+     * @param size    The size of the file, in bytes
+     * @throws IOException If the file could not be written
+     */
+    private static void preallocate(FileChannel channel, long size) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocateDirect(FILL_CHUNK);
+        long position = 0;
+        while (position < size) {
+            zeros.clear();
+            zeros.limit((int) Math.min(FILL_CHUNK, size - position));
+            position += channel.write(zeros, position);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Deletes the least recently modified log files in a directory, keeping the
+     * newest ones. The names are not used, a file named before the clock was set
+     * sorts by the time it was written
+     *
+     * @param directory The directory of the log files
+     * @param kept      The number of files to keep, including the current one
+     * @param current   The file being written, never deleted
+     */
+    private static void prune(Path directory, int kept, Path current) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                if (!file.getFileName().equals(current.getFileName()))
+                    files.add(file);
+            }
+            files.sort(Comparator.comparing(LogWriter::getLastModifiedTime));
+            for (int i = 0; i < files.size() - (kept - 1); i++) {
+                Files.deleteIfExists(files.get(i));
+            }
+        } catch (IOException e) {
+            // pruning is best effort, the log is still written
+        }
+    }
+
+    /**
+     * Gets the time a file was last modified, a file that cannot be read sorts as
+     * the oldest
+     */
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Renames the file on the flusher thread, within a flush period. If the name
+     * is taken a numbered suffix is added, and if the rename fails the file keeps
+     * its current name
+     *
+     * @param target The new file, in the same directory
+     */
+    public void rename(Path target) {
+        pendingName = target;
+    }
+
+    /**
+     * Gets the file being written
+     *
+     * @return The file, under its current name
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Renames the file if a rename was requested, runs on the flusher thread
+     */
+    private void renameIfPending() {
+        Path target = pendingName;
+        if (target == null)
+            return;
+        pendingName = null;
+        String name = target.getFileName().toString();
+        String base = name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+        for (int attempt = 0; attempt < RENAME_ATTEMPTS; attempt++) {
+            Path candidate = attempt == 0 ? target : target.resolveSibling(base + "_" + attempt + EXTENSION);
+            try {
+                // fails instead of replacing an existing file
+                file = Files.move(file, candidate);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                // try the next suffix
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a record, overwriting the oldest one when the file is full. Does not
+     * allocate and does not block on the disk
+     *
+     * @param values The values of the fields, in the order they were given to the
+     *               constructor
+     */
+    public void write(double[] values) {
+        long next = sequence + 1;
+        int offset = headerSize + (int) ((next - 1) % capacity) * recordSize;
+        buffer.putLong(offset, 0);
+        int fieldOffset = offset + Long.BYTES;
+        for (int i = 0; i < fieldCount; i++) {
+            buffer.putDouble(fieldOffset, values[i]);
+            fieldOffset += Double.BYTES;
+        }
+        buffer.putLong(offset, next);
+        sequence = next;
+    }
+
+    /**
+     * Gets the number of records written, including the ones that were
+     * overwritten
+     *
+     * @return The number of records written
+     */
+    public long getRecordsWritten() {
+        return sequence;
+    }
+
+    /**
+     * Stops the flusher thread, flushes the file and closes it
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        buffer.force();
+        renameIfPending();
+        channel.close();
+    }
+}
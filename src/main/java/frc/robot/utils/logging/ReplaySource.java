@@ -0,0 +1,74 @@
+package frc.robot.utils.logging;
+
+/**
+ * Steps through the records of a log, one robot loop at a time, for the replay
+ * IO implementations to read their inputs from
+ */
+public class ReplaySource {
+    private final LogReader reader;
+    private int record;
+
+    /**
+     * Creates a new ReplaySource, before the first record
+     *
+     * @param reader The log to replay
+     */
+    public ReplaySource(LogReader reader) {
+        this.reader = reader;
+        record = -1;
+    }
+
+    /**
+     * Moves to the next record
+     *
+     * @return Whether there was a next record
+     */
+    public boolean next() {
+        if (record + 1 >= reader.getRecordCount())
+            return false;
+        record++;
+        return true;
+    }
+
+    /**
+     * Gets the index of the current record
+     *
+     * @return The index of the current record, from the oldest
+     */
+    public int getRecord() {
+        return record;
+    }
+
+    /**
+     * Gets the number of records in the log
+     *
+     * @return The number of records
+     */
+    public int getRecordCount() {
+        return reader.getRecordCount();
+    }
+
+    /**
+     * Gets the index of a field, should be resolved once and not every loop
+     *
+     * @param name The name of the field
+     * @return The index of the field
+     * @throws IllegalArgumentException If the log does not have the field
+     */
+    public int field(String name) {
+        int field = reader.getFieldIndex(name);
+        if (field < 0)
+            throw new IllegalArgumentException("The log does not have the field " + name);
+        return field;
+    }
+
+    /**
+     * Gets the value of a field in the current record
+     *
+     * @param field The index of the field
+     * @return The value of the field
+     */
+    public double get(int field) {
+        return reader.get(record, field);
+    }
+}
@@ -0,0 +1,47 @@
+package frc.robot.commands;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.BalanceSimulation;
+import frc.robot.utils.logging.BinaryLog;
+
+/**
+ * Drives onto the simulated charge station from both sides with
+ * {@link GoUpRamp}, which should leave the station level
+ */
+class GoUpRampTest {
+    @BeforeAll
+    static void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+        SimHooks.pauseTiming();
+        BinaryLog.disable();
+        // enabled, so the gyro does not count the tilt rates as bias
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.notifyNewData();
+        SimHooks.resumeTiming();
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = { 1, 1.5, 2, -1, -1.5, -2 })
+    void balancesTheStation(double velocity) {
+        BalanceSimulation.Result result = BalanceSimulation.run(velocity);
+        assertTrue(!Double.isNaN(result.getBalanceTime()), "the command did not finish, " + result);
+        assertTrue(result.isLevel(), result.toString());
+    }
+}
@@ -0,0 +1,140 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.utils.io.ChassisIO;
+import frc.robot.utils.io.SwerveSimulation;
+import frc.robot.utils.logging.BinaryLog;
+
+/**
+ * Counts the bytes allocated by the loop of the chassis, its periodic followed
+ * by the velocities of the drive, while the simulation moves the robot so every
+ * sensor changes every loop. The simulation steps between the measured calls,
+ * since it allocates.
+ * <p>
+ * The pose estimator and the field widget of WPILib allocate on every update,
+ * and take a Rotation2d for every sensor angle that changed. The only
+ * allowance is the bytes of the same calls made with the same timestamps on a
+ * separate estimator and field, measured separately every loop, so any
+ * allocation of the code of the chassis fails the test
+ */
+class ChassisAllocationTest {
+    private static final int WARMUP_LOOPS = 20000;
+    private static final int MEASURED_LOOPS = 1000;
+    private static final double LOOP_PERIOD = 0.02; // seconds
+
+    private static SwerveSimulation simulation;
+    private static Chassis chassis;
+    private static com.sun.management.ThreadMXBean threads;
+    private static long thread, overhead;
+
+    // the WPILib calls of one loop, made apart from the chassis
+    private static SwerveDrivePoseEstimator estimator;
+    private static SwerveModulePosition[] positions;
+    private static Field2d field;
+
+    @BeforeAll
+    static void setUp() {
+        assertTrue(HAL.initialize(500, 0));
+        BinaryLog.disable();
+        simulation = new SwerveSimulation();
+        chassis = new Chassis(ChassisIO.simulation(simulation));
+
+        positions = new SwerveModulePosition[SwerveConstants.MODULE_LOCATIONS.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new SwerveModulePosition();
+        }
+        estimator = new SwerveDrivePoseEstimator(SwerveConstants.KINEMATICS, new Rotation2d(), positions,
+                new Pose2d());
+        field = new Field2d();
+        SmartDashboard.putData("Allocation Test Field", field); // published like the field of the chassis
+
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        thread = Thread.currentThread().getId();
+        overhead = -threads.getThreadAllocatedBytes(thread) + threads.getThreadAllocatedBytes(thread);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        CommandScheduler.getInstance().unregisterSubsystem(chassis);
+    }
+
+    private static long allocated() {
+        return threads.getThreadAllocatedBytes(thread);
+    }
+
+    /**
+     * Runs one loop of the chassis, with velocities that change every loop
+     *
+     * @return The bytes allocated by the chassis
+     */
+    private static long runChassis(int loop, ChassisSpeeds speeds) {
+        double t = loop * LOOP_PERIOD;
+        long start = allocated();
+        chassis.periodic();
+        if (loop % 2 == 0) {
+            chassis.setVelocities(Math.cos(t), Math.sin(t), 0.5 * Math.sin(3 * t));
+        } else {
+            speeds.vxMetersPerSecond = Math.sin(t);
+            speeds.vyMetersPerSecond = Math.cos(2 * t);
+            speeds.omegaRadiansPerSecond = Math.cos(t);
+            chassis.setRobotRelativeVelocities(speeds);
+        }
+        return allocated() - start - overhead;
+    }
+
+    /**
+     * Makes the WPILib calls of one loop of the chassis, one odometry sample at
+     * the time of the sample with every angle changed, and the pose on the field
+     *
+     * @return The bytes allocated by WPILib
+     */
+    private static long runWpilib(int loop, double timestamp) {
+        long start = allocated();
+        for (int i = 0; i < positions.length; i++) {
+            positions[i].distanceMeters = loop * 0.01;
+            positions[i].angle = Rotation2d.fromDegrees(loop + i);
+        }
+        estimator.updateWithTime(timestamp, Rotation2d.fromDegrees(loop * 0.5), positions);
+        field.setRobotPose(estimator.getEstimatedPosition());
+        return allocated() - start - overhead;
+    }
+
+    @Test
+    void loopAllocatesOnlyInWpilib() {
+        ChassisSpeeds speeds = new ChassisSpeeds();
+        long chassisBytes = 0, wpilibBytes = 0;
+        for (int loop = 0; loop < WARMUP_LOOPS + MEASURED_LOOPS; loop++) {
+            double time = simulation.getTime();
+            long loopChassisBytes = runChassis(loop, speeds);
+            long loopWpilibBytes = runWpilib(loop, time);
+            if (loop >= WARMUP_LOOPS) {
+                chassisBytes += loopChassisBytes;
+                wpilibBytes += loopWpilibBytes;
+            }
+            simulation.step(LOOP_PERIOD);
+        }
+        System.out.printf("%d loops: %d bytes allocated by the chassis, %d by the same WPILib calls%n",
+                MEASURED_LOOPS, chassisBytes, wpilibBytes);
+        assertTrue(chassisBytes <= wpilibBytes, chassisBytes + " bytes allocated by " + MEASURED_LOOPS
+                + " loops, more than the " + wpilibBytes + " bytes of their WPILib calls");
+    }
+}
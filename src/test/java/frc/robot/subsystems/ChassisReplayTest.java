@@ -0,0 +1,234 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.LogConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.utils.PathPlanningService;
+import frc.robot.utils.Utils;
+import frc.robot.utils.VisionFrame;
+import frc.robot.utils.io.ChassisIO;
+import frc.robot.utils.io.GyroIO;
+import frc.robot.utils.io.OdometryIO;
+import frc.robot.utils.io.SwerveModuleIO;
+import frc.robot.utils.io.SwerveModuleIOSim;
+import frc.robot.utils.io.SwerveSimulation;
+import frc.robot.utils.logging.BinaryLog;
+import frc.robot.utils.logging.LogReader;
+import frc.robot.utils.logging.LogWriter;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * Records a simulated drive with noisy vision frames into a log, replays it
+ * through a chassis on the replay IO, and reports the error of the replayed
+ * pose from the recorded estimate and from the true pose of the simulation.
+ * The chassis samples the odometry once per loop, and the sample is recorded
+ * as the chassis records it
+ */
+class ChassisReplayTest {
+    private static final int LOOPS = 500;
+    private static final int VISION_PERIOD = 5; // loops between vision frames
+    private static final double VISION_LATENCY = 0.05; // seconds
+    private static final double VISION_NOISE = 0.05; // meters
+    private static final SwerveModuleConstants[] MODULE_CONSTANTS = {
+            SwerveModuleConstants.FRONT_LEFT, SwerveModuleConstants.FRONT_RIGHT,
+            SwerveModuleConstants.BACK_LEFT, SwerveModuleConstants.BACK_RIGHT
+    };
+
+    @TempDir
+    static Path directory;
+
+    private static Path file;
+
+    @BeforeAll
+    static void record() throws IOException {
+        assertTrue(HAL.initialize(500, 0));
+        BinaryLog.disable();
+        List<String> names = new ArrayList<>();
+        names.add("Timestamp");
+        for (String module : Chassis.MODULE_NAMES) {
+            for (String name : SwerveModuleIO.Inputs.FIELDS) {
+                names.add("Chassis/" + module + "/Inputs/" + name);
+            }
+        }
+        for (String name : GyroIO.Inputs.FIELDS) {
+            names.add("Chassis/Gyro/" + name);
+        }
+        names.add("Chassis/Pose/X");
+        names.add("Chassis/Pose/Y");
+        names.add("Chassis/Pose/Rotation");
+        names.add("Truth/X");
+        names.add("Truth/Y");
+        names.add("Truth/Rotation");
+        names.add("Chassis/Vision/Frames");
+        for (int i = 0; i < LogConstants.MAX_VISION_FRAMES; i++) {
+            for (String name : new String[] { "X", "Y", "Rotation", "Timestamp", "Latency", "Tag Distance" }) {
+                names.add("Chassis/Vision/" + i + "/" + name);
+            }
+        }
+        int odometryField = names.size();
+        names.add("Chassis/Odometry/Samples");
+        for (int i = 0; i < LogConstants.MAX_ODOMETRY_SAMPLES; i++) {
+            for (String name : OdometryIO.sampleFields(Chassis.MODULE_NAMES)) {
+                names.add("Chassis/Odometry/" + i + "/" + name);
+            }
+        }
+        double[] values = new double[names.size()];
+
+        SwerveSimulation simulation = new SwerveSimulation();
+        Random random = new Random(5987);
+        VisionFrame[] pending = new VisionFrame[1];
+        Chassis chassis = new Chassis(new ChassisIO(simulation.getGyro(), simulation.getModules(), () -> {
+            VisionFrame frame = pending[0];
+            pending[0] = null;
+            return frame;
+        }, simulation::getTime, new PathPlanningService(Runnable::run), Runnable::run, false, null, simulation));
+
+        file = directory.resolve("replay" + LogWriter.EXTENSION);
+        SwerveModuleIO.Inputs moduleInputs = new SwerveModuleIO.Inputs();
+        GyroIO.Inputs gyroInputs = new GyroIO.Inputs();
+        Pose2d[] truth = new Pose2d[LOOPS];
+        try (LogWriter writer = new LogWriter(file, names.toArray(new String[0]), LOOPS, 1, 1)) {
+            for (int loop = 0; loop < LOOPS; loop++) {
+                double time = simulation.getTime();
+                truth[loop] = simulation.getPose();
+                if (loop % VISION_PERIOD == 0 && loop * 0.02 > VISION_LATENCY) {
+                    Pose2d captured = truth[loop - (int) Math.round(VISION_LATENCY / 0.02)];
+                    pending[0] = new VisionFrame(new Pose2d(captured.getX() + random.nextGaussian() * VISION_NOISE,
+                            captured.getY() + random.nextGaussian() * VISION_NOISE, captured.getRotation()),
+                            time - VISION_LATENCY, VISION_LATENCY, 2);
+                }
+                VisionFrame frame = pending[0];
+                chassis.periodic();
+                chassis.setVelocities(1.5 * Math.cos(time), 1.5 * Math.sin(time), 1);
+
+                int field = 0;
+                values[field++] = time;
+                values[odometryField] = 1;
+                values[odometryField + 1] = time;
+                SwerveModuleIOSim[] modules = simulation.getModules();
+                for (int i = 0; i < modules.length; i++) {
+                    modules[i].updateInputs(moduleInputs);
+                    values[field++] = moduleInputs.absoluteAngle;
+                    values[field++] = moduleInputs.drivePosition;
+                    values[field++] = moduleInputs.driveVelocity;
+                    values[field++] = moduleInputs.steerPosition;
+                    values[field++] = moduleInputs.timestamp;
+                    values[odometryField + 3 + i * 2] = moduleInputs.drivePosition;
+                    values[odometryField + 4 + i * 2] = Utils.normalizeDegrees(moduleInputs.absoluteAngle
+                            - MODULE_CONSTANTS[i].angleOffset);
+                }
+                simulation.getGyro().updateInputs(gyroInputs);
+                values[odometryField + 2] = gyroInputs.yaw;
+                values[field++] = gyroInputs.yaw;
+                values[field++] = gyroInputs.pitch;
+                values[field++] = gyroInputs.roll;
+                for (double rate : gyroInputs.rates) {
+                    values[field++] = rate;
+                }
+                values[field++] = gyroInputs.timestamp;
+                field = setPose(values, field, chassis.getPose());
+                field = setPose(values, field, truth[loop]);
+                values[field++] = frame == null ? 0 : 1;
+                if (frame != null) {
+                    field = setPose(values, field, frame.getPose());
+                    values[field++] = frame.getTimestamp();
+                    values[field++] = frame.getLatency();
+                    values[field++] = frame.getTagDistance();
+                }
+                writer.write(values);
+                simulation.step(0.02);
+            }
+        } finally {
+            CommandScheduler.getInstance().unregisterSubsystem(chassis);
+        }
+    }
+
+    private static int setPose(double[] values, int field, Pose2d pose) {
+        values[field] = pose.getX();
+        values[field + 1] = pose.getY();
+        values[field + 2] = pose.getRotation().getRadians();
+        return field + 3;
+    }
+
+    @Test
+    void replayFollowsTheRecordedPose() throws IOException {
+        ReplaySource source = new ReplaySource(new LogReader(file));
+        assertEquals(LOOPS, source.getRecordCount());
+        assertTrue(source.next());
+        int poseField = source.field("Chassis/Pose/X");
+        int truthField = source.field("Truth/X");
+        Chassis chassis = new Chassis(ChassisIO.replay(source));
+        double maxRecordedError = 0, maxTruthError = 0, maxRotationError = 0;
+        try {
+            do {
+                chassis.periodic();
+                Pose2d pose = chassis.getPose();
+                maxRecordedError = Math.max(maxRecordedError, Math.hypot(pose.getX() - source.get(poseField),
+                        pose.getY() - source.get(poseField + 1)));
+                maxTruthError = Math.max(maxTruthError, Math.hypot(pose.getX() - source.get(truthField),
+                        pose.getY() - source.get(truthField + 1)));
+                maxRotationError = Math.max(maxRotationError, Math.abs(Utils.getAngleDifference(
+                        pose.getRotation().getDegrees(), Math.toDegrees(source.get(truthField + 2)))));
+            } while (source.next());
+        } finally {
+            CommandScheduler.getInstance().unregisterSubsystem(chassis);
+        }
+        System.out.printf("replay pose error: max %.4f m from the recorded pose, max %.3f m and %.2f deg "
+                + "from the true pose%n", maxRecordedError, maxTruthError, maxRotationError);
+        assertTrue(maxRecordedError < 1e-9, "max error from the recorded pose " + maxRecordedError);
+        assertTrue(maxTruthError < 0.2, "max error from the true pose " + maxTruthError);
+        assertTrue(maxRotationError < 2, "max rotation error " + maxRotationError);
+    }
+
+    @Test
+    void replayKeepsTheRecordedVisionFrames() throws IOException {
+        ReplaySource source = new ReplaySource(new LogReader(file));
+        ChassisIO io = ChassisIO.replay(source);
+        int frameField = source.field("Chassis/Vision/0/X");
+        int frames = 0;
+        while (source.next()) {
+            VisionFrame frame = io.vision.get();
+            if (frame == null)
+                continue;
+            frames++;
+            assertEquals(source.get(frameField), frame.getPose().getX());
+            assertEquals(source.get(frameField + 3), frame.getTimestamp());
+            assertNull(io.vision.get());
+        }
+        assertEquals((LOOPS - 1) / VISION_PERIOD, frames);
+    }
+
+    /**
+     * Checks the truth the pose errors are measured against is not trivially
+     * still
+     */
+    @Test
+    void recordedDriveMoves() throws IOException {
+        ReplaySource source = new ReplaySource(new LogReader(file));
+        int truthField = source.field("Truth/X");
+        double maxDistance = 0, maxRotation = 0;
+        while (source.next()) {
+            maxDistance = Math.max(maxDistance, Math.hypot(source.get(truthField), source.get(truthField + 1)));
+            maxRotation = Math.max(maxRotation, Math.abs(new Rotation2d(source.get(truthField + 2)).getDegrees()));
+        }
+        assertTrue(maxDistance > 1, "the robot moved " + maxDistance + " m");
+        assertTrue(maxRotation > 30, "the robot turned " + maxRotation + " deg");
+    }
+}
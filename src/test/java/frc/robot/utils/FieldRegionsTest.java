@@ -0,0 +1,120 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.Constants;
+
+/**
+ * Checks the grid index of {@link FieldRegions} against a linear scan of the
+ * regions, which is what the index replaced
+ */
+class FieldRegionsTest {
+    private static final double RESOLUTION = Constants.ZONE_RESOLUTION;
+    private static final byte DEFAULT_ID = 9;
+    // the zones of the field, a non convex polygon and a region overlapping an earlier one
+    private static final Region[] REGIONS = {
+            Constants.COMMUNITY_BOTTOM, Constants.COMMUNITY_MIDDLE, Constants.COMMUNITY_TOP,
+            Constants.ENTRANCE_BOTTOM, Constants.ENTRANCE_TOP, Constants.LOADING_ZONE,
+            new Polygon(6, 1, 9, 1, 9, 4, 7.5, 2.2, 6, 4),
+            new Rectangle(2, 1, 3.5, 2)
+    };
+    private static final byte[] IDS = { 0, 1, 2, 3, 4, 5, 6, 7 };
+
+    private final FieldRegions index = new FieldRegions(Constants.FIELD_WIDTH, Constants.FIELD_HEIGHT,
+            RESOLUTION, REGIONS, IDS, DEFAULT_ID);
+
+    /**
+     * Gets the id of a point by checking every region in order
+     */
+    private static byte scan(double x, double y, boolean red) {
+        if (red)
+            x = Constants.FIELD_WIDTH - x;
+        for (int i = 0; i < REGIONS.length; i++) {
+            if (REGIONS[i].contains(x, y))
+                return IDS[i];
+        }
+        return DEFAULT_ID;
+    }
+
+    private void assertMatches(double x, double y) {
+        for (boolean red : new boolean[] { false, true }) {
+            assertEquals(scan(x, y, red), index.getId(x, y, red),
+                    "point (" + x + ", " + y + ")" + (red ? " red" : ""));
+        }
+    }
+
+    @Test
+    void randomPointsMatchTheScan() {
+        Random random = new Random(1678);
+        for (int i = 0; i < 200000; i++) {
+            assertMatches(random.nextDouble() * Constants.FIELD_WIDTH, random.nextDouble() * Constants.FIELD_HEIGHT);
+        }
+    }
+
+    @Test
+    void pointsOnTheGridLinesMatchTheScan() {
+        for (double x = 0; x <= Constants.FIELD_WIDTH; x += RESOLUTION / 2) {
+            for (double y = 0; y <= Constants.FIELD_HEIGHT; y += RESOLUTION / 2) {
+                assertMatches(x, y);
+            }
+        }
+    }
+
+    @Test
+    void pointsOnTheRegionBoundariesMatchTheScan() {
+        double[] offsets = { -1e-9, 0, 1e-9 };
+        for (Region region : REGIONS) {
+            if (!(region instanceof Rectangle))
+                continue;
+            Rectangle rectangle = (Rectangle) region;
+            double minX = rectangle.getBottomLeft().getX(), minY = rectangle.getBottomLeft().getY();
+            double maxX = rectangle.getTopRight().getX(), maxY = rectangle.getTopRight().getY();
+            for (int step = 0; step <= 100; step++) {
+                double x = minX + (maxX - minX) * step / 100;
+                double y = minY + (maxY - minY) * step / 100;
+                for (double offset : offsets) {
+                    assertMatches(x, minY + offset);
+                    assertMatches(x, maxY + offset);
+                    assertMatches(minX + offset, y);
+                    assertMatches(maxX + offset, y);
+                }
+            }
+        }
+        // the vertices and the edges of the polygon
+        double[][] polygon = { { 6, 1 }, { 9, 1 }, { 9, 4 }, { 7.5, 2.2 }, { 6, 4 } };
+        for (int i = 0; i < polygon.length; i++) {
+            double[] from = polygon[i], to = polygon[(i + 1) % polygon.length];
+            for (int step = 0; step <= 100; step++) {
+                for (double offset : offsets) {
+                    assertMatches(from[0] + (to[0] - from[0]) * step / 100 + offset,
+                            from[1] + (to[1] - from[1]) * step / 100 + offset);
+                }
+            }
+        }
+    }
+
+    @Test
+    void pointsOutsideTheFieldMatchTheScan() {
+        Random random = new Random(2230);
+        for (int i = 0; i < 10000; i++) {
+            assertMatches(random.nextDouble() * (Constants.FIELD_WIDTH + 4) - 2,
+                    random.nextDouble() * (Constants.FIELD_HEIGHT + 4) - 2);
+        }
+        assertMatches(Constants.FIELD_WIDTH, Constants.FIELD_HEIGHT);
+        assertMatches(-1e-9, 0.5);
+    }
+
+    @Test
+    void invalidIdsAreRejected() {
+        Region[] regions = { Constants.RAMP };
+        assertThrows(IllegalArgumentException.class, () -> new FieldRegions(Constants.FIELD_WIDTH,
+                Constants.FIELD_HEIGHT, RESOLUTION, regions, new byte[0], DEFAULT_ID));
+        assertThrows(IllegalArgumentException.class, () -> new FieldRegions(Constants.FIELD_WIDTH,
+                Constants.FIELD_HEIGHT, RESOLUTION, regions, new byte[] { -1 }, DEFAULT_ID));
+    }
+}
@@ -0,0 +1,131 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.utils.io.GyroIO;
+import frc.robot.utils.io.GyroIOSim;
+
+/**
+ * Resets the yaw of a gyro that keeps sending its old heading for a few
+ * readings after acknowledging a reset, like a gyro between status frames
+ */
+class GyroServiceTest {
+    private static final double DT = 0.02; // seconds
+    private static final double RATE = -300; // degrees per second
+    private static final int STALE_READINGS = 3;
+
+    private double time;
+    private final GyroIOSim sim = new GyroIOSim(() -> time);
+    private boolean acknowledge = true;
+    private int resets, staleReadings;
+    private double staleOffset;
+    private final GyroIO gyro = new GyroIO() {
+        @Override
+        public void updateInputs(Inputs inputs) {
+            sim.updateInputs(inputs);
+            if (staleReadings > 0) {
+                inputs.yaw += staleOffset;
+                staleReadings--;
+            }
+        }
+
+        @Override
+        public double readYaw() {
+            return sim.readYaw();
+        }
+
+        @Override
+        public boolean setYaw(double yaw) {
+            resets++;
+            if (!acknowledge)
+                return false;
+            staleOffset = sim.readYaw() - yaw;
+            staleReadings = STALE_READINGS;
+            return sim.setYaw(yaw);
+        }
+    };
+    private final GyroService service = new GyroService(gyro, Runnable::run);
+
+    private void step() {
+        step(service);
+    }
+
+    private void step(GyroService target) {
+        sim.addYaw(RATE * DT, RATE);
+        time += DT;
+        target.update(false);
+    }
+
+    @Test
+    void resetStaysContinuousUntilTheGyroApplies() {
+        for (int i = 0; i < 50; i++) {
+            step();
+        }
+        service.resetYaw();
+        assertEquals(1, resets);
+        assertEquals(0, service.getYaw());
+        for (int reading = 1; reading <= 10; reading++) {
+            step();
+            assertEquals(RATE * DT * reading, service.getYaw(), 1e-6, "reading " + reading);
+            assertEquals(reading <= STALE_READINGS, service.isYawResetPending(), "reading " + reading);
+        }
+        assertEquals(sim.readYaw(), service.getYaw(), 1e-6);
+        assertEquals(0, service.getYawResetFailures());
+    }
+
+    @Test
+    void resetWaitsForTheAcknowledgement() {
+        List<Runnable> writes = new ArrayList<>();
+        GyroService delayed = new GyroService(gyro, writes::add);
+        for (int i = 0; i < 50; i++) {
+            step(delayed);
+        }
+        delayed.resetYaw();
+        assertEquals(0, resets, "the reset ran on the loop");
+        assertEquals(1, writes.size());
+        int sent = 5;
+        for (int reading = 1; reading <= sent + 10; reading++) {
+            if (reading == sent + 1)
+                writes.get(0).run();
+            step(delayed);
+            assertEquals(RATE * DT * reading, delayed.getYaw(), 1e-6, "reading " + reading);
+            assertEquals(reading <= sent + STALE_READINGS, delayed.isYawResetPending(), "reading " + reading);
+        }
+        assertEquals(1, resets);
+        assertEquals(sim.readYaw(), delayed.getYaw(), 1e-6);
+    }
+
+    @Test
+    void unacknowledgedResetIsKeptInSoftware() {
+        acknowledge = false;
+        for (int i = 0; i < 50; i++) {
+            step();
+        }
+        service.resetYaw();
+        assertEquals(1, resets);
+        for (int reading = 1; reading <= 10; reading++) {
+            step();
+            assertEquals(RATE * DT * reading, service.getYaw(), 1e-6, "reading " + reading);
+            assertFalse(service.isYawResetPending(), "reading " + reading);
+        }
+        assertEquals(1, service.getYawResetFailures());
+    }
+
+    @Test
+    void smallResetIsOnlyDoneInSoftware() {
+        step();
+        service.resetYaw();
+        assertEquals(0, resets);
+        assertFalse(service.isYawResetPending());
+        step();
+        assertEquals(RATE * DT, service.getYaw(), 1e-6);
+        assertTrue(Math.abs(sim.readYaw()) > Math.abs(service.getYaw()));
+    }
+}
@@ -0,0 +1,75 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.utils.io.SwerveModuleIOSim;
+import frc.robot.utils.io.SwerveSimulation;
+
+class SwerveMathTest {
+    private static final double DT = 0.02; // seconds, the loop period
+    private static final double VX = 1.5; // meters per second, field relative
+    private static final double OMEGA = 2; // radians per second
+    private static final double TIME = 1.5; // seconds, less than half a turn
+
+    /**
+     * Drives the simulation along the field x axis while rotating, with the
+     * module states of one of the conversions, like the chassis does every loop
+     *
+     * @param discrete Whether to use the discretized conversion
+     * @return The sideways drift, the distance from the x axis at the end
+     */
+    private static double drift(boolean discrete) {
+        SwerveSimulation simulation = new SwerveSimulation();
+        SwerveModuleIOSim[] modules = simulation.getModules();
+        double[] speeds = new double[modules.length];
+        double[] angles = new double[modules.length];
+        double[] lastAngles = new double[modules.length];
+        for (int loop = 0; loop < Math.round(TIME / DT); loop++) {
+            double heading = simulation.getPose().getRotation().getRadians();
+            if (discrete) {
+                SwerveMath.toDiscreteModuleStates(VX, 0, OMEGA, heading, DT, SwerveConstants.MODULE_LOCATIONS,
+                        speeds, angles);
+            } else {
+                SwerveMath.toModuleStates(VX, 0, OMEGA, heading, SwerveConstants.MODULE_LOCATIONS, speeds, angles);
+            }
+            for (int i = 0; i < modules.length; i++) {
+                double current = modules[i].getAngle();
+                SwerveMath.optimize(speeds, angles, i, current);
+                double steerRate = loop == 0 ? 0 : Utils.getAngleDifference(lastAngles[i], angles[i]) / DT;
+                lastAngles[i] = angles[i];
+                modules[i].setSteerPosition(current + Utils.getAngleDifference(current, angles[i]),
+                        steerRate * SwerveModuleConstants.STEER_KV);
+                modules[i].setDriveVelocity(speeds[i], SwerveModuleConstants.VELOCITY_FF.calculate(speeds[i]));
+            }
+            simulation.step(DT);
+        }
+        Pose2d pose = simulation.getPose();
+        assertTrue(pose.getX() > VX * TIME * 0.9, "the robot drove " + pose.getX() + " m");
+        return Math.abs(pose.getY());
+    }
+
+    @Test
+    void discreteStatesDriftLessWhileRotating() {
+        double continuous = drift(false);
+        double discrete = drift(true);
+        System.out.printf("drift after %.1f s: %.4f m continuous, %.4f m discrete%n", TIME, continuous, discrete);
+        assertTrue(discrete < continuous / 2, "discrete drift " + discrete + " m, continuous " + continuous + " m");
+    }
+
+    @Test
+    void discreteStatesMatchWithoutRotation() {
+        double[] speeds = new double[4], angles = new double[4];
+        double[] discreteSpeeds = new double[4], discreteAngles = new double[4];
+        SwerveMath.toModuleStates(1, -2, 0, 0.7, SwerveConstants.MODULE_LOCATIONS, speeds, angles);
+        SwerveMath.toDiscreteModuleStates(1, -2, 0, 0.7, DT, SwerveConstants.MODULE_LOCATIONS, discreteSpeeds,
+                discreteAngles);
+        assertArrayEquals(speeds, discreteSpeeds, 1e-9);
+        assertArrayEquals(angles, discreteAngles, 1e-9);
+    }
+}
@@ -0,0 +1,118 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants;
+
+/**
+ * Checks the routes of {@link VisibilityGraph} keep the robot center out of
+ * every obstacle inflated by the navigation margin
+ */
+class VisibilityGraphTest {
+    private static final double MARGIN = Constants.NAVIGATION_MARGIN;
+    private static final double TOLERANCE = 1e-4; // meters, a route may run along the edge of an obstacle
+    private static final double STEP = 0.005; // meters between the points checked along a segment
+    private static final Translation2d[] GOALS = {
+            new Translation2d(2.17, 4.735), new Translation2d(2.17, 0.755), new Translation2d(15.46, 7.34)
+    };
+
+    private final VisibilityGraph graph = VisibilityGraph.getField();
+
+    /**
+     * Gets the inflated obstacle a point is inside of
+     *
+     * @return The obstacle, or null if the point is clear
+     */
+    private static Rectangle obstacleAt(Rectangle[] obstacles, double margin, double x, double y) {
+        for (Rectangle obstacle : obstacles) {
+            if (x > obstacle.getBottomLeft().getX() - margin + TOLERANCE
+                    && x < obstacle.getTopRight().getX() + margin - TOLERANCE
+                    && y > obstacle.getBottomLeft().getY() - margin + TOLERANCE
+                    && y < obstacle.getTopRight().getY() + margin - TOLERANCE)
+                return obstacle;
+        }
+        return null;
+    }
+
+    private static Translation2d randomClearPoint(Random random) {
+        while (true) {
+            double x = MARGIN + random.nextDouble() * (Constants.FIELD_WIDTH - 2 * MARGIN);
+            double y = MARGIN + random.nextDouble() * (Constants.FIELD_HEIGHT - 2 * MARGIN);
+            if (obstacleAt(Constants.OBSTACLES, MARGIN, x, y) == null)
+                return new Translation2d(x, y);
+        }
+    }
+
+    /**
+     * Checks every segment of a route, sampled every {@link #STEP}, stays out of
+     * the inflated obstacles and the route ends at the goal
+     */
+    private void assertAvoidsObstacles(Translation2d start, Translation2d goal) {
+        Translation2d[] path = graph.findPath(start, goal);
+        String route = "route from " + start + " to " + goal;
+        assertTrue(path.length > 0, "no " + route);
+        assertEquals(goal, path[path.length - 1], route);
+        Translation2d previous = start;
+        for (Translation2d waypoint : path) {
+            double length = previous.getDistance(waypoint);
+            int steps = (int) Math.ceil(length / STEP);
+            for (int i = 0; i <= steps; i++) {
+                Translation2d point = previous.interpolate(waypoint, steps == 0 ? 0 : (double) i / steps);
+                Rectangle obstacle = obstacleAt(Constants.OBSTACLES, MARGIN, point.getX(), point.getY());
+                assertNull(obstacle, route + " passes " + point + " inside the obstacle from "
+                        + (obstacle == null ? null : obstacle.getBottomLeft()));
+            }
+            previous = waypoint;
+        }
+    }
+
+    @Test
+    void routesToTheTargetsAvoidTheObstacles() {
+        Random random = new Random(3075);
+        for (int i = 0; i < 2000; i++) {
+            Translation2d start = randomClearPoint(random);
+            for (Translation2d goal : GOALS) {
+                assertAvoidsObstacles(start, goal);
+            }
+        }
+    }
+
+    @Test
+    void routesBetweenRandomPointsAvoidTheObstacles() {
+        Random random = new Random(9012);
+        for (int i = 0; i < 2000; i++) {
+            assertAvoidsObstacles(randomClearPoint(random), randomClearPoint(random));
+        }
+    }
+
+    @Test
+    void clearRouteGoesStraightToTheGoal() {
+        Translation2d[] path = graph.findPath(new Translation2d(8, 1), new Translation2d(8, 7));
+        assertEquals(1, path.length);
+        assertEquals(new Translation2d(8, 7), path[0]);
+    }
+
+    @Test
+    void enclosedGoalHasNoRoute() {
+        double margin = 0.1;
+        Rectangle[] walls = { // a closed box around (5, 5)
+                new Rectangle(4, 4, 6, 4.5), new Rectangle(4, 5.5, 6, 6),
+                new Rectangle(4, 4, 4.5, 6), new Rectangle(5.5, 4, 6, 6)
+        };
+        VisibilityGraph enclosed = new VisibilityGraph(10, 10, margin, walls);
+        assertNull(obstacleAt(walls, margin, 5, 5));
+
+        double[] waypoints = new double[enclosed.getMaxWaypoints() * 2];
+        assertEquals(0, enclosed.findPath(1, 1, 5, 5, waypoints));
+        assertEquals(0, enclosed.findPath(new Translation2d(1, 1), new Translation2d(5, 5)).length);
+        assertEquals(0, enclosed.findPath(5, 5, 9, 9, waypoints));
+        assertTrue(enclosed.findPath(1, 1, 9, 9, waypoints) > 0);
+    }
+}
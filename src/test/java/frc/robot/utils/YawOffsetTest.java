@@ -0,0 +1,76 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class YawOffsetTest {
+    private static final double MIN_RESET = YawOffset.MIN_HARDWARE_RESET;
+
+    private final YawOffset offset = new YawOffset();
+
+    @Test
+    void softwareResetKeepsTheOffset() {
+        offset.reset(10, false);
+        assertFalse(offset.isPending());
+        assertEquals(5, offset.correct(15, 5), 1e-9);
+        assertEquals(-60, offset.correct(-50, -60), 1e-9);
+    }
+
+    @Test
+    void offsetIsDroppedWhenTheGyroApplies() {
+        offset.reset(30, true);
+        offset.acknowledge(true);
+        for (int reading = 1; reading <= 3; reading++) {
+            // rotating at -300 degrees per second, the gyro did not apply the reset yet
+            assertEquals(-6 * reading, offset.correct(30 - 6 * reading, -6 * reading), 1e-9);
+            assertTrue(offset.isPending());
+        }
+        assertEquals(-24, offset.correct(-24, -24), 1e-9);
+        assertFalse(offset.isPending());
+        assertEquals(-30, offset.correct(-30, -30), 1e-9);
+    }
+
+    @Test
+    void rotationBeforeTheGyroAppliesKeepsTheOffset() {
+        offset.reset(MIN_RESET, true);
+        offset.acknowledge(true);
+        // a reading that moved halfway to zero, since the robot turned back by more than half the offset
+        assertEquals(-11, offset.correct(MIN_RESET - 11, -11), 1e-9);
+        assertTrue(offset.isPending());
+
+        offset.reset(-25, true);
+        offset.acknowledge(true);
+        assertEquals(14, offset.correct(-11, 14), 1e-9);
+        assertTrue(offset.isPending());
+    }
+
+    @Test
+    void fastRotationWhileTheGyroAppliesDropsTheOffset() {
+        offset.reset(MIN_RESET, true);
+        offset.acknowledge(true);
+        assertEquals(-11, offset.correct(-11, -11), 1e-9);
+        assertFalse(offset.isPending());
+    }
+
+    @Test
+    void readingsBeforeTheAcknowledgementKeepTheOffset() {
+        offset.reset(30, true);
+        // the offset is only dropped once the response of the gyro reached the loop
+        assertEquals(-32, offset.correct(-2, -2), 1e-9);
+        assertTrue(offset.isPending());
+        offset.acknowledge(true);
+        assertEquals(-3, offset.correct(-3, -3), 1e-9);
+        assertFalse(offset.isPending());
+    }
+
+    @Test
+    void unacknowledgedResetIsKeptInSoftware() {
+        offset.reset(30, true);
+        offset.acknowledge(false);
+        assertFalse(offset.isPending());
+        assertEquals(-30, offset.correct(0, -30), 1e-9);
+    }
+}
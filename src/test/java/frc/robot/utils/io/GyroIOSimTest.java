@@ -0,0 +1,45 @@
+package frc.robot.utils.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class GyroIOSimTest {
+    @Test
+    void yawAccumulatesWithoutWrapping() {
+        GyroIOSim gyro = new GyroIOSim(() -> 0);
+        for (int i = 0; i < 10; i++) {
+            gyro.addYaw(45, 90);
+        }
+        assertEquals(450, gyro.readYaw(), 1e-9);
+        gyro.addYaw(-500, -90);
+        assertEquals(-50, gyro.readYaw(), 1e-9);
+    }
+
+    @Test
+    void setYawAppliesImmediately() {
+        GyroIOSim gyro = new GyroIOSim(() -> 0);
+        gyro.addYaw(30, 0);
+        gyro.setYaw(0);
+        assertEquals(0, gyro.readYaw());
+        gyro.addYaw(10, 0);
+        assertEquals(10, gyro.readYaw(), 1e-9);
+    }
+
+    @Test
+    void inputsHoldTheReadings() {
+        double[] time = { 1.5 };
+        GyroIOSim gyro = new GyroIOSim(() -> time[0]);
+        gyro.addYaw(20, 40);
+        gyro.setTilt(5, -3, 10, -6);
+        GyroIO.Inputs inputs = new GyroIO.Inputs();
+        gyro.updateInputs(inputs);
+        assertEquals(1.5, inputs.timestamp);
+        assertEquals(20, inputs.yaw);
+        assertEquals(5, inputs.pitch);
+        assertEquals(-3, inputs.roll);
+        assertEquals(-6, inputs.rates[0]);
+        assertEquals(10, inputs.rates[1]);
+        assertEquals(40, inputs.rates[2]);
+    }
+}
@@ -0,0 +1,136 @@
+package frc.robot.utils.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import frc.robot.utils.logging.LogReader;
+import frc.robot.utils.logging.LogWriter;
+import frc.robot.utils.logging.ReplaySource;
+
+/**
+ * Records the inputs of the simulated IO into a log and checks the replay IO
+ * reads the same inputs back, loop by loop
+ */
+class ReplayIOTest {
+    private static final int LOOPS = 20;
+    private static final String[] MODULES = { "Left", "Right" };
+    private static final int ODOMETRY_SAMPLES = 3;
+
+    @TempDir
+    Path directory;
+
+    private ReplaySource source;
+    private int odometryField;
+
+    @BeforeEach
+    void record() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (String name : SwerveModuleIO.Inputs.FIELDS) {
+            names.add("Module/" + name);
+        }
+        for (String name : GyroIO.Inputs.FIELDS) {
+            names.add("Gyro/" + name);
+        }
+        odometryField = names.size();
+        names.add("Odometry/Samples");
+        for (int i = 0; i < ODOMETRY_SAMPLES; i++) {
+            for (String name : OdometryIO.sampleFields(MODULES)) {
+                names.add("Odometry/" + i + "/" + name);
+            }
+        }
+        double[] values = new double[names.size()];
+        Path file = directory.resolve("io" + LogWriter.EXTENSION);
+        try (LogWriter writer = new LogWriter(file, names.toArray(new String[0]), LOOPS, 1, 1)) {
+            for (int loop = 0; loop < LOOPS; loop++) {
+                for (int field = 0; field < values.length; field++) {
+                    values[field] = loop * 100 + field;
+                }
+                values[odometryField] = loop % (ODOMETRY_SAMPLES + 1);
+                writer.write(values);
+            }
+        }
+        source = new ReplaySource(new LogReader(file));
+    }
+
+    @Test
+    void moduleReadsTheRecordedInputs() {
+        SwerveModuleIOReplay module = new SwerveModuleIOReplay(source, "Module");
+        SwerveModuleIO.Inputs inputs = new SwerveModuleIO.Inputs();
+        for (int loop = 0; loop < LOOPS; loop++) {
+            assertTrue(source.next());
+            module.setDriveVelocity(5, 1);
+            module.setSteerPosition(90, 0);
+            module.updateInputs(inputs);
+            assertEquals(loop * 100, inputs.absoluteAngle);
+            assertEquals(loop * 100 + 1, inputs.drivePosition);
+            assertEquals(loop * 100 + 2, inputs.driveVelocity);
+            assertEquals(loop * 100 + 3, inputs.steerPosition);
+            assertEquals(loop * 100 + 4, inputs.timestamp);
+            assertEquals(inputs.absoluteAngle, module.readAbsoluteAngle());
+            assertEquals(inputs.drivePosition, module.readDrivePosition());
+        }
+        assertFalse(source.next());
+    }
+
+    @Test
+    void gyroReadsTheRecordedInputs() {
+        GyroIOReplay gyro = new GyroIOReplay(source, "Gyro");
+        GyroIO.Inputs inputs = new GyroIO.Inputs();
+        int first = SwerveModuleIO.Inputs.FIELDS.length;
+        for (int loop = 0; loop < LOOPS; loop++) {
+            assertTrue(source.next());
+            gyro.setYaw(0);
+            gyro.updateInputs(inputs);
+            assertEquals(loop * 100 + first, inputs.yaw);
+            assertEquals(loop * 100 + first + 1, inputs.pitch);
+            assertEquals(loop * 100 + first + 2, inputs.roll);
+            for (int i = 0; i < inputs.rates.length; i++) {
+                assertEquals(loop * 100 + first + 3 + i, inputs.rates[i]);
+            }
+            assertEquals(loop * 100 + first + 6, inputs.timestamp);
+            assertEquals(inputs.yaw, gyro.readYaw());
+        }
+    }
+
+    @Test
+    void odometryReadsTheRecordedSamplesOnce() {
+        OdometryIOReplay odometry = new OdometryIOReplay(source, "Odometry", MODULES, ODOMETRY_SAMPLES);
+        int size = 2 + MODULES.length * 2;
+        for (int loop = 0; loop < LOOPS; loop++) {
+            assertTrue(source.next());
+            odometry.sample();
+            int samples = odometry.readSamples();
+            assertEquals(loop % (ODOMETRY_SAMPLES + 1), samples);
+            for (int sample = 0; sample < samples; sample++) {
+                int first = loop * 100 + odometryField + 1 + sample * size;
+                assertEquals(first, odometry.getTimestamp(sample));
+                assertEquals(first + 1, odometry.getYaw(sample));
+                for (int module = 0; module < MODULES.length; module++) {
+                    assertEquals(first + 2 + module * 2, odometry.getDistance(sample, module));
+                    assertEquals(first + 3 + module * 2, odometry.getAngle(sample, module));
+                }
+            }
+            odometry.clear();
+            assertEquals(0, odometry.readSamples());
+        }
+    }
+
+    @Test
+    void missingFieldsAreReported() {
+        assertThrows(IllegalArgumentException.class, () -> new GyroIOReplay(source, "Pigeon"));
+        assertThrows(IllegalArgumentException.class, () -> new SwerveModuleIOReplay(source, "Front Left"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OdometryIOReplay(source, "Odometry", MODULES, ODOMETRY_SAMPLES + 1));
+    }
+}
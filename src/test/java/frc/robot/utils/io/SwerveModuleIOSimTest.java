@@ -0,0 +1,119 @@
+package frc.robot.utils.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import frc.robot.Constants.SwerveModuleConstants;
+
+class SwerveModuleIOSimTest {
+    private static final double DT = 0.001; // seconds
+
+    private double time;
+    private SwerveModuleIOSim module;
+
+    @BeforeEach
+    void setUp() {
+        time = 0;
+        module = new SwerveModuleIOSim(SwerveModuleConstants.FRONT_LEFT, () -> time);
+    }
+
+    private void run(double seconds) {
+        for (int i = 0; i < Math.round(seconds / DT); i++) {
+            module.step(DT);
+            time += DT;
+        }
+    }
+
+    private void driveAt(double velocity) {
+        module.setDriveVelocity(velocity, SwerveModuleConstants.VELOCITY_FF.calculate(velocity));
+    }
+
+    @Test
+    void driveReachesTheTargetVelocity() {
+        driveAt(2);
+        run(0.5);
+        assertEquals(2, module.getVelocity(), 0.01);
+        driveAt(-1);
+        run(0.5);
+        assertEquals(-1, module.getVelocity(), 0.01);
+    }
+
+    @Test
+    void drivePositionIntegratesTheVelocity() {
+        driveAt(1.5);
+        run(0.5);
+        double start = module.readDrivePosition();
+        run(1);
+        assertEquals(1.5, module.readDrivePosition() - start, 0.02);
+    }
+
+    @Test
+    void stillWheelNeedsMoreThanStaticFriction() {
+        module.setDrivePower(SwerveModuleConstants.VELOCITY_KS * 0.9);
+        run(1);
+        assertEquals(0, module.getVelocity());
+        assertEquals(0, module.readDrivePosition());
+    }
+
+    @Test
+    void coastStopsLaterThanBrakeWithoutReversing() {
+        SwerveModuleIOSim coast = new SwerveModuleIOSim(SwerveModuleConstants.FRONT_LEFT, () -> time);
+        coast.setNeutralMode(false);
+        for (SwerveModuleIOSim sim : new SwerveModuleIOSim[] { module, coast }) {
+            sim.setDriveVelocity(2, SwerveModuleConstants.VELOCITY_FF.calculate(2));
+        }
+        for (int i = 0; i < 500; i++) {
+            module.step(DT);
+            coast.step(DT);
+        }
+        module.setDrivePower(0);
+        coast.setDrivePower(0);
+        for (int i = 0; i < 300; i++) {
+            module.step(DT);
+            coast.step(DT);
+        }
+        assertEquals(0, module.getVelocity());
+        assertTrue(coast.getVelocity() > 0.5, "coast velocity " + coast.getVelocity());
+        for (int i = 0; i < 2000; i++) {
+            coast.step(DT);
+        }
+        assertEquals(0, coast.getVelocity());
+    }
+
+    @Test
+    void steerReachesTheTargetPosition() {
+        module.setSteerPosition(90, 0);
+        run(0.5);
+        assertEquals(90, module.getAngle(), 0.5);
+        module.setSteerPosition(-30, 0);
+        run(0.5);
+        assertEquals(-30, module.getAngle(), 0.5);
+    }
+
+    @Test
+    void absoluteEncoderReadsTheOffsetAngle() {
+        assertEquals(SwerveModuleConstants.FRONT_LEFT.angleOffset, module.readAbsoluteAngle(), 1e-9);
+        module.setSteerPosition(-90, 0);
+        run(0.5);
+        double expected = SwerveModuleConstants.FRONT_LEFT.angleOffset + module.getAngle() + 360;
+        assertEquals(expected % 360, module.readAbsoluteAngle(), 1e-9);
+        assertTrue(module.readAbsoluteAngle() >= 0 && module.readAbsoluteAngle() < 360);
+    }
+
+    @Test
+    void inputsMatchTheDirectReads() {
+        driveAt(1);
+        module.setSteerPosition(45, 0);
+        run(0.3);
+        SwerveModuleIO.Inputs inputs = new SwerveModuleIO.Inputs();
+        module.updateInputs(inputs);
+        assertEquals(time, inputs.timestamp);
+        assertEquals(module.readAbsoluteAngle(), inputs.absoluteAngle);
+        assertEquals(module.readDrivePosition(), inputs.drivePosition);
+        assertEquals(module.getVelocity(), inputs.driveVelocity);
+        assertEquals(module.getAngle(), inputs.steerPosition);
+    }
+}
@@ -0,0 +1,74 @@
+package frc.robot.utils.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+
+class SwerveSimulationTest {
+    private static void setModules(SwerveSimulation simulation, double[] angles, double velocity) {
+        SwerveModuleIOSim[] modules = simulation.getModules();
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setSteerPosition(angles[i], 0);
+            modules[i].setDriveVelocity(velocity, SwerveModuleConstants.VELOCITY_FF.calculate(velocity));
+        }
+    }
+
+    private static void run(SwerveSimulation simulation, double seconds) {
+        for (int i = 0; i < Math.round(seconds / 0.02); i++) {
+            simulation.step(0.02);
+        }
+    }
+
+    @Test
+    void timeAdvancesByTheStep() {
+        SwerveSimulation simulation = new SwerveSimulation();
+        simulation.step(0.02);
+        simulation.step(0.0125);
+        assertEquals(0.0325, simulation.getTime(), 1e-9);
+    }
+
+    @Test
+    void robotTranslatesInTheDirectionOfTheWheels() {
+        SwerveSimulation simulation = new SwerveSimulation();
+        setModules(simulation, new double[] { 30, 30, 30, 30 }, 0);
+        run(simulation, 0.5);
+        assertEquals(new Pose2d(), simulation.getPose());
+
+        setModules(simulation, new double[] { 30, 30, 30, 30 }, 1.5);
+        double startDistance = simulation.getModules()[0].readDrivePosition();
+        run(simulation, 2);
+        double distance = simulation.getModules()[0].readDrivePosition() - startDistance;
+        Pose2d pose = simulation.getPose();
+        assertEquals(distance, pose.getTranslation().getNorm(), 0.01);
+        assertEquals(30, Math.toDegrees(Math.atan2(pose.getY(), pose.getX())), 0.5);
+        assertEquals(0, pose.getRotation().getDegrees(), 0.5);
+        assertEquals(0, simulation.getGyro().readYaw(), 0.5);
+    }
+
+    @Test
+    void robotSpinsInPlaceWithTheWheelsTangent() {
+        SwerveSimulation simulation = new SwerveSimulation();
+        double[] angles = new double[SwerveConstants.MODULE_LOCATIONS.length];
+        for (int i = 0; i < angles.length; i++) {
+            angles[i] = SwerveConstants.MODULE_LOCATIONS[i].getAngle().getDegrees() + 90;
+        }
+        setModules(simulation, angles, 0);
+        run(simulation, 0.5);
+        setModules(simulation, angles, 1);
+        run(simulation, 0.5); // less than half a turn, so the pose rotation does not wrap
+
+        Pose2d pose = simulation.getPose();
+        assertEquals(0, pose.getTranslation().getNorm(), 0.01);
+        double radius = SwerveConstants.MODULE_LOCATIONS[0].getNorm();
+        double distance = simulation.getModules()[0].readDrivePosition();
+        assertEquals(Math.toDegrees(distance / radius), pose.getRotation().getDegrees(), 1);
+        assertEquals(pose.getRotation().getDegrees(), simulation.getGyro().readYaw(), 1e-6);
+        GyroIO.Inputs inputs = new GyroIO.Inputs();
+        simulation.getGyro().updateInputs(inputs);
+        assertEquals(Math.toDegrees(1 / radius), inputs.rates[2], 1);
+    }
+}
@@ -0,0 +1,83 @@
+package frc.robot.utils.logging;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogWriterTest {
+    private static final String[] FIELDS = { "A", "B" };
+
+    @TempDir
+    Path directory;
+
+    private LogWriter create(String name, int filesKept) throws IOException {
+        return new LogWriter(directory.resolve(name + LogWriter.EXTENSION), FIELDS, 10, 1, filesKept);
+    }
+
+    @Test
+    void existingFileIsNotReplaced() throws IOException {
+        Path file = directory.resolve("19700101_000000" + LogWriter.EXTENSION);
+        byte[] content = { 1, 2, 3 };
+        Files.write(file, content);
+        assertThrows(FileAlreadyExistsException.class, () -> create("19700101_000000", 10));
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    @Test
+    void renamedFileKeepsItsRecords() throws IOException {
+        Path target = directory.resolve("20230301_120000" + LogWriter.EXTENSION);
+        try (LogWriter writer = create("boot_1", 10)) {
+            writer.write(new double[] { 1, 2 });
+            writer.rename(target);
+            writer.write(new double[] { 3, 4 });
+        }
+        assertFalse(Files.exists(directory.resolve("boot_1" + LogWriter.EXTENSION)));
+        LogReader reader = new LogReader(target);
+        assertEquals(2, reader.getRecordCount());
+        assertEquals(3, reader.get(1, 0));
+        assertEquals(4, reader.get(1, 1));
+    }
+
+    @Test
+    void renameAddsASuffixWhenTheNameIsTaken() throws IOException {
+        Path target = directory.resolve("20230301_120000" + LogWriter.EXTENSION);
+        byte[] content = { 1, 2, 3 };
+        Files.write(target, content);
+        LogWriter writer = create("boot_1", 10);
+        writer.rename(target);
+        writer.close();
+        Path renamed = writer.getFile();
+        assertEquals(directory.resolve("20230301_120000_1" + LogWriter.EXTENSION), renamed);
+        assertTrue(Files.exists(renamed));
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void pruneKeepsTheMostRecentlyModifiedFiles() throws IOException {
+        // the names sort opposite to the times, as a file named in 1970 would
+        String[] names = { "19700101_000003", "19700101_000002", "20230301_120000", "20230301_110000" };
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < names.length; i++) {
+            Path file = directory.resolve(names[i] + LogWriter.EXTENSION);
+            Files.write(file, new byte[] { 0 });
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now - 60000 * (names.length - i)));
+        }
+        create("boot_1", 3).close();
+        assertFalse(Files.exists(directory.resolve(names[0] + LogWriter.EXTENSION)));
+        assertFalse(Files.exists(directory.resolve(names[1] + LogWriter.EXTENSION)));
+        assertTrue(Files.exists(directory.resolve(names[2] + LogWriter.EXTENSION)));
+        assertTrue(Files.exists(directory.resolve(names[3] + LogWriter.EXTENSION)));
+        assertTrue(Files.exists(directory.resolve("boot_1" + LogWriter.EXTENSION)));
+    }
+}